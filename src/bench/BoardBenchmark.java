@@ -0,0 +1,133 @@
+package bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Simulation.Environment;
+import Simulation.Cells.Cell;
+import Simulation.Graphics.Board;
+import Simulation.Grid.CellGrid;
+
+/**
+ * Benchmarks for painting the board into an offscreen image.
+ * 
+ * The score is in frames per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class BoardBenchmark {
+
+    @Param({"250", "1000", "4000"})
+    public int size;
+
+    @Param({"1", "2"})
+    public int cellSize;
+
+    private Environment     environment;
+    private Board           board;
+    private Board           gridBoard;
+    private BufferedImage   image;
+    private Graphics2D      graphics;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        this.environment = new Environment(this.size, EnvironmentBenchmark.SEED);
+        for (int i = 0; i < 20; ++i) {
+            this.environment.setFire();
+        }
+        for (int i = 0; i < 20; ++i) {
+            this.environment.implementTransitions();
+        }
+
+        this.board      = new Board(this.environment.getStateMatrix(), this.cellSize);
+        this.gridBoard  = new Board(this.environment.getGrid(), this.cellSize);
+        this.image      = new BufferedImage(this.size * this.cellSize, this.size * this.cellSize, BufferedImage.TYPE_INT_RGB);
+        this.graphics   = this.image.createGraphics();
+
+        // The image's graphics has no clip, so the boards only paint the cells under their own size.
+        this.board.setSize(this.image.getWidth(), this.image.getHeight());
+        this.gridBoard.setSize(this.image.getWidth(), this.image.getHeight());
+
+        this.checkPainted(this.board);
+        this.gridBoard.refresh();
+        this.checkPainted(this.gridBoard);
+    }
+
+    /**
+     * Make sure the board paints every cell its color, so the benchmarks measure painting them;
+     * the panel's background alone would fill the image too.
+     */
+    private void checkPainted(Board board) {
+
+        // Start from a color no state has, so nothing left over from before passes.
+        int[] pixels = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+        Arrays.fill(pixels, 0x123456);
+
+        board.paintComponent(this.graphics);
+
+        CellGrid grid = this.environment.getGrid();
+        for (int y = 0; y < this.size; ++y) {
+            for (int x = 0; x < this.size; ++x) {
+                int color = Cell.forState(grid.get(x, y)).getColor().getRGB();
+                if (this.image.getRGB(x * this.cellSize, y * this.cellSize) != color) {
+                    throw new IllegalStateException("Board did not paint cell (" + x + ", " + y + ").");
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.graphics.dispose();
+    }
+
+    /**
+     * Reflective getColor() and fillRect() for every cell.
+     */
+    @Benchmark
+    public BufferedImage doDrawing() {
+        this.board.paintComponent(this.graphics);
+        return this.image;
+    }
+
+    /**
+     * Palette lookup of the whole grid into the raster, then one scaled drawImage().
+     */
+    @Benchmark
+    public BufferedImage doDrawingGrid() {
+        this.gridBoard.refresh();
+        this.gridBoard.paintComponent(this.graphics);
+        return this.image;
+    }
+
+    /**
+     * Palette lookup of only the cells the last tick changed, as done between frames.
+     */
+    @Benchmark
+    public Board applyChanges() {
+        this.gridBoard.applyChanges(this.environment.getChanges());
+        return this.gridBoard;
+    }
+}
@@ -0,0 +1,156 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import Exceptions.InvalidCheckpointException;
+import Exceptions.InvalidProbabilityException;
+import Simulation.Environment;
+import Simulation.SteppingMode;
+import Simulation.Cells.PositionedCell;
+
+/**
+ * <p>Benchmarks for building and stepping the Environment.</p>
+ *
+ * <p>Each benchmark has its own state with only the parameters it uses, so JMH doesn't
+ * repeat a benchmark for settings it ignores.</p>
+ *
+ * <p>The implementTransitions score is in ticks per second. VECTOR only differs from
+ * SWEEP when the forked JVM has the jdk.incubator.vector module (see the makefile);
+ * the setup refuses to run it otherwise, rather than report the scalar path twice.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvironmentBenchmark {
+
+    static final long SEED = 0x5EED;
+
+    /**
+     * State for implementTransitions.
+     */
+    @State(Scope.Benchmark)
+    public static class Transitions {
+
+        @Param({"250", "1000", "4000"})
+        public int size;
+
+        /**
+         * Fraction of the board set alight before each iteration.
+         */
+        @Param({"0.001", "0.01", "0.1"})
+        public double fireDensity;
+
+        @Param({"SWEEP", "FRONTIER", "PARALLEL", "VECTOR"})
+        public SteppingMode mode;
+
+        private Path checkpoint;
+        private Environment environment;
+
+        /**
+         * Light the board once, and keep it in a checkpoint for the iterations to start from.
+         */
+        @Setup(Level.Trial)
+        public void setupTrial() throws InvalidProbabilityException, IOException {
+
+            if (this.mode == SteppingMode.VECTOR && !Environment.isVectorAvailable()) {
+                throw new IllegalStateException("VECTOR needs --add-modules jdk.incubator.vector");
+            }
+
+            Environment environment = new Environment(this.size, SEED);
+
+            // Keep the fire going for the length of an iteration.
+            environment.setBurnoutProbability(.1);
+            environment.setIgnitionProbability(.9);
+            environment.setResurrectionProbability(.05);
+
+            long fires = Math.max(1, (long) (this.fireDensity * this.size * this.size));
+            for (long i = 0; i < fires; ++i) {
+                environment.setFire();
+            }
+
+            this.checkpoint = Files.createTempFile("bench", ".ckpt");
+            environment.save(this.checkpoint);
+        }
+
+        /**
+         * Start every iteration from the same board, so the fire front
+         * is comparable between runs.
+         */
+        @Setup(Level.Iteration)
+        public void setupIteration() throws IOException, InvalidCheckpointException {
+            this.environment = Environment.load(this.checkpoint);
+            this.environment.setSteppingMode(this.mode);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(this.checkpoint);
+        }
+    }
+
+    /**
+     * State for getVanNeumannNeighborhood, whose cost doesn't depend on the board size.
+     */
+    @State(Scope.Benchmark)
+    public static class Neighborhood {
+
+        private Environment environment;
+        private PositionedCell center;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            this.environment = new Environment(250, SEED);
+            this.center = this.environment.getCell(125, 125);
+        }
+    }
+
+    /**
+     * State for construct.
+     */
+    @State(Scope.Benchmark)
+    public static class Construct {
+
+        @Param({"250", "1000", "4000"})
+        public int size;
+    }
+
+    @Benchmark
+    public void implementTransitions(Transitions state) {
+        state.environment.implementTransitions();
+    }
+
+    @Benchmark
+    public PositionedCell[] getVanNeumannNeighborhood(Neighborhood state) {
+        return state.environment.getVanNeumannNeighborhood(state.center, 2);
+    }
+
+    /**
+     * Construction includes loadCells(), which rolls for every cell on the board.
+     */
+    @Benchmark
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 3, time = 2)
+    public void construct(Construct state, Blackhole blackhole) {
+        blackhole.consume(new Environment(state.size, SEED));
+    }
+}
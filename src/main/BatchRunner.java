@@ -0,0 +1,369 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import Exceptions.InvalidProbabilityException;
+import Exceptions.InvalidSweepException;
+import Simulation.Environment;
+import Simulation.SteppingMode;
+import Simulation.Ensemble.Ensemble;
+import Simulation.Ensemble.EnsembleStatistics;
+import Simulation.Sweep.ParameterSweep;
+import Simulation.Monitoring.SimulationMonitor;
+import Simulation.Grid.BitGrid;
+import Simulation.Grid.Boundary;
+import Simulation.Grid.ByteGrid;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChunkedGrid;
+import Simulation.Grid.MappedGrid;
+import Simulation.Grid.PackedGrid;
+import Simulation.Grid.PaddedGrid;
+
+/**
+ * Headless entry point; runs an Environment as fast as it can, without any graphics.
+ *
+ * Runs for the given number of ticks, or until the fire goes out, and prints
+ * a summary of the run as name=value lines. The tick latencies and allocation are
+ * those of the last SimulationMonitor.WINDOW ticks; allocation only counts the thread
+ * running the ticks, and is -1 for --mode PARALLEL.
+ *
+ * --grid picks the backend of a single run's board; CHUNKED only allocates the parts of the
+ * board the fire reaches, which is what lets --size go up to 100,000 with --mode FRONTIER,
+ * and MAPPED keeps the board in a temporary memory-mapped file, for boards larger than memory.
+ *
+ * With --runs, runs an Ensemble of that many fires with seeds counting up from --seed
+ * instead, each to extinction or the tick limit, and prints statistics over the runs.
+ *
+ * With --sweep, runs such an ensemble at every point of a ParameterSweep and writes the
+ * points to the --output CSV file, resuming from it if it exists. Each --sweep is a
+ * Name:from:to:steps range, and --refine Name:threshold:rounds refines one of them.
+ *
+ * Ex:
+ *      java BatchRunner --size 2000 --ticks 5000 --seed 42 --ignition 0.6 --combustion 0
+ *      java BatchRunner --size 100000 --grid CHUNKED --mode FRONTIER --ticks 2000 --seed 7 --combustion 0
+ *      java BatchRunner --size 300 --runs 10000 --seed 1 --ignition 0.6 --combustion 0
+ *      java BatchRunner --size 300 --runs 200 --seed 1 --combustion 0 --sweep Ignition:0.3:0.9:13 --refine Ignition:0.1:4 --output ignition.csv
+ */
+public class BatchRunner {
+
+    private int          size         = 350;
+    private long         ticks        = 1000;
+    private long         seed         = System.nanoTime();
+    private int          fires        = 1;
+    private SteppingMode mode         = SteppingMode.FRONTIER;
+    private Boundary     boundary     = Boundary.CLAMPED;
+    private String       grid         = "PACKED";
+    private int          parallelism  = Runtime.getRuntime().availableProcessors();
+    private int          runs         = 0;
+
+    private ArrayList<String> sweeps  = new ArrayList<String>();    // Name:from:to:steps
+    private String            refine;                               // Name:threshold:rounds
+    private Path              output  = Path.of("sweep.csv");
+
+    private HashMap<String, Double> probabilities = new HashMap<String, Double>();
+
+    /**
+     * Read the command line arguments into the runner's settings.
+     *
+     * @param args pairs of --name value
+     * @throws IllegalArgumentException if an argument is unknown or malformed
+     */
+    public void parseArguments(String[] args) {
+
+        for (int i = 0; i < args.length; i += 2) {
+
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+
+            String name  = args[i];
+            String value = args[i + 1];
+
+            switch (name) {
+                case "--size":
+                    this.size = Integer.parseInt(value);
+                    break;
+                case "--ticks":
+                    this.ticks = Long.parseLong(value);
+                    break;
+                case "--seed":
+                    this.seed = Long.parseLong(value);
+                    break;
+                case "--fires":
+                    this.fires = Integer.parseInt(value);
+                    break;
+                case "--mode":
+                    this.mode = SteppingMode.valueOf(value.toUpperCase());
+                    break;
+                case "--boundary":
+                    this.boundary = Boundary.valueOf(value.toUpperCase());
+                    break;
+                case "--grid":
+                    this.grid = value.toUpperCase();
+                    break;
+                case "--threads":
+                    this.parallelism = Integer.parseInt(value);
+                    break;
+                case "--runs":
+                    this.runs = Integer.parseInt(value);
+                    break;
+                case "--sweep":
+                    this.sweeps.add(value);
+                    break;
+                case "--refine":
+                    this.refine = value;
+                    break;
+                case "--output":
+                    this.output = Path.of(value);
+                    break;
+                case "--generation":
+                    this.probabilities.put("Generation", Double.parseDouble(value));
+                    break;
+                case "--burnout":
+                    this.probabilities.put("Burnout", Double.parseDouble(value));
+                    break;
+                case "--ignition":
+                    this.probabilities.put("Ignition", Double.parseDouble(value));
+                    break;
+                case "--resurrection":
+                    this.probabilities.put("Resurrection", Double.parseDouble(value));
+                    break;
+                case "--combustion":
+                    this.probabilities.put("Combustion", Double.parseDouble(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + name);
+            }
+        }
+    }
+
+    /**
+     * Build the environment, run it and print the summary.
+     *
+     * @throws InvalidProbabilityException if a given probability is not between 0 and 1
+     * @throws InterruptedException if interrupted while waiting for an ensemble
+     * @throws IOException if the sweep's file can't be read or written
+     * @throws InvalidSweepException if the sweep's file belongs to a different sweep
+     */
+    public void run() throws InvalidProbabilityException, InterruptedException, IOException, InvalidSweepException {
+
+        if (!this.sweeps.isEmpty()) {
+            this.runSweep();
+            return;
+        }
+
+        if (this.runs > 0) {
+            this.runEnsemble();
+            return;
+        }
+
+        // A MappedGrid holds a mapping and a temporary file, which have to go even if the run fails.
+        CellGrid cells = this.buildGrid();
+        try {
+            Environment environment = new Environment(cells, this.seed);
+
+            // Generation goes first, since setting it reloads the board.
+            if (this.probabilities.containsKey("Generation")) {
+                environment.setProbability("Generation", this.probabilities.get("Generation"));
+            }
+            for (String name : this.probabilities.keySet()) {
+                if (!name.equals("Generation")) {
+                    environment.setProbability(name, this.probabilities.get(name));
+                }
+            }
+
+            environment.setSteppingMode(this.mode);
+            environment.setBoundary(this.boundary);
+            environment.setParallelism(this.parallelism);
+
+            for (int i = 0; i < this.fires; ++i) {
+                environment.setFire();
+            }
+
+            SimulationMonitor monitor = new SimulationMonitor();
+            monitor.attach(environment);
+
+            long start = System.nanoTime();
+
+            while (environment.getTick() < this.ticks && environment.isBurning()) {
+                environment.implementTransitions();
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            this.printSummary(environment, monitor, seconds);
+        } finally {
+            if (cells instanceof MappedGrid) {
+                ((MappedGrid) cells).close();
+            }
+        }
+    }
+
+    /**
+     * Run an ensemble of fires and print statistics over them.
+     *
+     * @throws InvalidProbabilityException if a given probability is not between 0 and 1
+     * @throws InterruptedException if interrupted while waiting for the runs
+     */
+    private void runEnsemble() throws InvalidProbabilityException, InterruptedException {
+
+        Ensemble ensemble = this.buildEnsemble();
+
+        EnsembleStatistics statistics = new EnsembleStatistics();
+
+        long start = System.nanoTime();
+        ensemble.run(this.seed, this.runs, statistics);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("size="          + this.size);
+        System.out.println("first_seed="    + this.seed);
+        System.out.println("mode="          + this.mode);
+        System.out.println("boundary="      + this.boundary);
+        for (String name : this.probabilities.keySet()) {
+            System.out.println(name.toLowerCase() + "=" + this.probabilities.get(name));
+        }
+        System.out.println("runs="          + statistics.getRuns());
+        System.out.println("extinguished="  + statistics.getExtinguished());
+        System.out.println("seconds="       + seconds);
+        System.out.println("runs_per_second=" + (seconds > 0 ? statistics.getRuns() / seconds : 0));
+        System.out.println("burnt_fraction_mean="   + statistics.getBurntFraction().getMean());
+        System.out.println("burnt_fraction_stddev=" + statistics.getBurntFraction().getStandardDeviation());
+        System.out.println("burnt_fraction_stderr=" + statistics.getBurntFraction().getStandardError());
+        System.out.println("ticks_mean="    + statistics.getTicks().getMean());
+        System.out.println("ticks_max="     + statistics.getTicks().getMax());
+        System.out.println("peak_burning_mean=" + statistics.getPeakBurning().getMean());
+        System.out.println("peak_burning_max="  + statistics.getPeakBurning().getMax());
+    }
+
+    /**
+     * Run an ensemble at every point of a sweep, and print where the points went.
+     */
+    private void runSweep() throws InvalidProbabilityException, InterruptedException, IOException, InvalidSweepException {
+
+        ParameterSweep sweep = new ParameterSweep(this.buildEnsemble(), Math.max(this.runs, 1), this.seed);
+
+        for (String range : this.sweeps) {
+            String[] parts = range.split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Expected Name:from:to:steps, found " + range);
+            }
+            sweep.addRange(parts[0], Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Integer.parseInt(parts[3]));
+        }
+
+        if (this.refine != null) {
+            String[] parts = this.refine.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected Name:threshold:rounds, found " + this.refine);
+            }
+            sweep.setRefinement(parts[0], Double.parseDouble(parts[1]), Integer.parseInt(parts[2]));
+        }
+
+        long start = System.nanoTime();
+        sweep.run(this.output);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("output="        + this.output);
+        System.out.println("points="        + sweep.getPoints().size());
+        System.out.println("seconds="       + seconds);
+    }
+
+    /**
+     * Make the board of a single run.
+     */
+    private CellGrid buildGrid() throws IOException {
+        switch (this.grid) {
+            case "PACKED":
+                return new PackedGrid(this.size);
+            case "BYTE":
+                return new ByteGrid(this.size);
+            case "BIT":
+                return new BitGrid(this.size);
+            case "PADDED":
+                return new PaddedGrid(this.size);
+            case "CHUNKED":
+                return new ChunkedGrid(this.size);
+            case "MAPPED":
+                return MappedGrid.temporary(this.size);
+            default:
+                throw new IllegalArgumentException("Unknown grid " + this.grid);
+        }
+    }
+
+    /**
+     * Make an Ensemble with the runner's settings.
+     */
+    private Ensemble buildEnsemble() throws InvalidProbabilityException {
+
+        Ensemble ensemble = new Ensemble(this.size);
+        for (String name : this.probabilities.keySet()) {
+            ensemble.setProbability(name, this.probabilities.get(name));
+        }
+        ensemble.setSteppingMode(this.mode);
+        ensemble.setBoundary(this.boundary);
+        ensemble.setParallelism(this.parallelism);
+        ensemble.setFires(this.fires);
+        ensemble.setMaxTicks(this.ticks);
+
+        return ensemble;
+    }
+
+    /**
+     * Print the settings and outcome of a run.
+     */
+    private void printSummary(Environment environment, SimulationMonitor monitor, double seconds) {
+
+        long[] counts = environment.getPopulations();
+        double cells  = environment.getGrid().getCellCount();
+
+        System.out.println("size="          + this.size);
+        System.out.println("seed="          + this.seed);
+        System.out.println("grid="          + this.grid);
+        System.out.println("mode="          + this.mode);
+        System.out.println("boundary="      + this.boundary);
+        for (String name : environment.getProbabilities().keySet()) {
+            System.out.println(name.toLowerCase() + "=" + environment.getProbability(name));
+        }
+        System.out.println("ticks="         + environment.getTick());
+        System.out.println("extinguished="  + !environment.isBurning());
+        System.out.println("seconds="       + seconds);
+        System.out.println("ticks_per_second=" + (seconds > 0 ? environment.getTick() / seconds : 0));
+        System.out.println("tick_latency_p50_ms="   + monitor.getTickLatencyP50Millis());
+        System.out.println("tick_latency_p99_ms="   + monitor.getTickLatencyP99Millis());
+        System.out.println("tick_latency_max_ms="   + monitor.getTickLatencyMaxMillis());
+        System.out.println("cells_changed_per_tick=" + monitor.getCellsChangedPerTick());
+        System.out.println("allocated_bytes_per_tick=" + monitor.getAllocatedBytesPerTick());
+        System.out.println("grass="         + counts[CellGrid.GRASS]);
+        System.out.println("stone="         + counts[CellGrid.STONE]);
+        System.out.println("burning="       + counts[CellGrid.BURNING]);
+        System.out.println("burnt="         + counts[CellGrid.BURNT]);
+        System.out.println("burnt_fraction=" + (cells > 0 ? counts[CellGrid.BURNT] / cells : 0));
+        if (environment.getGrid() instanceof ChunkedGrid) {
+            System.out.println("materialized_tiles=" + ((ChunkedGrid) environment.getGrid()).getMaterializedTiles());
+        }
+    }
+
+    public static void main(String[] args) {
+
+        BatchRunner runner = new BatchRunner();
+
+        try {
+            runner.parseArguments(args);
+            runner.run();
+        } catch (InterruptedException ie) {
+            System.err.println("Interrupted.");
+            System.exit(1);
+        } catch (IOException | InvalidSweepException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException | InvalidProbabilityException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java BatchRunner [--size N] [--ticks N] [--seed N] [--fires N] [--runs N]"
+                             + " [--sweep Name:from:to:steps] [--refine Name:threshold:rounds] [--output FILE]"
+                             + " [--mode SWEEP|FRONTIER|PARALLEL|VECTOR|BITBOARD] [--boundary CLAMPED|TOROIDAL|ABSORBING] [--threads N]"
+                             + " [--grid PACKED|BYTE|BIT|PADDED|CHUNKED|MAPPED]"
+                             + " [--generation P] [--burnout P] [--ignition P] [--resurrection P] [--combustion P]");
+            System.exit(1);
+        }
+    }
+}
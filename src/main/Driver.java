@@ -1,6 +1,9 @@
 import java.awt.EventQueue;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
 
 import javax.swing.JSlider;
 import javax.swing.Timer;
@@ -9,20 +12,30 @@ import javax.swing.event.ChangeListener;
 
 import Exceptions.InvalidProbabilityException;
 import Simulation.Environment;
+import Simulation.SimulationLoop;
+import Simulation.Graphics.FrameBuffer;
 import Simulation.Graphics.Window;
+import Simulation.Monitoring.SimulationMonitor;
 
 /**
  * Controller class; middlemans between Environment and Graphics.
  * 
+ * The Environment runs on the simulation loop's own thread. Everything the controls 
+ * do to it is handed to the loop as a command, and the timer on the Event Dispatch 
+ * Thread only ever paints the latest frame the loop published.
  */
 public class Driver implements ActionListener, ChangeListener {
     
-    public  Environment  environment;
-    public  Window       window;
+    public  SimulationLoop  loop;
+    public  Window          window;
+    public  SimulationMonitor monitor = new SimulationMonitor();
     
-    private boolean      isRunning = true;
+    private boolean         isRunning = true;
+
+    private Timer           timer;
 
-    private Timer        timer;
+    private static final long TICK_INTERVAL_MS  = 55;      // Least time between two ticks.
+    private static final int  FRAME_INTERVAL_MS = 16;      // Time between two checks for a new frame.
 
     /**
      * Send updated probability values to environment to use.
@@ -31,23 +44,30 @@ public class Driver implements ActionListener, ChangeListener {
      * @param value int value of probability (from 1 - 100)
      */
     public void updateEnvironmentProbabilities(String name, int value) {
+        this.loop.execute(() -> this.setEnvironmentProbability(this.loop.getEnvironment(), name, value));
+    }
+
+    /**
+     * Set a probability of the environment. Runs on the simulation thread.
+     */
+    private void setEnvironmentProbability(Environment environment, String name, int value) {
         
         try {
             switch (name) {
                 case "Grass Generation Ratio":
-                    this.environment.setGenerativeProbability((double) value/100);
+                    environment.setGenerativeProbability((double) value/100);
                     return;
                 case "Burnout Probablity":
-                    this.environment.setBurnoutProbability( (double) value/100);
+                    environment.setBurnoutProbability( (double) value/100);
                     return;
                 case "Ignition Probability":
-                    this.environment.setIgnitionProbability( (double) value/100);
+                    environment.setIgnitionProbability( (double) value/100);
                     return;
                 case "Resurrection Probability":
-                    this.environment.setResurrectionProbability( (double) value/100);
+                    environment.setResurrectionProbability( (double) value/100);
                     return;
                 case "Spontaneous Combustion Probability":
-                    this.environment.setSpontaneousCombustionProbability( (double) value/100);
+                    environment.setSpontaneousCombustionProbability( (double) value/100);
                     return;
                 default:
                     return;
@@ -81,16 +101,19 @@ public class Driver implements ActionListener, ChangeListener {
             return;
         }
 
-       
+        // New frames are shown whether or not the board is running.
+        if (command.equals("Frame")) {
+            this.window.board.showLatestFrame();
+            return;
+        }
+
         // The board won't automatically repaint when not running.
         if (!this.isRunning) {
 
             if (command.equals("Pause")) {
                 this.togglePause();
             } else if (command.equals("Reset")) {
-                this.environment = new Environment(this.environment.getCellMatrix().length);
-                this.window.board.setBoard(this.environment.getCellMatrix());
-                this.window.repaint();
+                this.loop.execute(() -> this.load(new Environment(this.loop.getEnvironment().getSize())));
             }
             
             return;            
@@ -104,47 +127,47 @@ public class Driver implements ActionListener, ChangeListener {
                 return;
             
             case "Reset":
-
-                // Ready a new environment
-                Environment newEnv = new Environment(this.environment.getCellMatrix().length);
-
-                // Transfer current physics
-                try {
-                    newEnv.setGenerativeProbability(            this.environment.getGenerativeProbability());
-                    newEnv.setBurnoutProbability(               this.environment.getBurnoutProbability());
-                    newEnv.setIgnitionProbability(              this.environment.getIgnitionProbability());
-                    newEnv.setResurrectionProbability(          this.environment.getResurrectionProbability());
-                    newEnv.setSpontaneousCombustionProbability( this.environment.getSpontaneousCombustionProbability());
-                } catch (InvalidProbabilityException ipe) {
-                    // TODO: handle exception
-                    // Again, this should not be reachable.
-                }
-                
-                // Load new environment
-                this.environment = newEnv;
-
-                // Paint the new board.
-                this.window.board.setBoard(this.environment.getCellMatrix());
-                this.window.repaint();
-                return;
-
-            case "Tick": // Tick goes the clock...
-
-                this.environment.implementTransitions();                                 // Scan the board and implement transition protocols.
-                this.window.board.setBoard(this.environment.getCellMatrix());            // Hand the new board to the painter.
-                this.window.board.repaint();                                             // Paint the new matrix.  
+                this.loop.execute(this::reset);
                 return;
 
             default:
                 return;
         }
 
+    }
 
+    /**
+     * Replace the environment with a new one that has the same physics. Runs on the simulation thread.
+     */
+    private void reset() {
 
+        Environment environment = this.loop.getEnvironment();
 
-                              
+        // Ready a new environment
+        Environment newEnv = new Environment(environment.getSize());
+
+        // Transfer current physics
+        try {
+            newEnv.setGenerativeProbability(            environment.getGenerativeProbability());
+            newEnv.setBurnoutProbability(               environment.getBurnoutProbability());
+            newEnv.setIgnitionProbability(              environment.getIgnitionProbability());
+            newEnv.setResurrectionProbability(          environment.getResurrectionProbability());
+            newEnv.setSpontaneousCombustionProbability( environment.getSpontaneousCombustionProbability());
+        } catch (InvalidProbabilityException ipe) {
+            // TODO: handle exception
+            // Again, this should not be reachable.
+        }
         
+        // Load new environment, the loop paints it from scratch.
+        this.load(newEnv);
+    }
 
+    /**
+     * Hand the loop and the monitor a new environment. Runs on the simulation thread.
+     */
+    private void load(Environment environment) {
+        this.monitor.attach(environment);
+        this.loop.setEnvironment(environment);
     }
     
     @Override
@@ -157,6 +180,7 @@ public class Driver implements ActionListener, ChangeListener {
      */
     public void togglePause() {
         this.isRunning = !this.isRunning;
+        this.loop.setRunning(this.isRunning);
     }
 
     /**
@@ -164,6 +188,7 @@ public class Driver implements ActionListener, ChangeListener {
      */
     public void start() {
         this.isRunning = true;
+        this.loop.setRunning(true);
     }
 
     /**
@@ -171,6 +196,7 @@ public class Driver implements ActionListener, ChangeListener {
      */
     public void stop() {
         this.isRunning = false;
+        this.loop.setRunning(false);
     }
 
     /**
@@ -190,14 +216,29 @@ public class Driver implements ActionListener, ChangeListener {
 
                 Driver driver = new Driver();                                   // Load the driver
 
-                driver.environment = new Environment(matrixDimension);          // Load the environment.
-                driver.window = new Window(driver.environment.getCellMatrix()); // Load the graphics.
-                driver.timer = new Timer(55, driver);
-                driver.timer.setActionCommand("Tick");
+                Environment environment = new Environment(matrixDimension);     // Load the environment.
+                driver.window = new Window(environment.getGrid());              // Load the graphics.
+                FrameBuffer frames = new FrameBuffer(matrixDimension, driver.window.board.getLevel());
+
+                driver.window.board.setFrames(frames);
+                driver.window.board.setMonitor(driver.monitor);
+
+                driver.monitor.attach(environment);                             // Publish the statistics over JMX.
+                try {
+                    driver.monitor.register("Driver");
+                } catch (JMException jme) {
+                    System.err.println(jme.getMessage());
+                }
+
+                driver.loop = new SimulationLoop(environment, frames);          // Load the simulation.
+                driver.loop.setTickInterval(TimeUnit.MILLISECONDS.toNanos(TICK_INTERVAL_MS));
+
+                driver.timer = new Timer(FRAME_INTERVAL_MS, driver);
+                driver.timer.setActionCommand("Frame");
                 
                 driver.window.addActionListener(driver);                        // Attach listener to controller.
                
-
+                driver.loop.start();                                            // Start the simulation.
                 driver.timer.start();                                           // Start the timer.
                                  
             }
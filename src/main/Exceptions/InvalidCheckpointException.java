@@ -0,0 +1,7 @@
+package Exceptions;
+
+public class InvalidCheckpointException extends Exception {
+    public InvalidCheckpointException(String errorMessage) {
+        super(errorMessage);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package Exceptions;
+
+public class InvalidRecordingException extends Exception {
+    public InvalidRecordingException(String errorMessage) {
+        super(errorMessage);
+    }
+}
\ No newline at end of file
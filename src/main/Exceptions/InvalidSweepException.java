@@ -0,0 +1,7 @@
+package Exceptions;
+
+public class InvalidSweepException extends Exception {
+    public InvalidSweepException(String errorMessage) {
+        super(errorMessage);
+    }
+}
@@ -0,0 +1,60 @@
+package Simulation;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits a range of rows in half until it is small enough to sweep on one worker.
+ * 
+ * Every band gets its own transition context, since seeking a random source moves it,
+ * and merges it into its parent's once it is joined.
+ */
+class BandTask extends RecursiveTask<Boolean> {
+
+    /**
+     * Bands are never split below this many rows.
+     */
+    static final int MIN_ROWS = 8;
+
+    private final Environment       environment;
+    private final int               fromRow;
+    private final int               toRow;
+    private final int               grain;
+    private final TransitionContext context;
+
+    /**
+     * @param environment Environment whose next buffer has been prepared
+     * @param fromRow first row of the band
+     * @param toRow row to stop before
+     * @param grain largest number of rows to sweep without splitting
+     * @param context transition context owned by this band
+     */
+    BandTask(Environment environment, int fromRow, int toRow, int grain, TransitionContext context) {
+        this.environment    = environment;
+        this.fromRow        = fromRow;
+        this.toRow          = toRow;
+        this.grain          = grain;
+        this.context        = context;
+    }
+
+    @Override
+    protected Boolean compute() {
+
+        if (this.toRow - this.fromRow <= this.grain) {
+            return this.environment.sweepRows(this.fromRow, this.toRow, this.context);
+        }
+
+        int middle = (this.fromRow + this.toRow) >>> 1;
+
+        BandTask top = new BandTask(this.environment, this.fromRow, middle, this.grain,
+                                    this.context.fork(this.environment.getGrid().getCellCount()));
+        top.fork();
+
+        // The bottom half runs on this worker, so it can share this band's context.
+        boolean bottomBurning = new BandTask(this.environment, middle, this.toRow, this.grain, this.context).compute();
+        boolean topBurning    = top.join();
+
+        this.context.merge(top.context);
+
+        return topBurning | bottomBurning;
+    }
+}
@@ -0,0 +1,284 @@
+package Simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.Neighborhood;
+import Simulation.Random.RandomSource;
+
+/**
+ * <p>Word-parallel tick behind SteppingMode.BITBOARD.</p>
+ * 
+ * <p>Rows are read as bit-planes (see CellGrid.getRowPlanes()), and every step works on 64
+ * cells at a time. Whether a GrassCell has a burning neighbor is the OR of the burning plane
+ * shifted by every offset of the neighborhood, and each roll is a random bitmask with every
+ * bit set with the roll's probability. Only the cells that change are written back, one by one.</p>
+ * 
+ * <p>Per tick, with every probability applied to each cell independently:</p>
+ * 
+ * <ol>
+ * <li>A BurningCell burns out with the burnoutProbability before it can spread; one that
+ *     doesn't is spreading this tick, and burns out with the burnoutProbability after.</li>
+ * <li>A GrassCell with a spreading neighbor catches with the ignitionProbability.</li>
+ * <li>A BurntCell turns back into a GrassCell with the resurrectionProbability.</li>
+ * </ol>
+ * 
+ * <p>That is the scalar protocol seen from the GrassCell's side, rather than the BurningCell's:
+ * a BurningCell no longer sets at most one neighbor alight, so a fire spreads faster than in the 
+ * other modes for the same ignitionProbability. Probabilities are rounded to PRECISION bits.</p>
+ */
+final class BitboardKernel {
+
+    /**
+     * Number of bits of each probability the random masks honor.
+     */
+    static final int PRECISION = 16;
+
+    private final int          size;
+    private final int          rowWords;
+    private final int          radius;
+    private final Neighborhood neighborhood;
+    private final long         lastWordMask;                // Bits of a row's last word that are on the board.
+
+    private final int[][]      shifts;                      // Per row offset dy + radius, the dx of the burning neighbors to look at.
+
+    // Rings of the rows within the radius of the current one; row y sits at y % (2 * radius + 1).
+    private final long[][]     high;
+    private final long[][]     low;
+    private final long[][]     spreading;                   // BurningCells that survived their first burnout roll.
+
+    private final long[]       neighbors;                   // Cells of the current row with a spreading neighbor.
+
+    // Set for the tick being run.
+    private RandomSource       random;
+    private long               tick;
+    private long               burnout;
+
+    /**
+     * @param size int length of one side of the board
+     * @param neighborhood Neighborhood a BurningCell can set alight
+     */
+    BitboardKernel(int size, Neighborhood neighborhood) {
+
+        this.size           = size;
+        this.rowWords       = (size + Long.SIZE - 1) >>> 6;
+        this.radius         = neighborhood.getRadius();
+        this.neighborhood   = neighborhood;
+        this.lastWordMask   = size % Long.SIZE == 0 ? -1L : (1L << size) - 1;
+
+        if (this.radius >= Long.SIZE) {
+            throw new IllegalArgumentException("Neighborhoods of radius " + Long.SIZE + " and up are too wide for a bitboard.");
+        }
+
+        // A BurningCell at (x, y) sets (x + dx, y + dy) alight, so a GrassCell looks at (x - dx, y - dy).
+        ArrayList<ArrayList<Integer>> byRow = new ArrayList<ArrayList<Integer>>();
+        for (int i = 0; i <= 2 * this.radius; ++i) {
+            byRow.add(new ArrayList<Integer>());
+        }
+        for (int k = 0; k < neighborhood.getCount(); ++k) {
+            if (neighborhood.getDx(k) != 0 || neighborhood.getDy(k) != 0) {
+                byRow.get(this.radius - neighborhood.getDy(k)).add(-neighborhood.getDx(k));
+            }
+        }
+
+        this.shifts = new int[byRow.size()][];
+        for (int i = 0; i < byRow.size(); ++i) {
+            this.shifts[i] = byRow.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int rows        = 2 * this.radius + 1;
+        this.high       = new long[rows][this.rowWords];
+        this.low        = new long[rows][this.rowWords];
+        this.spreading  = new long[rows][this.rowWords];
+        this.neighbors  = new long[this.rowWords];
+    }
+
+    /**
+     * Check whether the kernel was built for the given board and neighborhood.
+     */
+    boolean fits(int size, Neighborhood neighborhood) {
+        return this.size == size && this.neighborhood == neighborhood;
+    }
+
+    /**
+     * Run one tick over the whole board into the grid's next buffer.
+     * 
+     * Expects the next buffer to have been prepared.
+     * 
+     * @param environment Environment being ticked
+     * @param context TransitionContext to record the changes in
+     * @return true if anything was burning at the start of the tick
+     */
+    boolean step(Environment environment, TransitionContext context) {
+
+        CellGrid     grid   = environment.getGrid();
+        RandomSource random = context.random;
+        long         tick   = environment.getTick();
+
+        this.random         = random;
+        this.tick           = tick;
+        this.burnout        = threshold(environment.getBurnoutProbability());
+
+        long ignition       = threshold(environment.getIgnitionProbability());
+        long resurrection   = threshold(environment.getResurrectionProbability());
+
+        boolean somethingBurning = false;
+
+        for (int y = 0; y < Math.min(this.radius, this.size); ++y) {
+            this.load(grid, y);
+        }
+
+        for (int y = 0; y < this.size; ++y) {
+
+            if (y + this.radius < this.size) {
+                this.load(grid, y + this.radius);
+            }
+
+            this.findBurningNeighbors(y);
+
+            int  slot = this.slot(y);
+            long rowStart = grid.index(0, y);
+
+            for (int w = 0; w < this.rowWords; ++w) {
+
+                long hi     = this.high[slot][w];
+                long lo     = this.low[slot][w];
+                long valid  = (w == this.rowWords - 1) ? this.lastWordMask : -1L;
+
+                long burningCells   = hi & ~lo;
+                long burntCells     = hi & lo;
+                long grassCells     = ~hi & ~lo & valid;
+
+                if (burningCells == 0 && burntCells == 0 && (grassCells & this.neighbors[w]) == 0) {
+                    continue;
+                }
+                if (burningCells != 0) {
+                    somethingBurning = true;
+                }
+
+                long key = streamKey(y, w);
+
+                long spreading   = this.spreading[slot][w];
+                long ignited     = mask(grassCells & this.neighbors[w], random, tick, key, ignition);
+                long burntOut    = (burningCells & ~spreading) | mask(spreading, random, tick, key + 2, this.burnout);
+                long resurrected = mask(burntCells, random, tick, key + 3, resurrection);
+
+                long wordStart = rowStart + ((long) w << 6);
+                apply(environment, context, wordStart, ignited, CellGrid.BURNING);
+                apply(environment, context, wordStart, burntOut, CellGrid.BURNT);
+                apply(environment, context, wordStart, resurrected, CellGrid.GRASS);
+            }
+        }
+
+        return somethingBurning;
+    }
+
+    /**
+     * Read a row's planes into its slot of the rings, and roll the first burnout of its BurningCells.
+     */
+    private void load(CellGrid grid, int y) {
+
+        int slot = this.slot(y);
+        grid.getRowPlanes(y, this.high[slot], this.low[slot]);
+
+        for (int w = 0; w < this.rowWords; ++w) {
+            long burning = this.high[slot][w] & ~this.low[slot][w];
+            this.spreading[slot][w] = burning & ~mask(burning, this.random, this.tick, streamKey(y, w) + 1, this.burnout);
+        }
+    }
+
+    /**
+     * Name the streams of a word's rolls; four to a word, for ignition, the two burnouts and resurrection.
+     */
+    private long streamKey(int y, int w) {
+        return ((long) y * this.rowWords + w) * 4;
+    }
+
+    /**
+     * OR the spreading planes of the rows within the radius of row y, shifted by each offset
+     * of the neighborhood, into this.neighbors.
+     */
+    private void findBurningNeighbors(int y) {
+
+        long[] neighbors = this.neighbors;
+        Arrays.fill(neighbors, 0);
+
+        for (int dy = -this.radius; dy <= this.radius; ++dy) {
+
+            int row = y + dy;
+            if (row < 0 || row >= this.size) {
+                continue;
+            }
+
+            long[] burning = this.spreading[this.slot(row)];
+
+            for (int dx : this.shifts[dy + this.radius]) {
+
+                // Bit x of the result is bit x + dx of the row.
+                if (dx == 0) {
+                    for (int w = 0; w < this.rowWords; ++w) {
+                        neighbors[w] |= burning[w];
+                    }
+                } else if (dx > 0) {
+                    for (int w = 0; w < this.rowWords; ++w) {
+                        long carry = (w + 1 < this.rowWords) ? burning[w + 1] << (Long.SIZE - dx) : 0;
+                        neighbors[w] |= (burning[w] >>> dx) | carry;
+                    }
+                } else {
+                    int left = -dx;
+                    for (int w = 0; w < this.rowWords; ++w) {
+                        long carry = (w > 0) ? burning[w - 1] >>> (Long.SIZE - left) : 0;
+                        neighbors[w] |= (burning[w] << left) | carry;
+                    }
+                }
+            }
+        }
+    }
+
+    private int slot(int y) {
+        return y % (2 * this.radius + 1);
+    }
+
+    /**
+     * Move every cell set in the mask to the given state.
+     */
+    private static void apply(Environment environment, TransitionContext context, long wordStart, long cells, byte state) {
+        for (; cells != 0; cells &= cells - 1) {
+            environment.transition(wordStart + Long.numberOfTrailingZeros(cells), state, context);
+        }
+    }
+
+    /**
+     * <p>Keep each cell of the mask with the probability threshold / 2^PRECISION.</p>
+     * 
+     * <p>Builds a random word with every bit set with that probability out of one fair word
+     * per binary digit of it, from the lowest set digit up: OR-ing in a fair word for a 1
+     * and AND-ing for a 0 halves the chance of a bit being clear or set, and adds the digit.</p>
+     */
+    private static long mask(long cells, RandomSource random, long tick, long key, long threshold) {
+
+        if (cells == 0 || threshold == 0) {
+            return 0;
+        }
+        if (threshold >= 1L << PRECISION) {
+            return cells;
+        }
+
+        random.seek(tick, key);
+
+        long bits = 0;
+        for (int digit = Long.numberOfTrailingZeros(threshold); digit < PRECISION; ++digit) {
+            long fair = random.nextLong();
+            bits = ((threshold >>> digit) & 1) != 0 ? bits | fair : bits & fair;
+        }
+        return cells & bits;
+    }
+
+    /**
+     * Round a probability to PRECISION bits.
+     */
+    private static long threshold(double probability) {
+        return Math.round(probability * (1L << PRECISION));
+    }
+}
@@ -1,74 +1,56 @@
 package Simulation.Cells;
 import java.awt.Color;
-import java.util.HashMap;
+
+import Simulation.Cells.Nature.BurningCell;
+import Simulation.Cells.Nature.BurntCell;
+import Simulation.Cells.Nature.GrassCell;
+import Simulation.Cells.Nature.StoneCell;
+import Simulation.Grid.CellGrid;
 
 /**
  * Abstract class for a cell.
  * 
- * Maintains knowledge about its color and (x,y) position.
+ * A cell describes a state (see CellGrid) and the color it is painted with.
+ * Every subclass has one shared INSTANCE, and the grid only ever stores state codes,
+ * so nothing is allocated while the simulation runs.
+ * 
+ * The shared instances are immutable and have no position; the grid holds where
+ * each state is. The Environment's legacy accessors hand out PositionedCells,
+ * which pair a shared instance with an (x,y) position.
  * 
  */
 public abstract class Cell {
 
-    private int xPosition;
-    private int yPosition;
-
-    private Color rgb; 
-
-    public boolean changed = false;
-    
-    public void setColor(Color color) {
-        this.rgb = color;
-    }
-
-    public Color getColor() {
-        return rgb;
-    }
-
-    public int getxPosition() {
-        return xPosition;
-    }
-
-    public void setxPosition(int xPosition) {
-        this.xPosition = xPosition;
-    }
-
-    public int getyPosition() {
-        return yPosition;
-    }
-
-    public void setyPosition(int yPosition) {
-        this.yPosition = yPosition;
-    }
-
     /**
-     * Decided this was too coupled to the Environment.
-
-    public boolean getChangedStatus() {
-        return this.changed;
-    }
-
-    public void markChanged() {
-        this.changed = true;
-    }
+     * Get the color cells of this state are painted with.
+     * 
+     * @return Color
+     */
+    public abstract Color getColor();
 
-    public void markNotChanged() {
-        this.changed = false;
-    }
+    /**
+     * Get the CellGrid state code this cell describes.
+     * 
+     * @return byte
+     */
+    public abstract byte getState();
 
-    public void toggleChangeStatus() {
-        this.changed = !(this.changed);
-    }
-    */
-    
-    @Override
-    public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + xPosition;
-        result = prime * result + yPosition;
-        result = prime * result + ((rgb == null) ? 0 : rgb.hashCode());
-        return result;
-    }
-    
-}
\ No newline at end of file
+    /**
+     * Get the shared instance describing the given state.
+     * 
+     * @param state CellGrid state code
+     * @return Cell
+     */
+    public static Cell forState(byte state) {
+        switch (state) {
+            case CellGrid.BURNING:
+                return BurningCell.INSTANCE;
+            case CellGrid.BURNT:
+                return BurntCell.INSTANCE;
+            case CellGrid.STONE:
+                return StoneCell.INSTANCE;
+            default:
+                return GrassCell.INSTANCE;
+        }
+    }
+}
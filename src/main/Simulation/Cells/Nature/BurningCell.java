@@ -2,16 +2,31 @@ package Simulation.Cells.Nature;
 
 import java.awt.Color;
 import Simulation.Cells.Cell;
+import Simulation.Grid.CellGrid;
 
 /** 
  * Representing if a cell is currently burning.
  */
-public class BurningCell extends Cell {
+public final class BurningCell extends Cell {
     
-    public BurningCell(int x, int y) {
-        setxPosition(x);
-        setyPosition(y);
-        setColor(new Color(255, 165, 0));
+    public static final Color COLOR = new Color(255, 165, 0);
+
+    /**
+     * Shared, immutable instance.
+     */
+    public static final BurningCell INSTANCE = new BurningCell();
+
+    private BurningCell() {
+    }
+
+    @Override
+    public Color getColor() {
+        return COLOR;
+    }
+
+    @Override
+    public byte getState() {
+        return CellGrid.BURNING;
     }
    
     @Override
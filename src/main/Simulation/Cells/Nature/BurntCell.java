@@ -3,16 +3,31 @@ package Simulation.Cells.Nature;
 import java.awt.Color;
 
 import Simulation.Cells.Cell;
+import Simulation.Grid.CellGrid;
 
 /**
  * Representing if a cell has burnt out.
  */
-public class BurntCell extends Cell {
+public final class BurntCell extends Cell {
     
-    public BurntCell(int x, int y) {
-        setxPosition(x);
-        setyPosition(y);
-        setColor(new Color(0, 0, 0));
+    public static final Color COLOR = new Color(0, 0, 0);
+
+    /**
+     * Shared, immutable instance.
+     */
+    public static final BurntCell INSTANCE = new BurntCell();
+
+    private BurntCell() {
+    }
+
+    @Override
+    public Color getColor() {
+        return COLOR;
+    }
+
+    @Override
+    public byte getState() {
+        return CellGrid.BURNT;
     }
 
     @Override
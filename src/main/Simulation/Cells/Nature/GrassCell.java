@@ -3,16 +3,31 @@ package Simulation.Cells.Nature;
 import java.awt.Color;
 
 import Simulation.Cells.Cell;
+import Simulation.Grid.CellGrid;
 
 /**
  * Representing if a cell is grass.
  */
-public class GrassCell extends Cell {
+public final class GrassCell extends Cell {
     
-    public GrassCell(int x, int y) {
-        setxPosition(x);
-        setyPosition(y);
-        setColor(new Color(100, 250, 0));
+    public static final Color COLOR = new Color(100, 250, 0);
+
+    /**
+     * Shared, immutable instance.
+     */
+    public static final GrassCell INSTANCE = new GrassCell();
+
+    private GrassCell() {
+    }
+
+    @Override
+    public Color getColor() {
+        return COLOR;
+    }
+
+    @Override
+    public byte getState() {
+        return CellGrid.GRASS;
     }
     
     @Override
@@ -3,16 +3,31 @@ package Simulation.Cells.Nature;
 import java.awt.Color;
 
 import Simulation.Cells.Cell;
+import Simulation.Grid.CellGrid;
 
 /**
  * Representing if a cell is stone.
  */
-public class StoneCell extends Cell {
+public final class StoneCell extends Cell {
 
-    public StoneCell(int x, int y) {
-        setxPosition(x);
-        setyPosition(y);
-        setColor(new Color(169, 169, 169));
+    public static final Color COLOR = new Color(169, 169, 169);
+
+    /**
+     * Shared, immutable instance.
+     */
+    public static final StoneCell INSTANCE = new StoneCell();
+
+    private StoneCell() {
+    }
+
+    @Override
+    public Color getColor() {
+        return COLOR;
+    }
+
+    @Override
+    public byte getState() {
+        return CellGrid.STONE;
     }
 
     @Override
@@ -0,0 +1,90 @@
+package Simulation.Cells;
+
+import java.awt.Color;
+
+/**
+ * A shared Cell at an (x,y) position on the board.
+ * 
+ * Only made by the Environment's legacy accessors, such as getCell() and getCellMatrix(),
+ * and by callers placing a state with setCell(); the board itself never holds one.
+ * Like the shared cells, it can't be changed once made.
+ * 
+ */
+public final class PositionedCell extends Cell {
+
+    private final Cell cell;
+
+    private final int xPosition;
+    private final int yPosition;
+
+    /**
+     * @param cell Cell of the state, usually a shared INSTANCE
+     * @param x int of the x position
+     * @param y int of the y position
+     */
+    public PositionedCell(Cell cell, int x, int y) {
+        this.cell       = cell instanceof PositionedCell ? ((PositionedCell) cell).getCell() : cell;
+        this.xPosition  = x;
+        this.yPosition  = y;
+    }
+
+    /**
+     * @param state CellGrid state code
+     * @param x int of the x position
+     * @param y int of the y position
+     */
+    public PositionedCell(byte state, int x, int y) {
+        this(Cell.forState(state), x, y);
+    }
+
+    /**
+     * Get the shared cell describing this one's state.
+     * 
+     * @return Cell
+     */
+    public Cell getCell() {
+        return this.cell;
+    }
+
+    @Override
+    public Color getColor() {
+        return this.cell.getColor();
+    }
+
+    @Override
+    public byte getState() {
+        return this.cell.getState();
+    }
+
+    public int getxPosition() {
+        return this.xPosition;
+    }
+
+    public int getyPosition() {
+        return this.yPosition;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof PositionedCell)) {
+            return false;
+        }
+        PositionedCell cell = (PositionedCell) other;
+        return cell.getState() == this.getState() && cell.xPosition == this.xPosition && cell.yPosition == this.yPosition;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + this.xPosition;
+        result = prime * result + this.yPosition;
+        result = prime * result + this.getState();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return this.cell.toString();
+    }
+}
@@ -0,0 +1,209 @@
+package Simulation;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import Exceptions.InvalidCheckpointException;
+import Exceptions.InvalidProbabilityException;
+import Simulation.Grid.Boundary;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.Neighborhood;
+import Simulation.Grid.PackedGrid;
+
+/**
+ * <p>Reads and writes the binary checkpoint format of an Environment.</p>
+ *
+ * <p>A checkpoint is a fixed 128 byte header followed by the live board in packed form,
+ * two bits per cell (see CellGrid.exportPacked()). Everything is little-endian:</p>
+ *
+ * <p><blockquote><pre>
+ *   offset  type      field
+ *   0       byte[4]   magic, "FSIM"
+ *   4       int       format version
+ *   8       int       length of one side of the board
+ *   12      int       flags; bit 0 is set if anything is burning
+ *   16      long      seed
+ *   24      long      tick
+ *   32      long      events
+ *   40      double    generative, burnout, ignition, resurrection and
+ *                     spontaneous combustion probabilities, in that order
+ *   80      int       stepping mode
+ *   84      int       neighborhood shape
+ *   88      int       neighborhood radius
+ *   92      int       boundary
+ *   96      -         reserved, 0
+ *   128     long[]    the packed board
+ * </pre></blockquote></p>
+ *
+ * <p>The random source is counter-based, so the seed, tick and event count are all of its
+ * state; a restored Environment rolls exactly what the saved one would have rolled next.</p>
+ *
+ * <p>The file is read and written through memory-mapped regions of at most CHUNK_BYTES each,
+ * so the board goes straight between the grid and the page cache. Saving writes to a
+ * temporary file first and moves it over the old checkpoint, so a crash mid-save never
+ * leaves a half-written checkpoint behind.</p>
+ */
+final class Checkpoint {
+
+    static final int VERSION = 1;
+
+    private static final byte[] MAGIC        = "FSIM".getBytes(StandardCharsets.US_ASCII);
+    private static final int    HEADER_BYTES = 128;
+    private static final long   CHUNK_BYTES  = 1L << 28;   // Largest region mapped at once; a multiple of 8.
+
+    private static final int    BURNING_FLAG = 1;
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Write the Environment to the given path, replacing whatever was there.
+     *
+     * @param environment Environment to save
+     * @param path Path of the checkpoint
+     * @throws IOException if the file can't be written
+     */
+    static void write(Environment environment, Path path) throws IOException {
+
+        CellGrid grid = environment.getGrid();
+        long length = HEADER_BYTES + grid.getPackedLength() * Long.BYTES;
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                                               StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+
+            header.put(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(grid.getSize());
+            header.putInt(environment.isBurning() ? BURNING_FLAG : 0);
+            header.putLong(environment.getSeed());
+            header.putLong(environment.getTick());
+            header.putLong(environment.getEvents());
+            header.putDouble(environment.getGenerativeProbability());
+            header.putDouble(environment.getBurnoutProbability());
+            header.putDouble(environment.getIgnitionProbability());
+            header.putDouble(environment.getResurrectionProbability());
+            header.putDouble(environment.getSpontaneousCombustionProbability());
+            header.putInt(environment.getSteppingMode().ordinal());
+            header.putInt(environment.getNeighborhood().getShape().ordinal());
+            header.putInt(environment.getNeighborhood().getRadius());
+            header.putInt(environment.getBoundary().ordinal());
+            header.force();
+
+            for (long position = HEADER_BYTES; position < length; position += CHUNK_BYTES) {
+
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.min(CHUNK_BYTES, length - position));
+                chunk.order(ByteOrder.LITTLE_ENDIAN);
+
+                grid.exportPacked((position - HEADER_BYTES) / Long.BYTES, chunk.asLongBuffer());
+                chunk.force();
+            }
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read an Environment back from the given path, on a PackedGrid.
+     *
+     * @param path Path of the checkpoint
+     * @return Environment as it was saved
+     * @throws IOException if the file can't be read
+     * @throws InvalidCheckpointException if the file is not a checkpoint this version can read
+     */
+    static Environment read(Path path) throws IOException, InvalidCheckpointException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            if (channel.size() < HEADER_BYTES) {
+                throw new InvalidCheckpointException(path + " is too short to be a checkpoint.");
+            }
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new InvalidCheckpointException(path + " is not a checkpoint.");
+            }
+
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new InvalidCheckpointException("Checkpoint version " + version + " is not supported, expected " + VERSION + ".");
+            }
+
+            int     size        = header.getInt();
+            header.getInt();                                // Flags; the populations are counted from the board itself.
+            long    seed        = header.getLong();
+            long    tick        = header.getLong();
+            long    events      = header.getLong();
+            double  generation  = header.getDouble();
+            double  burnout     = header.getDouble();
+            double  ignition    = header.getDouble();
+            double  resurrection= header.getDouble();
+            double  combustion  = header.getDouble();
+            int     mode        = header.getInt();
+            int     shape       = header.getInt();
+            int     radius      = header.getInt();
+            int     boundary    = header.getInt();
+
+            if (size < 0 || mode < 0 || mode >= SteppingMode.values().length
+                         || shape < 0 || shape >= Neighborhood.Shape.values().length || radius < 0
+                         || boundary < 0 || boundary >= Boundary.values().length) {
+                throw new InvalidCheckpointException(path + " has a corrupt header.");
+            }
+
+            long words  = ((long) size * size + CellGrid.CELLS_PER_WORD - 1) / CellGrid.CELLS_PER_WORD;
+            long length = HEADER_BYTES + words * Long.BYTES;
+            if (channel.size() != length) {
+                throw new InvalidCheckpointException(path + " should be " + length + " bytes long, but is " + channel.size() + ".");
+            }
+
+            CellGrid grid;
+            try {
+                grid = new PackedGrid(size);
+            } catch (IllegalArgumentException iae) {
+                throw new InvalidCheckpointException(iae.getMessage());
+            }
+
+            for (long position = HEADER_BYTES; position < length; position += CHUNK_BYTES) {
+
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_BYTES, length - position));
+                chunk.order(ByteOrder.LITTLE_ENDIAN);
+
+                grid.importPacked((position - HEADER_BYTES) / Long.BYTES, chunk.asLongBuffer());
+            }
+
+            Environment environment = new Environment(grid, seed, false);
+
+            try {
+                environment.setBurnoutProbability(burnout);
+                environment.setIgnitionProbability(ignition);
+                environment.setResurrectionProbability(resurrection);
+                environment.setSpontaneousCombustionProbability(combustion);
+                environment.restore(generation, tick, events);
+            } catch (InvalidProbabilityException ipe) {
+                throw new InvalidCheckpointException(path + " has a corrupt header: " + ipe.getMessage());
+            }
+
+            environment.setSteppingMode(SteppingMode.values()[mode]);
+            environment.setNeighborhood(Neighborhood.Shape.values()[shape], radius);
+            environment.setBoundary(Boundary.values()[boundary]);
+
+            return environment;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package Simulation.Ensemble;
+
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import Exceptions.InvalidProbabilityException;
+import Simulation.Environment;
+import Simulation.SteppingMode;
+import Simulation.Grid.Boundary;
+import Simulation.Grid.CellGrid;
+
+/**
+ * <p>Runs many independent fires with the same physics and different seeds, to extinction
+ * or a tick limit, and streams each run's result to a RunListener as it completes.</p>
+ *
+ * <p>The runs are spread over a fixed pool of worker threads, one per core by default. Each
+ * worker keeps one Environment and resets it to the next seed for every run it takes,
+ * so an ensemble of any length allocates one board per worker. The Environments are kept
+ * between calls to run() as well.</p>
+ *
+ * <p>Run i of an ensemble uses seed firstSeed + i, so any run can be replayed on its own
+ * with the same size, physics and seed.</p>
+ *
+ * <p>Ex:</p>
+ * <p><blockquote><pre>
+ *      Ensemble ensemble = new Ensemble(500);
+ *      ensemble.setProbability("Ignition", .6);
+ *
+ *      EnsembleStatistics statistics = new EnsembleStatistics();
+ *      ensemble.run(0, 10000, statistics);
+ *
+ *      System.out.println(statistics.getBurntFraction());
+ * </pre></blockquote></p>
+ */
+public class Ensemble {
+
+    /**
+     * Names of the probabilities setProbability() takes, as in Environment.getProbabilities().
+     */
+    public static final Set<String> PROBABILITY_NAMES = Set.of("Generation", "Burnout", "Ignition", "Resurrection", "Combustion");
+
+    private static final HashMap<String, Double> DEFAULTS = new Environment(1, 0).getProbabilities();
+
+    private final int    size;
+    private int          parallelism  = Runtime.getRuntime().availableProcessors();
+    private long         maxTicks     = Long.MAX_VALUE;
+    private int          fires        = 1;
+    private SteppingMode mode         = SteppingMode.FRONTIER;
+    private Boundary     boundary     = Boundary.CLAMPED;
+
+    private HashMap<String, Double> probabilities = new HashMap<String, Double>();
+
+    private final ConcurrentLinkedQueue<Environment> idle = new ConcurrentLinkedQueue<Environment>();  // Environments between runs.
+
+    /**
+     * @param size int length of one side of every run's board
+     */
+    public Ensemble(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least 1.");
+        }
+        this.size = size;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Set the number of runs to work on at once.
+     *
+     * @param parallelism int of at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Set the most ticks a run may last before it is cut off, burning or not.
+     *
+     * @param maxTicks long of at least 1
+     */
+    public void setMaxTicks(long maxTicks) {
+        if (maxTicks < 1) {
+            throw new IllegalArgumentException("Max ticks must be at least 1.");
+        }
+        this.maxTicks = maxTicks;
+    }
+
+    public long getMaxTicks() {
+        return this.maxTicks;
+    }
+
+    /**
+     * Set the number of random fires each run starts with.
+     *
+     * @param fires int of at least 1
+     */
+    public void setFires(int fires) {
+        if (fires < 1) {
+            throw new IllegalArgumentException("Fires must be at least 1.");
+        }
+        this.fires = fires;
+    }
+
+    public int getFires() {
+        return this.fires;
+    }
+
+    /**
+     * Set the way every run's board is walked. Each run has a single thread to itself,
+     * so SteppingMode.PARALLEL only adds overhead.
+     *
+     * @param mode SteppingMode
+     */
+    public void setSteppingMode(SteppingMode mode) {
+        this.mode = mode;
+    }
+
+    public SteppingMode getSteppingMode() {
+        return this.mode;
+    }
+
+    /**
+     * Set what a BurningCell at the edge of every run's board sees past it.
+     *
+     * @param boundary Boundary
+     */
+    public void setBoundary(Boundary boundary) {
+        this.boundary = boundary;
+    }
+
+    public Boundary getBoundary() {
+        return this.boundary;
+    }
+
+    /**
+     * Set a probability of every run's physics, by its name in Environment.getProbabilities().
+     *
+     * @param name String of the probability
+     * @param value double between 0 and 1
+     * @throws InvalidProbabilityException when value is not between 0 and 1
+     * @throws IllegalArgumentException when there is no probability of that name
+     */
+    public void setProbability(String name, double value) throws InvalidProbabilityException {
+        if (!PROBABILITY_NAMES.contains(name)) {
+            throw new IllegalArgumentException("Unknown probability " + name);
+        }
+        if (value < 0 || value > 1) {
+            throw new InvalidProbabilityException("Probabilties must be between 0 and 100.");
+        }
+        this.probabilities.put(name, value);
+    }
+
+    /**
+     * Let a probability go back to the Environment's default.
+     *
+     * @param name String of the probability
+     */
+    public void clearProbability(String name) {
+        this.probabilities.remove(name);
+    }
+
+    /**
+     * Get the physics set so far; probabilities not in the map keep the Environment's defaults.
+     *
+     * @return HashMap of the probabilities by name
+     */
+    public HashMap<String, Double> getProbabilities() {
+        return new HashMap<String, Double>(this.probabilities);
+    }
+
+    /**
+     * Get the value a probability has in every run, whether it was set or left at the Environment's default.
+     *
+     * @param name String of the probability
+     * @return double between 0 and 1
+     * @throws IllegalArgumentException when there is no probability of that name
+     */
+    public double getProbability(String name) {
+        if (!PROBABILITY_NAMES.contains(name)) {
+            throw new IllegalArgumentException("Unknown probability " + name);
+        }
+        return this.probabilities.getOrDefault(name, DEFAULTS.get(name));
+    }
+
+    /**
+     * Do the given number of runs and wait for all of them.
+     *
+     * @param firstSeed long seed of the first run; run i uses firstSeed + i
+     * @param runs int number of runs to do
+     * @param listener RunListener told about each run as it completes, on the calling thread
+     * @throws InterruptedException if the calling thread is interrupted; the remaining runs are abandoned
+     * @throws RuntimeException if a run fails, after the other workers have stopped
+     */
+    public void run(long firstSeed, int runs, RunListener listener) throws InterruptedException {
+
+        if (runs <= 0) {
+            return;
+        }
+
+        AtomicInteger                   next     = new AtomicInteger();
+        AtomicReference<Throwable>      failure  = new AtomicReference<Throwable>();
+        LinkedBlockingQueue<RunResult>  results  = new LinkedBlockingQueue<RunResult>();
+
+        int workers = Math.min(this.parallelism, runs);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "Ensemble");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (int i = 0; i < workers; ++i) {
+                pool.execute(() -> this.work(firstSeed, runs, next, results, failure));
+            }
+
+            // Hand the results to the listener as they come in.
+            for (int received = 0; received < runs; ) {
+
+                RunResult result = results.poll(100, TimeUnit.MILLISECONDS);
+
+                if (result != null) {
+                    listener.runCompleted(result);
+                    received++;
+                } else if (failure.get() != null) {
+                    break;
+                }
+            }
+        } finally {
+            next.set(runs);                                   // Stop workers from taking new runs.
+            pool.shutdownNow();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        if (failure.get() != null) {
+            throw new RuntimeException("Ensemble run failed: " + failure.get().getMessage(), failure.get());
+        }
+    }
+
+    /**
+     * Take runs until there are none left. Runs on a worker thread.
+     */
+    private void work(long firstSeed, int runs, AtomicInteger next, LinkedBlockingQueue<RunResult> results, AtomicReference<Throwable> failure) {
+
+        Environment environment = null;
+
+        try {
+            environment = this.borrowEnvironment();
+
+            for (int run = next.getAndIncrement(); run < runs && failure.get() == null; run = next.getAndIncrement()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                results.add(this.runOnce(environment, run, firstSeed + run));
+            }
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+        } finally {
+            if (environment != null) {
+                this.idle.add(environment);
+            }
+        }
+    }
+
+    /**
+     * Reset the Environment to the given seed and let the fire run its course.
+     */
+    private RunResult runOnce(Environment environment, int run, long seed) {
+
+        long start = System.nanoTime();
+
+        environment.reset(seed);
+        for (int i = 0; i < this.fires; ++i) {
+            environment.setFire();
+        }
+
+        long peak = environment.getPopulation(CellGrid.BURNING);
+
+        while (environment.isBurning() && environment.getTick() < this.maxTicks) {
+            environment.implementTransitions();
+            peak = Math.max(peak, environment.getPopulation(CellGrid.BURNING));
+        }
+
+        double burnt = (double) environment.getPopulation(CellGrid.BURNT) / environment.getGrid().getCellCount();
+
+        return new RunResult(run, seed, environment.getTick(), !environment.isBurning(), burnt, peak, System.nanoTime() - start);
+    }
+
+    /**
+     * Take an idle Environment, or make one, and bring its physics up to date.
+     */
+    private Environment borrowEnvironment() throws InvalidProbabilityException {
+
+        Environment environment = this.idle.poll();
+        if (environment == null) {
+            environment = new Environment(this.size, 0);
+        }
+
+        environment.setSteppingMode(this.mode);
+        environment.setBoundary(this.boundary);
+        environment.setParallelism(1);
+
+        // Only set what differs; setting the generative probability reloads the board.
+        // Probabilities that were cleared go back to their defaults, whatever the last run used.
+        for (String name : PROBABILITY_NAMES) {
+            double value = this.probabilities.getOrDefault(name, DEFAULTS.get(name));
+            if (environment.getProbability(name) != value) {
+                environment.setProbability(name, value);
+            }
+        }
+
+        return environment;
+    }
+}
@@ -0,0 +1,123 @@
+package Simulation.Ensemble;
+
+/**
+ * <p>Running mean, spread and extremes of the results of an Ensemble.</p>
+ *
+ * <p>Keeps no per-run data, so it can aggregate any number of runs. Means and
+ * variances are updated with Welford's method, which stays accurate over long ensembles.</p>
+ */
+public class EnsembleStatistics implements RunListener {
+
+    private long    runs;
+    private long    extinguished;
+
+    private final Moments burntFraction = new Moments();
+    private final Moments ticks         = new Moments();
+    private final Moments peakBurning   = new Moments();
+    private final Moments seconds       = new Moments();
+
+    @Override
+    public void runCompleted(RunResult result) {
+
+        this.runs++;
+        if (result.isExtinguished()) {
+            this.extinguished++;
+        }
+
+        this.burntFraction.add(result.getBurntFraction());
+        this.ticks.add(result.getTicks());
+        this.peakBurning.add(result.getPeakBurning());
+        this.seconds.add(result.getNanos() / 1e9);
+    }
+
+    public long getRuns() {
+        return this.runs;
+    }
+
+    /**
+     * Get the number of runs whose fire went out before the tick limit.
+     *
+     * @return long
+     */
+    public long getExtinguished() {
+        return this.extinguished;
+    }
+
+    public Moments getBurntFraction() {
+        return this.burntFraction;
+    }
+
+    public Moments getTicks() {
+        return this.ticks;
+    }
+
+    public Moments getPeakBurning() {
+        return this.peakBurning;
+    }
+
+    public Moments getSeconds() {
+        return this.seconds;
+    }
+
+    /**
+     * Mean, variance, minimum and maximum of one quantity.
+     */
+    public static class Moments {
+
+        private long   count;
+        private double mean;
+        private double squares;                             // Sum of squared distances from the mean.
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            this.count++;
+            double delta = value - this.mean;
+            this.mean    += delta / this.count;
+            this.squares += delta * (value - this.mean);
+            this.min     = Math.min(this.min, value);
+            this.max     = Math.max(this.max, value);
+        }
+
+        public double getMean() {
+            return this.mean;
+        }
+
+        /**
+         * Get the sample variance.
+         *
+         * @return double, 0 for fewer than two values
+         */
+        public double getVariance() {
+            return this.count > 1 ? this.squares / (this.count - 1) : 0;
+        }
+
+        public double getStandardDeviation() {
+            return Math.sqrt(this.getVariance());
+        }
+
+        /**
+         * Get the standard error of the mean.
+         *
+         * @return double
+         */
+        public double getStandardError() {
+            return this.count > 0 ? Math.sqrt(this.getVariance() / this.count) : 0;
+        }
+
+        public double getMin() {
+            return this.min;
+        }
+
+        public double getMax() {
+            return this.max;
+        }
+
+        /**
+         * String representation as mean, standard deviation and range.
+         */
+        public String toString() {
+            return this.mean + " +- " + this.getStandardDeviation() + " [" + this.min + ", " + this.max + "]";
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package Simulation.Ensemble;
+
+/**
+ * Notified by an Ensemble as each of its runs completes.
+ */
+public interface RunListener {
+
+    /**
+     * Called once per run, in the order the runs complete.
+     *
+     * Always runs on the thread that called Ensemble.run(), never on a worker,
+     * so listeners don't need to be thread-safe.
+     *
+     * @param result RunResult of the run
+     */
+    void runCompleted(RunResult result);
+}
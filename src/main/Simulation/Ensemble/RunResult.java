@@ -0,0 +1,80 @@
+package Simulation.Ensemble;
+
+/**
+ * Outcome of one run of an Ensemble.
+ */
+public class RunResult {
+
+    private final int     run;
+    private final long    seed;
+    private final long    ticks;
+    private final boolean extinguished;
+    private final double  burntFraction;
+    private final long    peakBurning;
+    private final long    nanos;
+
+    /**
+     * @param run int number of the run within its ensemble
+     * @param seed long the run's Environment was reset to
+     * @param ticks long of ticks the run lasted
+     * @param extinguished whether the fire went out, rather than the run hitting its tick limit
+     * @param burntFraction double of the board left burnt
+     * @param peakBurning long of the most cells burning at the end of any tick
+     * @param nanos long of wall time the run took
+     */
+    public RunResult(int run, long seed, long ticks, boolean extinguished, double burntFraction, long peakBurning, long nanos) {
+        this.run            = run;
+        this.seed           = seed;
+        this.ticks          = ticks;
+        this.extinguished   = extinguished;
+        this.burntFraction  = burntFraction;
+        this.peakBurning    = peakBurning;
+        this.nanos          = nanos;
+    }
+
+    public int getRun() {
+        return this.run;
+    }
+
+    /**
+     * Get the seed to rerun this run with, e.g. in a BatchRunner.
+     *
+     * @return long
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    public boolean isExtinguished() {
+        return this.extinguished;
+    }
+
+    public double getBurntFraction() {
+        return this.burntFraction;
+    }
+
+    public long getPeakBurning() {
+        return this.peakBurning;
+    }
+
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    /**
+     * String representation of the result as comma separated values, in the order of CSV_HEADER.
+     */
+    public String toString() {
+        return this.run + "," + this.seed + "," + this.ticks + "," + this.extinguished + ","
+             + this.burntFraction + "," + this.peakBurning + "," + this.nanos;
+    }
+
+    /**
+     * Column names matching toString().
+     */
+    public static final String CSV_HEADER = "run,seed,ticks,extinguished,burnt_fraction,peak_burning,nanos";
+}
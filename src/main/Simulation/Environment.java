@@ -1,17 +1,34 @@
 package Simulation;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+import Simulation.Random.RandomSource;
+import Simulation.Random.SplitMixSource;
 
 
 import Simulation.Cells.Cell;
-import Simulation.Cells.Nature.BurningCell;
-import Simulation.Cells.Nature.StoneCell;
-import Simulation.Cells.Nature.GrassCell;
-import Simulation.Cells.Nature.BurntCell;
+import Simulation.Cells.PositionedCell;
+import Simulation.Grid.Boundary;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChunkedGrid;
+import Simulation.Grid.ChangeSet;
+import Simulation.Grid.ClusterTracker;
+import Simulation.Grid.IndexList;
+import Simulation.Grid.Neighborhood;
+import Simulation.Grid.PaddedGrid;
+import Simulation.Grid.PackedGrid;
+import Simulation.Monitoring.TickEvent;
+import Simulation.Monitoring.TickPhaseEvent;
 
 import Exceptions.InvalidCellPositionException;
+import Exceptions.InvalidCheckpointException;
 import Exceptions.InvalidProbabilityException;
 
 // GUI apps should be added to the JRE event queue
@@ -20,7 +37,8 @@ import java.awt.EventQueue;
 /**
  * <p>Class to define the physics and structure of the burn simulation.</p>
  * 
- * <p>The board is a square 2D array of cell objects. </p>
+ * <p>The board is a square grid of cell states, stored two bits per cell in a 
+ * double-buffered CellGrid. Cell objects are only created as views for callers that ask for them.</p>
  * 
  * <p>Points of initial ignition are chosen upon creation.</p>
  * 
@@ -39,12 +57,46 @@ import java.awt.EventQueue;
  */
 public class Environment {
  
-    private Cell[][] cellMatrix;            
-    private Cell[][] transitionMatrix;
+    private CellGrid grid;
+
+    private Cell[][] stateMatrix;
+
+    private SteppingMode steppingMode = SteppingMode.SWEEP;
+
+    private Neighborhood neighborhood;                     // Cells a BurningCell can set alight.
+    private Neighborhood paddedNeighborhood;               // Its offsets within a PaddedGrid's rows, or null.
+    private Boundary     boundary = Boundary.CLAMPED;
+
+    private IndexList frontier      = new IndexList();     // Burning and burnt cells to visit this tick.
+    private IndexList nextFrontier  = new IndexList();
+    private IndexList ignitions     = new IndexList();     // GrassCells set alight during the current tick.
+    private boolean   frontierStale = true;                // Set whenever cells are placed outside of a tick.
+
+    private RandomSource random;
+    private long         tick;                             // Number of ticks run so far.
+    private long         events;                           // Number of random events outside of the cell streams (loading, arson, etc...).
+    private long         lastTickNanos;                    // Wall time the last tick took.
+
+    private long[] population = new long[CellGrid.STATE_COUNT];    // Number of cells in each state.
+    private ChunkedGrid terrain;                           // When set, GrassCells and StoneCells are counted from its terrain up.
+
+    private ChangeSet changes;                             // Cells changed by the last tick, and placed before it.
+    private ChangeSet pendingChanges;                      // Cells changed since.
+
+    private ClusterTracker clusters;                       // Burn scar clusters, when tracked.
+
+    private ArrayList<TickListener> tickListeners = new ArrayList<TickListener>();
+
+    private int          parallelism = Runtime.getRuntime().availableProcessors();
+    private ForkJoinPool pool;                             // Created on the first parallel tick.
+
+    private static final boolean VECTOR_AVAILABLE = loadVectorKernel() != null;
+    private RowKernel      vector;                         // Created on the first vector tick; keeps its buffers between ticks.
+    private BitboardKernel bitboard;                       // Created on the first bitboard tick.
 
     private int[][] pointsOfArson;          
 
-    private ArrayList<Cell> updatedCells = new ArrayList<Cell>();
+    private ArrayList<PositionedCell> updatedCells = new ArrayList<PositionedCell>();
 
     private double generativeProbability;
     private double burnoutProbability;
@@ -63,10 +115,61 @@ public class Environment {
      * @param size integer length of one side of the matrix
      */
     public Environment(int size) {
+        this(new PackedGrid(size));
+    }
+
+    /**
+     * Construct a reproducible Environment; the same size, seed and physics
+     * always play out the same way, whatever the stepping mode or thread count.
+     * 
+     * @param size integer length of one side of the matrix
+     * @param seed long every random roll is derived from
+     */
+    public Environment(int size, long seed) {
+        this(new PackedGrid(size), seed);
+    }
+
+    /**
+     * Construct the Environment on top of a specific grid backend.
+     * 
+     * @param grid CellGrid to store the board in, its contents will be overwritten
+     */
+    public Environment(CellGrid grid) {
+        this(grid, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * <p>Construct a reproducible Environment on top of a specific grid backend.</p>
+     * 
+     * <p>The other constructors use a PackedGrid. A ByteGrid or PaddedGrid trades memory for speed,
+     * a ChunkedGrid only keeps the parts of the board the fire reached, and a MappedGrid keeps
+     * the board in a file for boards larger than memory; every stepping mode works on all of them.</p>
+     * 
+     * @param grid CellGrid to store the board in, its contents will be overwritten
+     * @param seed long every random roll is derived from
+     */
+    public Environment(CellGrid grid, long seed) {
+        this(grid, seed, true);
+    }
+
+    /**
+     * @param grid CellGrid to store the board in
+     * @param seed long every random roll is derived from
+     * @param load whether to load cells onto the board, or keep what the grid holds
+     */
+    Environment(CellGrid grid, long seed, boolean load) {
         
         // Initialize the board.
-        this.cellMatrix         = new Cell[size][size];
-        this.transitionMatrix   = new Cell[size][size];
+        this.grid = grid;
+        this.random = new SplitMixSource(seed);
+        this.neighborhood = new Neighborhood(Neighborhood.Shape.VON_NEUMANN, 2, grid.getSize());
+        if (grid instanceof PaddedGrid) {
+            ((PaddedGrid) grid).setBoundary(this.boundary);
+        }
+        this.updatePaddedNeighborhood();
+
+        this.changes        = new ChangeSet(grid.getCellCount());
+        this.pendingChanges = new ChangeSet(grid.getCellCount());
 
         // Generate positions of initial burning cells.
         pointsOfArson = new int[1][2];
@@ -80,7 +183,13 @@ public class Environment {
         this.spontaneousCombustionProbability = 0.50;
 
         // Load cells onto board.
-        this.loadCells();
+        if (load) {
+            this.loadCells();
+        } else {
+            this.countPopulation();
+            this.frontierStale = true;
+            this.pendingChanges.markEverything();
+        }
 
     }
 
@@ -259,292 +368,888 @@ public class Environment {
     }
 
     /**
-     * Get the "live" board.
+     * Get the length of one side of the board.
      * 
-     * @return 2D array of cell objects
+     * @return int
      */
-    public Cell[][] getCellMatrix() {
-        return this.cellMatrix;
+    public int getSize() {
+        return this.grid.getSize();
     }
-    
+
     /**
-     * Get the transitionMatrix.
+     * Get the underlying grid of cell states.
      * 
-     * @return 2D array of Cell objects
+     * Meant for reading; cells should be changed through setCell() and setFire()
+     * so the Environment can keep track of them.
+     * 
+     * @return CellGrid
      */
-    public Cell[][] getTransitionMatrix() {
-        return this.transitionMatrix;
+    public CellGrid getGrid() {
+        return this.grid;
     }
-   
+
     /**
-     * Grabs cell located at the given (x, y) position in cellMatrix.
+     * Get the way the board is walked during a tick.
      * 
-     * @param x int of the x position
-     * @param y int of the y position
-     * @return Cell object
-     * @throws InvalidCellPositionException if the given position is invalid 
+     * @return SteppingMode
      */
-    public Cell getCell(int x, int y) {
+    public SteppingMode getSteppingMode() {
+        return this.steppingMode;
+    }
 
-        if (cellExists(x, y)) {
-            return this.cellMatrix[y][x];
+    /**
+     * Set the way the board is walked during a tick.
+     * 
+     * Every mode but BITBOARD follows the same transition protocols, so they produce the same 
+     * distribution of board states; BITBOARD applies them from the GrassCell's side.
+     * 
+     * @param mode SteppingMode to use from the next tick on
+     */
+    public void setSteppingMode(SteppingMode mode) {
+        this.steppingMode   = mode;
+        this.frontierStale  = true;
+    }
+
+    /**
+     * Check whether SteppingMode.VECTOR has its SIMD kernel; without it, it sweeps like SteppingMode.SWEEP.
+     * 
+     * The kernel needs the jdk.incubator.vector module, e.g. java --add-modules jdk.incubator.vector.
+     * 
+     * @return true if the kernel was compiled in and the module is there
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR_AVAILABLE;
+    }
+
+    /**
+     * Create the Vector API kernel, if it can be; it isn't referenced anywhere else, 
+     * so nothing else breaks when it is missing.
+     */
+    private static RowKernel loadVectorKernel() {
+        try {
+            return (RowKernel) Class.forName("Simulation.VectorKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
         }
-        return null; // This shouldn't ever be reached.
+    }
 
+    /**
+     * Get the neighborhood a BurningCell can set alight.
+     * 
+     * @return Neighborhood
+     */
+    public Neighborhood getNeighborhood() {
+        return this.neighborhood;
     }
 
     /**
-     * Set cell at position (x,y) on cellMatrix to the given Cell object.
+     * Set the neighborhood a BurningCell can set alight.
      * 
-     * @param x int value of x-position
-     * @param y int value of y-position
-     * @param newCell Cell object to be placed in cellMatrix
-    */
-    public void setCell(int x, int y, Cell newCell) {
-        if (cellExists(x, y)) {
-            this.cellMatrix[y][x] = newCell;
-            this.transitionMatrix[y][x] = newCell;
+     * Defaults to the von Neumann neighborhood of radius 2.
+     * 
+     * @param shape Neighborhood.Shape to use
+     * @param radius int of at least 0
+     */
+    public void setNeighborhood(Neighborhood.Shape shape, int radius) {
+        this.neighborhood = new Neighborhood(shape, radius, this.grid.getSize());
+        this.updatePaddedNeighborhood();
+    }
+
+    /**
+     * Get what a BurningCell at the edge of the board sees past it.
+     * 
+     * @return Boundary
+     */
+    public Boundary getBoundary() {
+        return this.boundary;
+    }
+
+    /**
+     * <p>Set what a BurningCell at the edge of the board sees past it.</p>
+     * 
+     * <p>Defaults to Boundary.CLAMPED. On a PaddedGrid whose halo is at least as wide as the
+     * neighborhood, the halo stands in for the cells past the edge, and no cell's neighbors are
+     * ever bounds checked. SteppingMode.BITBOARD only handles CLAMPED; with any other boundary,
+     * it sweeps like SteppingMode.SWEEP.</p>
+     * 
+     * @param boundary Boundary of the board
+     */
+    public void setBoundary(Boundary boundary) {
+        this.boundary = boundary;
+        if (this.grid instanceof PaddedGrid) {
+            ((PaddedGrid) this.grid).setBoundary(boundary);
+        }
+        if (this.clusters != null && this.clusters.getBoundary() != boundary) {
+            // Which cells are next to each other changed; the clusters start over from the board as it is.
+            this.setClusterTracking(false);
+            this.setClusterTracking(true);
         }
     }
 
-    public void setCell(Cell newCell) {
-        
-        int xPos = newCell.getxPosition();
-        int yPos = newCell.getyPosition();
+    /**
+     * Work out the neighborhood's offsets within the padded rows, if the grid has a halo wide enough for it.
+     */
+    private void updatePaddedNeighborhood() {
+        this.paddedNeighborhood = null;
+        if (this.grid instanceof PaddedGrid) {
+            PaddedGrid padded = (PaddedGrid) this.grid;
+            if (padded.getHalo() >= this.neighborhood.getRadius()) {
+                this.paddedNeighborhood = new Neighborhood(this.neighborhood.getShape(), this.neighborhood.getRadius(), padded.getStride());
+            }
+        }
+    }
+
+    /**
+     * Get the number of worker threads used by SteppingMode.PARALLEL.
+     * 
+     * @return int
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
 
-        if (cellExists(xPos, yPos)) {
-            this.cellMatrix[yPos][xPos] = newCell;
-            this.transitionMatrix[yPos][xPos] = newCell;
+    /**
+     * Set the number of worker threads used by SteppingMode.PARALLEL.
+     * 
+     * Defaults to the number of available processors.
+     * 
+     * @param parallelism int of at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
         }
+        if (this.pool != null && parallelism != this.parallelism) {
+            this.pool.shutdown();
+            this.pool = null;
+        }
+        this.parallelism = parallelism;
     }
+
     /**
-     * Checks to make sure the given (x, y) position is valid.
+     * Get the seed every random roll is derived from.
      * 
-     * Assumes all positions in the Environment are a Cell.
+     * @return long
+     */
+    public long getSeed() {
+        return this.random.getSeed();
+    }
+
+    /**
+     * Get the number of ticks run so far.
      * 
-     * @param x int of the x position
-     * @param y int of the y position
-     * @return true if the position is within the bounds of the board
-     * @throws InvalidCellPositionException if the position is outside the bounds of the board.
+     * @return long
      */
-    public boolean cellExists(int x, int y){
-        return x <= this.cellMatrix.length 
-            && y <= this.cellMatrix.length;
+    public long getTick() {
+        return this.tick;
     }
 
-    /**+=========+
-     * | Helpers |
-     * +=========+
-    */
+    /**
+     * Check whether anything on the board is burning.
+     * 
+     * Kept up to date by the ticks themselves, so it costs nothing to ask.
+     * 
+     * @return true if the last tick, or a cell placed since, left something burning
+     */
+    public boolean isBurning() {
+        return this.population[CellGrid.BURNING] > 0;
+    }
 
     /**
-     * Loads the cellMatrix and transitionMatrix with Cells.
+     * Get the number of cells in the given state.
      * 
-     * Assigns either GrassCell or StoneCell based on the generativeProbability.
+     * Counted as the cells change, so it costs nothing to ask, even every tick. On a 
+     * ChunkedGrid, the GrassCells and StoneCells of tiles nothing was written to are not 
+     * counted, but taken to be their expected share; see ChunkedGrid.getTerrainGrass().
+     * 
+     * @param state byte of the state, one of the CellGrid constants
+     * @return long
      */
-    private void loadCells() {
-        
-        for (int i = 0; i < this.cellMatrix.length; ++i) {
-            
-            Cell[] cellRow = this.cellMatrix[i];
+    public long getPopulation(byte state) {
 
-            for (int j = 0; j < cellRow.length; ++j) {
+        if (this.terrain == null || (state != CellGrid.GRASS && state != CellGrid.STONE)) {
+            return this.population[state];
+        }
 
-                Cell cell = (Math.random() < this.generativeProbability) ? new GrassCell(j, i) : new StoneCell(j, i); 
-                
-                this.cellMatrix[i][j] = cell;
-                this.transitionMatrix[i][j] = cell;
-                
-            }
-        }    
+        long grass = this.terrain.getTerrainGrass();
+        return this.population[state] + (state == CellGrid.GRASS ? grass : this.grid.getCellCount() - grass);
     }
 
     /**
-     * <p> Returns the von Neumann neighborhood of given radius, r. </p>
+     * Get the number of cells in every state.
      * 
-     * <p> Positions in the array correspond to the respective neighborhood
-     * based on the following top-down model (in this case r = 2): </p>
-     * <p><blockquote><pre>       
-     * Ex:    
-     *            +----+           
-     *            | 01 |           
-     *       +----+----+----+      
-     *       | 02 | 03 | 04 |      
-     *  +----+----+----+----+----+ 
-     *  | 05 | 06 | 07 | 08 | 09 | 
-     *  +----+----+----+----+----+ 
-     *       | 10 | 11 | 12 |      
-     *       +----+----+----+      
-     *            | 13 |           
-     *            +----+           
-     * </pre></blockquote><p>
-     * <p>Where (in this case) 07 is the supplied cell. 
-     * @param centerCell the Cell at the center of the neighborhood
-     * @param r integer value of the radius of the neighborhood
-     * @return array of Cell instances
+     * @return long[] indexed by the CellGrid state constants, a copy
      */
-    public Cell[] getVanNeumannNeighborhood(Cell centerCell, int r) {
+    public long[] getPopulations() {
+        long[] population = new long[CellGrid.STATE_COUNT];
+        for (byte state = 0; state < CellGrid.STATE_COUNT; ++state) {
+            population[state] = this.getPopulation(state);
+        }
+        return population;
+    }
 
-        Cell[] neighborhood = new Cell[13];
+    /**
+     * <p>Get the cells that changed state over the last tick.</p>
+     * 
+     * <p>Includes any cells placed between the tick before and the last tick, so a 
+     * painter that reads this after every tick sees every change. The set is reused;
+     * it is only valid until the next tick.</p>
+     * 
+     * @return ChangeSet
+     */
+    public ChangeSet getChanges() {
+        return this.changes;
+    }
 
-        // Center of neighborhood
-        int xPos    = centerCell.getxPosition();
-        int yPos    = centerCell.getyPosition();
+    /**
+     * <p>Start or stop keeping track of the clusters of burn scar; see ClusterTracker.</p>
+     * 
+     * <p>Tracking starts from the cells burning or burnt now, and after that picks up every cell 
+     * that is burning or burnt at the end of a tick, at the cost of the cells the tick changed. 
+     * Cells placed between ticks are picked up at the end of the next one. Loading a new board 
+     * clears the scar, and changing the boundary starts it over. The tracker takes up five bytes 
+     * per cell while it is on, thirteen on a TOROIDAL board.</p>
+     * 
+     * @param tracking true to start tracking, false to stop and drop the tracker
+     * @throws IllegalArgumentException if the board has too many cells to track
+     */
+    public void setClusterTracking(boolean tracking) {
+        if (!tracking) {
+            this.clusters = null;
+        } else if (this.clusters == null) {
+            this.clusters = new ClusterTracker(this.grid.getSize(), this.boundary);
+            this.clusters.addAll(this.grid);
+        }
+    }
 
-        // Since we are in the 4th quadrant, downward is increasing value.
-        int yStart  = Math.max(yPos - r, 0);                              // Ensure we don't move past the top border.
-        int yEnd    = Math.min(yPos + r + 1, this.cellMatrix.length);       // Ensure we don't move past the bottom border.
+    public boolean isClusterTracking() {
+        return this.clusters != null;
+    }
 
-        // Horizontal movement is maintained increasing from left to right.
-        int xStart  = Math.max(xPos - r, 0);                              // Ensure we don't move past the left border.
-        int xEnd    = Math.min(xPos + r + 1, this.cellMatrix[0].length);    // Ensure we don't move past the right border.
+    /**
+     * Get the number of separate clusters of burn scar.
+     * 
+     * @return int
+     * @throws IllegalStateException if clusters are not being tracked
+     */
+    public int getClusterCount() {
+        return this.getClusters().getClusterCount();
+    }
 
+    /**
+     * Get the number of cells in the largest cluster of burn scar.
+     * 
+     * @return int
+     * @throws IllegalStateException if clusters are not being tracked
+     */
+    public int getLargestCluster() {
+        return this.getClusters().getLargestCluster();
+    }
 
-        int neighborCount = 0;
-        for (int j = yStart; j < yEnd; ++j) {                               // Starting at the top of the neighborhood.
+    /**
+     * Check whether a cluster of burn scar reaches across the board, from one edge to the opposite one,
+     * or on a TOROIDAL board, all the way around it.
+     * 
+     * @return boolean
+     * @throws IllegalStateException if clusters are not being tracked
+     */
+    public boolean isSpanning() {
+        return this.getClusters().isSpanning();
+    }
 
-            for (int i = xStart; i < xEnd; ++i) {                           // Move along x-axis.
+    /**
+     * Get the tracker of the burn scar clusters.
+     * 
+     * @return ClusterTracker, up to date as of the last tick
+     * @throws IllegalStateException if clusters are not being tracked
+     */
+    public ClusterTracker getClusters() {
+        if (this.clusters == null) {
+            throw new IllegalStateException("Clusters are not being tracked; call setClusterTracking(true) first.");
+        }
+        return this.clusters;
+    }
 
-                int distance = Math.abs(yPos - j) + Math.abs(xPos - i);     // Determine relative distance from center point.
+    /**
+     * Get the number of random events outside of the cell streams so far.
+     */
+    long getEvents() {
+        return this.events;
+    }
 
-                if (distance <= r) {                                        // If that distance falls within the given radius
-                    neighborhood[neighborCount] = getCell(i, j);            // Add the cell to the neighborhood.
-                    neighborCount++;                                        // Move the pointer to the next neighbor slot.           
-                }
-            }
+    /**
+     * Pick up where a saved Environment left off, without reloading the board.
+     * 
+     * @param generativeProbability double between 0 and 1
+     * @param tick long of ticks run so far
+     * @param events long of random events so far
+     * @throws InvalidProbabilityException when generativeProbability is not between 0 and 1
+     */
+    void restore(double generativeProbability, long tick, long events) throws InvalidProbabilityException {
+        if (generativeProbability < 0 || generativeProbability > 1) {
+            throw new InvalidProbabilityException("Probabilties must be between 0 and 100.");
         }
-        return neighborhood;                                                   // Return neighborhood.
+        this.generativeProbability  = generativeProbability;
+        this.tick                   = tick;
+        this.events                 = events;
     }
 
     /**
-     * <p>Defines the transitions for each kind of cell.</p>
+     * <p>Save the board, physics and random state to a checkpoint file.</p>
      * 
-     * <p>Note:
-     * <p>I opted for this setup rather than handing the transition protocols to each cell because I wanted the cells
-     * to be decoupled from one another. I'd also maintain that this saves on considerable computational space
-     * as there can possibly be 100,000+ cells at any one time, and thus just as many copies of the transitions.</p>
+     * <p>Loading the checkpoint gives back an Environment that plays out exactly
+     * the way this one will from here on. A custom random source set through
+     * setRandomSource() is not saved; the loaded Environment uses the default one
+     * with the same seed.</p>
      * 
-     * @param currentCell the Cell to be transitioned
+     * @param path Path of the file to write, replaced if it exists
+     * @throws IOException if the file can't be written
      */
-    public void transitionProtocol(Cell currentCell) {
+    public void save(Path path) throws IOException {
+        Checkpoint.write(this, path);
+    }
 
-        int xPos = currentCell.getxPosition();
-        int yPos = currentCell.getyPosition();
+    /**
+     * Load an Environment from a checkpoint file written by save().
+     * 
+     * @param path Path of the file to read
+     * @return Environment as it was saved, on a PackedGrid
+     * @throws IOException if the file can't be read
+     * @throws InvalidCheckpointException if the file is not a checkpoint this version can read
+     */
+    public static Environment load(Path path) throws IOException, InvalidCheckpointException {
+        return Checkpoint.read(path);
+    }
 
-        Cell[] neighbors;
-        switch (currentCell.toString()) {
-            
-            case "BurningCell":
-                
-                // Roll to see if the BurningCell will transition to a BurntCell
-                if (burnoutRoll()) {
-                    this.transitionMatrix[yPos][xPos] = new BurntCell(xPos, yPos);
-                    return;
-                }
+    /**
+     * <p>Start over with a new seed, reusing the grid and keeping the physics.</p>
+     *
+     * <p>The board is reloaded and the tick count goes back to zero. Resetting to the same
+     * seed with the same physics always plays out the same way, so one Environment
+     * can run many independent fires without allocating a new board for each.</p>
+     *
+     * @param seed long every random roll is derived from
+     */
+    public void reset(long seed) {
 
-                // Get the neighborhood and roll to see if we should traverse the array
-                // forwards or backwards.
-                neighbors = getVanNeumannNeighborhood(currentCell, 2);
-                boolean forward = Math.random() <= .50;
+        this.random = new SplitMixSource(seed);
+        this.tick   = 0;
+        this.events = 0;
 
-                // TODO: Generalize this, complete and utter DRY failure...
-                if (forward) {
-                    for (int i = 0; i < neighbors.length; ++i) {
+        this.frontier.clear();
+        this.nextFrontier.clear();
+        this.ignitions.clear();
+        this.changes.clear();
+        this.pendingChanges.clear();
 
-                        // We only break here because we know the neighborhood will group
-                        // the null values together at the end of the array.
-                        if (neighbors[i] == null) {
-                            break;
-                        }
-                        // If the neighbor is not a GrassCell, skip over it.
-                        if (neighbors[i].toString() != "GrassCell") {
-                            continue;
-                        }
-                        
-                        // Roll to see if the GrassCell neighbor will transition to a BurningCell.
-                        if (ignitionRoll()) {
+        this.loadCells();
+    }
 
-                            int neighborX = neighbors[i].getxPosition();
-                            int neighborY = neighbors[i].getyPosition();
-                            
-                            this.transitionMatrix[neighborY][neighborX] = new BurningCell(neighborX, neighborY);
-                            break; // We only allow one neighbor to catch per check.
-                        }
-                    }
-                } else {
-                    for (int i = neighbors.length-1; i > 0; --i) {
+    /**
+     * Get the source every random roll is drawn from.
+     * 
+     * @return RandomSource
+     */
+    public RandomSource getRandomSource() {
+        return this.random;
+    }
 
-                        // We only break here because we know the neighborhood will group
-                        // the null values together at the end of the array.
-                        if (neighbors[i] == null) {
-                            break;
-                        }
-                        // If the neighbor is not a GrassCell, skip over it.
-                        if (neighbors[i].toString() != "GrassCell") {
-                            continue;
-                        }
+    /**
+     * Replace the source every random roll is drawn from.
+     * 
+     * Takes effect from the next roll; the board is not reloaded.
+     * 
+     * @param source RandomSource to draw from
+     */
+    public void setRandomSource(RandomSource source) {
+        this.random = source;
+    }
 
-                        int neighborX = neighbors[i].getxPosition();
-                        int neighborY = neighbors[i].getyPosition();
+    /**
+     * Get the "live" board.
+     * 
+     * The matrix is built from the grid on every call, so it is only 
+     * meant for small boards and legacy callers.
+     * 
+     * @return 2D array of cell objects
+     */
+    public PositionedCell[][] getCellMatrix() {
+        
+        int size = this.grid.getSize();
+        PositionedCell[][] matrix = new PositionedCell[size][size];
 
-                        // Roll to see if the GrassCell neighbor will transition to a BurningCell.
-                        if (ignitionRoll()) {
-                            this.transitionMatrix[neighborY][neighborX] = new BurningCell(neighborX, neighborY);
-                            break; // We only allow one neighbor to catch per check.
-                        }
+        for (int y = 0; y < size; ++y) {
+            for (int x = 0; x < size; ++x) {
+                matrix[y][x] = cellOf(this.grid.get(x, y), x, y);
+            }
+        }
+        return matrix;
+    }
+    
+    /**
+     * Get the "live" board as the shared Cell instance for each position's state.
+     * 
+     * Unlike getCellMatrix() nothing is allocated after the first call; the same 
+     * matrix is refreshed in place, so the cells carry no position.
+     * 
+     * @return 2D array of shared cell objects
+     */
+    public Cell[][] getStateMatrix() {
+
+        int size = this.grid.getSize();
+
+        if (this.stateMatrix == null || this.stateMatrix.length != size) {
+            this.stateMatrix = new Cell[size][size];
+        }
+
+        for (int y = 0; y < size; ++y) {
+            Cell[] row = this.stateMatrix[y];
+            for (int x = 0; x < size; ++x) {
+                row[x] = Cell.forState(this.grid.get(x, y));
+            }
+        }
+        return this.stateMatrix;
+    }
+    
+    /**
+     * Get the transitionMatrix.
+     * 
+     * Like getCellMatrix(), this is a view built from the grid on every call.
+     * 
+     * @return 2D array of Cell objects
+     */
+    public PositionedCell[][] getTransitionMatrix() {
+
+        int size = this.grid.getSize();
+        PositionedCell[][] matrix = new PositionedCell[size][size];
+
+        for (int y = 0; y < size; ++y) {
+            for (int x = 0; x < size; ++x) {
+                matrix[y][x] = cellOf(this.grid.getNext(this.grid.index(x, y)), x, y);
+            }
+        }
+        return matrix;
+    }
+   
+    /**
+     * Grabs cell located at the given (x, y) position in cellMatrix.
+     * 
+     * @param x int of the x position
+     * @param y int of the y position
+     * @return Cell object, or null if the position is outside the board
+     */
+    public PositionedCell getCell(int x, int y) {
+
+        if (cellExists(x, y)) {
+            return cellOf(this.grid.get(x, y), x, y);
+        }
+        return null; // This shouldn't ever be reached.
+
+    }
+
+    /**
+     * Set cell at position (x,y) on cellMatrix to the given Cell object.
+     * 
+     * @param x int value of x-position
+     * @param y int value of y-position
+     * @param newCell Cell object to be placed in cellMatrix
+    */
+    public void setCell(int x, int y, Cell newCell) {
+        if (cellExists(x, y)) {
+            this.placeCell(x, y, newCell.getState());
+        }
+    }
+
+    public void setCell(PositionedCell newCell) {
+        this.setCell(newCell.getxPosition(), newCell.getyPosition(), newCell);
+    }
+
+    /**
+     * Checks to make sure the given (x, y) position is valid.
+     * 
+     * @param x int of the x position
+     * @param y int of the y position
+     * @return true if the position is within the bounds of the board
+     */
+    public boolean cellExists(int x, int y){
+        int size = this.grid.getSize();
+        return x >= 0 && x < size
+            && y >= 0 && y < size;
+    }
+
+    /**+=========+
+     * | Helpers |
+     * +=========+
+    */
+
+    /**
+     * Loads the grid with cells.
+     * 
+     * Assigns either GrassCell or StoneCell based on the generativeProbability.
+     */
+    private void loadCells() {
+        
+        int size = this.grid.getSize();
+        RandomSource random = this.nextEvent();
+
+        long grass = 0;
+        this.terrain = null;
+        if (this.grid instanceof ChunkedGrid) {
+            // Writing every cell would materialize every tile; the grid rolls each cell from its index instead,
+            // and counts the terrain as far as it was read. The populations here only count the changes to it.
+            this.terrain = (ChunkedGrid) this.grid;
+            this.terrain.generate(random.nextLong(), this.generativeProbability);
+        } else {
+            for (int y = 0; y < size; ++y) {
+                for (int x = 0; x < size; ++x) {
+                    if (generationRoll(random)) {
+                        this.grid.put(x, y, CellGrid.GRASS);
+                        grass++;
+                    } else {
+                        this.grid.put(x, y, CellGrid.STONE);
                     }
                 }
+            }
+        }
+        this.frontierStale = true;
+        this.pendingChanges.markEverything();
 
-                // Roll to see if the BurningCell will transition to a BurntCell
-                if (burnoutRoll()) {
-                    this.transitionMatrix[yPos][xPos] = new BurntCell(xPos, yPos);
-                    return;
-                }
+        if (this.clusters != null) {
+            this.clusters.clear();
+        }
 
-                this.transitionMatrix[yPos][xPos] = new BurningCell(xPos, yPos); // If it made it here, then it stays a BurningCell.
-                return;
+        Arrays.fill(this.population, 0);
+        if (this.terrain == null) {
+            this.population[CellGrid.GRASS] = grass;
+            this.population[CellGrid.STONE] = this.grid.getCellCount() - grass;
+        }
+    }
+
+    /**
+     * Count the cells in each state from scratch.
+     */
+    private void countPopulation() {
+
+        Arrays.fill(this.population, 0);
+        this.terrain = null;
+
+        int size = this.grid.getSize();
+        byte[] row = new byte[size];
+
+        for (int y = 0; y < size; ++y) {
+            this.grid.getRow(y, row);
+            for (int x = 0; x < size; ++x) {
+                this.population[row[x]]++;
+            }
+        }
+    }
+
+    /**
+     * Position the random source at the start of a fresh stream for something 
+     * that isn't a cell transition, like loading the board or setting a random fire.
+     * 
+     * @return this.random
+     */
+    private RandomSource nextEvent() {
+        this.events++;
+        this.random.seek(this.tick, -this.events);          // Cell streams use the non-negative keys.
+        return this.random;
+    }
+
+    /**
+     * Place a state on the board outside of a tick.
+     */
+    private void placeCell(int x, int y, byte state) {
+        byte previous = this.grid.get(x, y);
+        if (previous != state) {
+            this.pendingChanges.add(this.grid.index(x, y));
+            this.population[previous]--;
+            this.population[state]++;
+        }
+        this.grid.put(x, y, state);
+        this.frontierStale = true;
+    }
+
+    /**
+     * Build a Cell view of the given state at position (x, y).
+     */
+    private static PositionedCell cellOf(byte state, int x, int y) {
+        return new PositionedCell(state, x, y);
+    }
+
+    /**
+     * <p> Returns the von Neumann neighborhood of given radius, r. </p>
+     * 
+     * <p> Positions in the array correspond to the respective neighborhood
+     * based on the following top-down model (in this case r = 2): </p>
+     * <p><blockquote><pre>       
+     * Ex:    
+     *            +----+           
+     *            | 01 |           
+     *       +----+----+----+      
+     *       | 02 | 03 | 04 |      
+     *  +----+----+----+----+----+ 
+     *  | 05 | 06 | 07 | 08 | 09 | 
+     *  +----+----+----+----+----+ 
+     *       | 10 | 11 | 12 |      
+     *       +----+----+----+      
+     *            | 13 |           
+     *            +----+           
+     * </pre></blockquote><p>
+     * <p>Where (in this case) 07 is the supplied cell. Neighbors past the border are
+     * left out, and the array is padded with nulls at the end.</p>
+     * @param centerCell the Cell at the center of the neighborhood
+     * @param r integer value of the radius of the neighborhood
+     * @return array of Cell instances
+     */
+    public PositionedCell[] getVanNeumannNeighborhood(PositionedCell centerCell, int r) {
+
+        Neighborhood offsets = this.neighborhood;
+        if (offsets.getShape() != Neighborhood.Shape.VON_NEUMANN || offsets.getRadius() != r) {
+            offsets = new Neighborhood(Neighborhood.Shape.VON_NEUMANN, r, this.grid.getSize());
+        }
+
+        PositionedCell[] neighborhood = new PositionedCell[offsets.getCount()];
+
+        // Center of neighborhood
+        int xPos    = centerCell.getxPosition();
+        int yPos    = centerCell.getyPosition();
+
+        int neighborCount = 0;
+        for (int k = 0; k < offsets.getCount(); ++k) {                     // Top-down, left to right.
+
+            if (offsets.contains(xPos, yPos, k)) {                          // Skip neighbors past the border,
+                neighborhood[neighborCount] = getCell(xPos + offsets.getDx(k), yPos + offsets.getDy(k));
+                neighborCount++;                                            // which groups the nulls at the end.
+            }
+        }
+        return neighborhood;                                                // Return neighborhood.
+    }
+
+    /**
+     * <p>Defines the transitions for each kind of cell.</p>
+     * 
+     * <p>Note:
+     * <p>I opted for this setup rather than handing the transition protocols to each cell because I wanted the cells
+     * to be decoupled from one another. I'd also maintain that this saves on considerable computational space
+     * as there can possibly be 100,000+ cells at any one time, and thus just as many copies of the transitions.</p>
+     * 
+     * @param currentCell the Cell to be transitioned
+     */
+    public void transitionProtocol(PositionedCell currentCell) {
+        this.transitionProtocol(currentCell.getxPosition(), currentCell.getyPosition());
+    }
+
+    /**
+     * <p>Defines the transitions for the cell at position (x, y).</p>
+     * 
+     * <p>Reads from the live buffer of the grid and writes into the next buffer.
+     * GrassCells and StoneCells never change on their own, so nothing is written for them;
+     * a GrassCell can only be set alight by a burning neighbor.</p>
+     * 
+     * @param x int of the x position
+     * @param y int of the y position
+     */
+    public void transitionProtocol(int x, int y) {
+        this.transitionProtocol(x, y, new TransitionContext(this.random, this.ignitions, this.pendingChanges, this.population));
+    }
+
+    /**
+     * <p>Transition protocols with the random source and bookkeeping supplied by the caller.</p>
+     * 
+     * <p>Safe to run from several threads at once, as long as each thread has its own
+     * context and they visit different cells.</p>
+     * 
+     * <p>The random source is moved to the cell's own stream for the current tick,
+     * so the outcome doesn't depend on the order cells are visited in.</p>
+     * 
+     * @param x int of the x position
+     * @param y int of the y position
+     * @param context TransitionContext of the worker running the protocol
+     */
+    void transitionProtocol(int x, int y, TransitionContext context) {
+
+        RandomSource random = context.random;
+
+        long index = this.grid.index(x, y);
+        random.seek(this.tick, index);
+
+        switch (this.grid.get(index)) {
             
-            case "GrassCell":
+            case CellGrid.BURNING:
                 
-                // If the cell has already changed this cycle, then we move on.
-                if (this.cellMatrix[yPos][xPos].getClass() != this.transitionMatrix[yPos][xPos].getClass()) {
+                // Roll to see if the BurningCell will transition to a BurntCell
+                if (burnoutRoll(random)) {
+                    this.transition(index, CellGrid.BURNT, context);
                     return;
                 }
-                
-                // Roll to see if it spontaneously combusts.
-                /** 
-                 * DISABLED IN EXCHANGE FOR RANDOM SINGLE FIRES
-                if (combustionRoll()) {
-                    this.transitionMatrix[yPos][xPos] = new BurningCell(xPos, yPos);
+
+                // Roll to see if we should traverse the neighborhood forwards or backwards,
+                // then try to set one GrassCell neighbor alight.
+                this.igniteNeighbor(index, x, y, random.nextDouble() <= .50, context);
+
+                // Roll to see if the BurningCell will transition to a BurntCell
+                if (burnoutRoll(random)) {
+                    this.transition(index, CellGrid.BURNT, context);
                     return;
-                } 
-                */
+                }
 
-                this.transitionMatrix[yPos][xPos] = new GrassCell(xPos, yPos);
+                this.transition(index, CellGrid.BURNING, context); // If it made it here, then it stays a BurningCell.
                 return;
             
-            case "BurntCell":
+            case CellGrid.BURNT:
 
                 // Roll to see if the BurntCell transitions to a GrassCell.
-                if (resurrectionRoll()) {
-                    this.transitionMatrix[yPos][xPos] = new GrassCell(xPos, yPos);
+                this.transition(index, resurrectionRoll(random) ? CellGrid.GRASS : CellGrid.BURNT, context);
+                return;
+
+            case CellGrid.STONE:
+
+                // The StoneCell should never change.
+                this.transition(index, CellGrid.STONE, context);
+                return;
+
+            default:
+                // GrassCells only change when a neighbor sets them alight.
+                return;
+        }
+    }
+
+    /**
+     * Walk the neighborhood of (x, y) and set the first GrassCell that passes 
+     * an ignition roll alight. We only allow one neighbor to catch per check.
+     * 
+     * @param index flat index of (x, y)
+     * @param x int of the x position
+     * @param y int of the y position
+     * @param forward true to walk the neighborhood top-down, false for bottom-up
+     * @param context TransitionContext of the worker running the protocol
+     */
+    private void igniteNeighbor(long index, int x, int y, boolean forward, TransitionContext context) {
+
+        Neighborhood neighborhood = this.neighborhood;
+        int count = neighborhood.getCount();
+
+        if (this.paddedNeighborhood != null) {
+
+            // Every neighbor is in the padded grid, halo included, just add the offsets.
+            PaddedGrid grid = (PaddedGrid) this.grid;
+            long center = grid.paddedIndex(x, y);
+
+            for (int m = 0; m < count; ++m) {
+
+                int k = forward ? m : count - 1 - m;
+                long neighbor = center + this.paddedNeighborhood.getOffset(k);
+
+                if (grid.getPadded(neighbor) == CellGrid.GRASS && ignitionRoll(context.random)) {
+                    this.ignite(grid.boardIndexOf(neighbor), context);
                     return;
-                } else {
-                    this.transitionMatrix[yPos][xPos] = new BurntCell(xPos, yPos);
+                }
+            }
+            return;
+        }
+
+        if (neighborhood.isInterior(x, y)) {
+
+            // Every neighbor is on the board, just add the offsets.
+            for (int m = 0; m < count; ++m) {
+
+                int k = forward ? m : count - 1 - m;
+                if (this.tryIgnite(index + neighborhood.getOffset(k), context)) {
                     return;
                 }
+            }
+            return;
+        }
 
-            case "StoneCell":
+        int size = this.grid.getSize();
 
-                // The StoneCell should never change.
-                this.transitionMatrix[yPos][xPos] = new StoneCell(xPos, yPos);
+        for (int m = 0; m < count; ++m) {
 
-            default:
-                // This should never be reached.
+            int k = forward ? m : count - 1 - m;
+            int i = x + neighborhood.getDx(k);
+            int j = y + neighborhood.getDy(k);
+
+            if (!neighborhood.contains(x, y, k)) {
+
+                if (this.boundary == Boundary.TOROIDAL) {
+                    i = Math.floorMod(i, size);
+                    j = Math.floorMod(j, size);
+                } else if (this.boundary == Boundary.ABSORBING) {
+                    // Past the border is grass that never changes; catching it still uses up the ignition.
+                    if (ignitionRoll(context.random)) {
+                        return;
+                    }
+                    continue;
+                } else {
+                    continue;                                   // Skip neighbors past the border.
+                }
+            }
+            if (this.tryIgnite(this.grid.index(i, j), context)) {
                 return;
+            }
         }
     }
 
+    /**
+     * Roll to see if the neighbor at the given index catches.
+     * 
+     * @return true if the neighbor was a GrassCell and caught
+     */
+    private boolean tryIgnite(long neighbor, TransitionContext context) {
+
+        // If the neighbor is not a GrassCell, skip over it.
+        if (this.grid.get(neighbor) != CellGrid.GRASS) {
+            return false;
+        }
+
+        // Roll to see if the GrassCell neighbor will transition to a BurningCell.
+        if (!ignitionRoll(context.random)) {
+            return false;
+        }
+
+        this.ignite(neighbor, context);
+        return true;
+    }
+
+    /**
+     * Set the GrassCell at the given index alight.
+     * 
+     * @param neighbor flat index of the cell, or -1 if it is past the edge and nothing happens
+     */
+    private void ignite(long neighbor, TransitionContext context) {
+
+        // Only the first BurningCell to reach the neighbor records the ignition.
+        if (neighbor >= 0 && this.transition(neighbor, CellGrid.BURNING, context) && context.ignitions != null) {
+            context.ignitions.add(neighbor);
+        }
+    }
+
+    /**
+     * Write a cell's next state and record it if that changes the cell.
+     * 
+     * The next buffer starts the tick as a copy of the live one, so the pending state 
+     * being replaced is the cell's live state, or BURNING if a neighbor already set it alight.
+     * Moving the cell from the one population to the other is then exact, even across workers.
+     * 
+     * @param index flat index of the cell
+     * @param state its next state
+     * @param context TransitionContext to record the change in
+     * @return true if this changed the cell's pending state
+     */
+    boolean transition(long index, byte state, TransitionContext context) {
+
+        byte previous = this.grid.setNext(index, state);
+        if (previous == state) {
+            return false;
+        }
+
+        context.changes.add(index);
+        context.population[previous]--;
+        context.population[state]++;
+        return true;
+    }
+
     /**
      * 
      * NEEDS FURTHER IMPROVEMENT UNTIL VIABLE FOR USE.
@@ -559,25 +1264,25 @@ public class Environment {
      * 
      * @param currentCell
      */
-    public void newTransitionProtocol(Cell currentCell) {
+    public void newTransitionProtocol(PositionedCell currentCell) {
         int xPos = currentCell.getxPosition();
         int yPos = currentCell.getyPosition();
 
-        Cell[] neighbors;
+        PositionedCell[] neighbors;
         switch (currentCell.toString()) {
 
             case "BurningCell":
                 
                 // Roll to see if the BurningCell will transition to a BurntCell
                 if (burnoutRoll()) {
-                    this.updatedCells.add(new BurntCell(xPos, yPos));
+                    this.updatedCells.add(new PositionedCell(CellGrid.BURNT, xPos, yPos));
                     return;
                 }
 
                 // Get the neighborhood and roll to see if we should traverse the array
                 // forwards or backwards.
                 neighbors = getVanNeumannNeighborhood(currentCell, 2);
-                boolean forward = Math.random() <= .50;
+                boolean forward = this.random.nextDouble() <= .50;
 
                 // TODO: Generalize this, complete and utter DRY failure...
                 if (forward) {
@@ -599,7 +1304,7 @@ public class Environment {
                             int neighborX = neighbors[i].getxPosition();
                             int neighborY = neighbors[i].getyPosition();
                             
-                            this.updatedCells.add(new BurningCell(neighborX, neighborY));
+                            this.updatedCells.add(new PositionedCell(CellGrid.BURNING, neighborX, neighborY));
                             
                             break; // We only allow one neighbor to catch per check.
                         }
@@ -622,7 +1327,7 @@ public class Environment {
 
                         // Roll to see if the GrassCell neighbor will transition to a BurningCell.
                         if (ignitionRoll()) {
-                            this.updatedCells.add(new BurningCell(neighborX, neighborY));
+                            this.updatedCells.add(new PositionedCell(CellGrid.BURNING, neighborX, neighborY));
                             break; // We only allow one neighbor to catch per check.
                         }
                     }
@@ -648,7 +1353,7 @@ public class Environment {
 
                 // Roll to see if the BurntCell transitions to a GrassCell.
                 if (resurrectionRoll()) {
-                    this.updatedCells.add(new GrassCell(xPos, yPos));
+                    this.updatedCells.add(new PositionedCell(CellGrid.GRASS, xPos, yPos));
                 }
 
                 return;
@@ -665,49 +1370,311 @@ public class Environment {
     }
   
     /**
-     * Update the cellMatrix based on the transition protocols.
+     * Update the board based on the transition protocols.
      */
     public void implementTransitions() {
 
+        long started = System.nanoTime();
+
+        TickEvent tickEvent = new TickEvent(this.tick, this.steppingMode.name());
+        tickEvent.begin();
+
+        boolean somethingBurning = this.population[CellGrid.BURNING] > 0;
+
+        // Only burning and burnt cells ever change, so the sweeps skip a board without any.
+        boolean idle = !somethingBurning && this.population[CellGrid.BURNT] == 0;
+
+        switch (this.steppingMode) {
+            case FRONTIER:
+                somethingBurning = this.frontierTransitions();
+                break;
+            case PARALLEL:
+                somethingBurning = idle ? false : this.parallelTransitions();
+                break;
+            default:
+                somethingBurning = idle ? false : this.sweepTransitions();
+                break;
+        }
+
+        TickPhaseEvent phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.COMBUSTION);
+
+        RandomSource random = this.nextEvent();
+
+        if (!somethingBurning && combustionRoll(random)) {
+            
+            int size = this.grid.getSize();
+
+            int randomX = random.nextInt(size); // Some random x-value within the board boundaries.
+            int randomY = random.nextInt(size); // Some random y-value within the board boundaries.
+
+            // Nothing is burning, so the cell is only already in the frontier if it is a BurntCell.
+            if (this.grid.get(randomX, randomY) != CellGrid.BURNT) {
+                this.frontier.add(this.grid.index(randomX, randomY));
+            }
+            byte previous = this.grid.get(randomX, randomY);
+            if (previous != CellGrid.BURNING) {
+                this.pendingChanges.add(this.grid.index(randomX, randomY));
+                this.population[previous]--;
+                this.population[CellGrid.BURNING]++;
+            }
+            this.grid.put(randomX, randomY, CellGrid.BURNING);
+        }
+
+        phase.commit();
+
+        phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.PUBLISH);
+
+        // Publish this tick's changes and start collecting the next ones.
+        ChangeSet published     = this.pendingChanges;
+        this.pendingChanges     = this.changes;
+        this.changes            = published;
+        this.pendingChanges.clear();
+
+        if (this.clusters != null) {
+            this.clusters.update(this.grid, published);
+        }
+
+        tickEvent.setOutcome(published.isEverything() ? -1 : published.size(), this.population[CellGrid.BURNING]);
+
+        this.tick++;
+        this.lastTickNanos = System.nanoTime() - started;
+
+        for (int i = 0; i < this.tickListeners.size(); ++i) {
+            this.tickListeners.get(i).tickCompleted(this);
+        }
+
+        phase.commit();
+        tickEvent.commit();
+    }
+
+    /**
+     * Get how long the last call to implementTransitions() took, not counting the tick listeners.
+     * 
+     * @return long of nanoseconds
+     */
+    public long getLastTickNanos() {
+        return this.lastTickNanos;
+    }
+
+    /**
+     * Notify the given listener at the end of every tick from now on.
+     * 
+     * @param listener TickListener to add
+     */
+    public void addTickListener(TickListener listener) {
+        this.tickListeners.add(listener);
+    }
+
+    /**
+     * Stop notifying the given listener.
+     * 
+     * @param listener TickListener to remove
+     */
+    public void removeTickListener(TickListener listener) {
+        this.tickListeners.remove(listener);
+    }
+
+    /**
+     * Visit every cell on the board.
+     * 
+     * @return true if anything was burning at the start of the tick
+     */
+    private boolean sweepTransitions() {
+
+        // Start the next buffer as a copy of the live one, then only the cells
+        // that can change on their own need to run their transition protocol.
+        TickPhaseEvent phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.PREPARE);
+        this.grid.prepareNext();
+        phase.commit();
+
+        phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.TRANSITIONS);
+        TransitionContext context = new TransitionContext(this.random, null, this.pendingChanges, this.population);
+        boolean somethingBurning;
+        if (this.steppingMode == SteppingMode.BITBOARD && this.boundary == Boundary.CLAMPED) {
+            somethingBurning = this.bitboardKernel().step(this, context);
+        } else if (this.steppingMode == SteppingMode.VECTOR && VECTOR_AVAILABLE) {
+            if (this.vector == null) {
+                this.vector = loadVectorKernel();
+            }
+            somethingBurning = this.vector.sweepRows(this, 0, this.grid.getSize(), context);
+        } else {
+            somethingBurning = this.sweepRows(0, this.grid.getSize(), context);
+        }
+        phase.commit();
+
+        phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.SWAP);
+        this.grid.swap();
+        phase.commit();
+
+        // The buffers no longer match, the frontier has to be rebuilt if the mode changes.
+        this.frontierStale = true;
+
+        return somethingBurning;
+    }
+
+    /**
+     * Get the bitboard kernel, rebuilding it if the neighborhood changed since.
+     */
+    private BitboardKernel bitboardKernel() {
+        if (this.bitboard == null || !this.bitboard.fits(this.grid.getSize(), this.neighborhood)) {
+            this.bitboard = new BitboardKernel(this.grid.getSize(), this.neighborhood);
+        }
+        return this.bitboard;
+    }
+
+    /**
+     * Visit every cell in rows [fromRow, toRow).
+     * 
+     * Expects the next buffer to have been prepared.
+     * 
+     * @param fromRow first row to visit
+     * @param toRow row to stop before
+     * @param context TransitionContext of the worker sweeping the rows
+     * @return true if anything in the rows was burning
+     */
+    boolean sweepRows(int fromRow, int toRow, TransitionContext context) {
+
         boolean somethingBurning = false;
 
-        for (Cell[] cellRow : this.cellMatrix) {
+        int size = this.grid.getSize();
+
+        for (int y = fromRow; y < toRow; ++y) {
 
-            for (Cell cell : cellRow) {
+            for (int x = 0; x < size; ++x) {
 
-                if (cell.toString() == "BurningCell") {
+                byte state = this.grid.get(x, y);
+
+                if (state == CellGrid.BURNING) {
                     somethingBurning = true;
+                    this.transitionProtocol(x, y, context);
+                } else if (state == CellGrid.BURNT) {
+                    this.transitionProtocol(x, y, context);
                 }
+            }
+        }
 
-                // If the cell was already changed this sweep, skip over it.
-                /**
-                 * Removed functionality
-                if (cell.getChangedStatus() == true) {
-                    cell.toggleChangeStatus();
-                    continue;
-                }
-                */
-                this.transitionProtocol(cell);
+        return somethingBurning;
+    }
+
+    /**
+     * <p>Visit every cell, with bands of rows spread over a ForkJoinPool.</p>
+     * 
+     * <p>Each band rolls against its own copy of this.random and records its own changes.
+     * A burning cell may set alight a GrassCell in a neighboring band; that only ever writes
+     * BURNING into the next buffer of a cell that nobody else writes, and the grid's atomic
+     * setNext() tells exactly one of the bands that it made the change.</p>
+     * 
+     * @return true if anything was burning at the start of the tick
+     */
+    private boolean parallelTransitions() {
+
+        if (this.pool == null) {
+            this.pool = new ForkJoinPool(this.parallelism);
+        }
 
+        int size  = this.grid.getSize();
+        int grain = Math.max(BandTask.MIN_ROWS, size / (this.parallelism * 4));   // A few bands per worker to balance the load.
+
+        TickPhaseEvent phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.PREPARE);
+        this.grid.prepareNext();
+        phase.commit();
+
+        // The calling thread waits for the root band, so the root can record straight into the Environment.
+        phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.TRANSITIONS);
+        TransitionContext context = new TransitionContext(this.random.copy(), null, this.pendingChanges, this.population);
+        boolean somethingBurning = this.pool.invoke(new BandTask(this, 0, size, grain, context));
+        phase.commit();
+
+        phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.SWAP);
+        this.grid.swap();
+        phase.commit();
+
+        this.frontierStale = true;
+
+        return somethingBurning;
+    }
+
+    /**
+     * Only visit the burning and burnt cells.
+     * 
+     * Relies on the next buffer matching the live buffer at the start of the tick.
+     * Instead of swapping, the cells that were visited or set alight are copied 
+     * back into the live buffer, which keeps the two in step without touching the rest of the board.
+     * 
+     * @return true if anything was burning at the start of the tick
+     */
+    private boolean frontierTransitions() {
+
+        if (this.frontierStale) {
+            TickPhaseEvent rebuild = TickPhaseEvent.start(this.tick, TickPhaseEvent.PREPARE);
+            this.rebuildFrontier();
+            rebuild.commit();
+        }
+
+        TickPhaseEvent phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.TRANSITIONS);
+
+        boolean somethingBurning = false;
+
+        this.ignitions.clear();
+        this.nextFrontier.clear();
+
+        TransitionContext context = new TransitionContext(this.random, this.ignitions, this.pendingChanges, this.population);
+
+        for (int i = 0; i < this.frontier.size(); ++i) {
+
+            long index = this.frontier.get(i);
+
+            if (this.grid.get(index) == CellGrid.BURNING) {
+                somethingBurning = true;
             }
+            this.transitionProtocol(this.grid.xOf(index), this.grid.yOf(index), context);
         }
 
-        this.cellMatrix = this.transitionMatrix;
+        phase.commit();
+
+        phase = TickPhaseEvent.start(this.tick, TickPhaseEvent.SWAP);
 
-        /**
-        for (Cell cell : updatedCells) {
-            this.setCell(cell);
+        // Commit the visited cells and keep the ones that are still burning or burnt.
+        for (int i = 0; i < this.frontier.size(); ++i) {
+            this.commitFrontierCell(this.frontier.get(i));
+        }
+        for (int i = 0; i < this.ignitions.size(); ++i) {
+            this.commitFrontierCell(this.ignitions.get(i));
         }
-         */
-     
-        if (!somethingBurning && combustionRoll()) {
-            
-            int randomX = (int) (Math.random() * this.cellMatrix.length); // Some random x-value within the board boundaries.
-            int randomY = (int) (Math.random() * this.cellMatrix.length); // Some random y-value within the board boundaries.
 
-            this.cellMatrix[randomY][randomX] = new BurningCell(randomX, randomY);
+        IndexList temp      = this.frontier;
+        this.frontier       = this.nextFrontier;
+        this.nextFrontier   = temp;
+
+        phase.commit();
+
+        return somethingBurning;
+    }
+
+    /**
+     * Copy a cell's next state into the live buffer, and carry it into the 
+     * next frontier if it is still burning or burnt.
+     */
+    private void commitFrontierCell(long index) {
+
+        byte state = this.grid.getNext(index);
+        this.grid.put(index, state);
+
+        if (state == CellGrid.BURNING || state == CellGrid.BURNT) {
+            this.nextFrontier.add(index);
         }
+    }
 
+    /**
+     * Scan the whole board for burning and burnt cells and line the buffers back up.
+     */
+    private void rebuildFrontier() {
+
+        this.grid.prepareNext();
+        this.frontier.clear();
+        this.grid.addActiveCells(this.frontier);
+
+        this.frontierStale = false;
     }
 
     /**
@@ -715,14 +1682,13 @@ public class Environment {
      */
     public void setFire() {
 
-        Random rand = new Random();
-        rand.setSeed(System.currentTimeMillis());
+        RandomSource random = this.nextEvent();
 
-        int randomX = rand.nextInt(this.cellMatrix.length);
-        int randomY = rand.nextInt(this.cellMatrix.length);
+        int randomX = random.nextInt(this.grid.getSize());
+        int randomY = random.nextInt(this.grid.getSize());
 
-        if (this.getCell(randomX, randomY).getClass() == GrassCell.class) {
-            this.setCell(randomX, randomY, new BurningCell(randomX, randomY));
+        if (this.grid.get(randomX, randomY) == CellGrid.GRASS) {
+            this.placeCell(randomX, randomY, CellGrid.BURNING);
             return;
         }
 
@@ -738,7 +1704,7 @@ public class Environment {
     public void setFire(int x, int y) {
   
         if (this.cellExists(x, y)) {
-            this.setCell(x, y, new BurningCell(x, y));
+            this.placeCell(x, y, CellGrid.BURNING);
         }
 
     }
@@ -756,7 +1722,17 @@ public class Environment {
      * @return boolean
      */
     public boolean burnoutRoll() {
-        return Math.random() < this.burnoutProbability;
+        return burnoutRoll(this.random);
+    }
+
+    /**
+     * Roll against the burnoutProbability with the given random source.
+     * 
+     * @param random RandomGenerator to roll against
+     * @return boolean
+     */
+    public boolean burnoutRoll(RandomGenerator random) {
+        return random.nextDouble() < this.burnoutProbability;
     }
 
     /**
@@ -765,8 +1741,17 @@ public class Environment {
      * @return boolean
      */
     public boolean ignitionRoll() {
-        boolean roll = Math.random() < this.ignitionProbability;
-        return roll;
+        return ignitionRoll(this.random);
+    }
+
+    /**
+     * Roll against the ignitionProbability with the given random source.
+     * 
+     * @param random RandomGenerator to roll against
+     * @return boolean
+     */
+    public boolean ignitionRoll(RandomGenerator random) {
+        return random.nextDouble() < this.ignitionProbability;
     }
 
     /**
@@ -775,10 +1760,20 @@ public class Environment {
      * @return boolean
      */
     public boolean combustionRoll() {
+        return combustionRoll(this.random);
+    }
 
-        // To keep it rare, it has to roll 2 times in a row.
+    /**
+     * Roll against the combustionProbability with the given random source.
+     * 
+     * @param random RandomGenerator to roll against
+     * @return boolean
+     */
+    public boolean combustionRoll(RandomGenerator random) {
+
+        // To keep it rare, it has to roll 5 times in a row.
         for (int i = 0; i < 5; ++i) {
-            if (Math.random() > this.spontaneousCombustionProbability) {
+            if (random.nextDouble() > this.spontaneousCombustionProbability) {
                 return false;
             }
         }
@@ -791,7 +1786,17 @@ public class Environment {
      * @return boolean
      */
     public boolean resurrectionRoll() {
-        return Math.random() < this.resurrectionProbability;
+        return resurrectionRoll(this.random);
+    }
+
+    /**
+     * Roll against the resurrectionProbability with the given random source.
+     * 
+     * @param random RandomGenerator to roll against
+     * @return boolean
+     */
+    public boolean resurrectionRoll(RandomGenerator random) {
+        return random.nextDouble() < this.resurrectionProbability;
     }
 
     /**
@@ -800,6 +1805,16 @@ public class Environment {
      * @return boolean
      */
     public boolean generationRoll() {
-        return Math.random() < this.generativeProbability;
+        return generationRoll(this.random);
+    }
+
+    /**
+     * Roll against the generativeProbability with the given random source.
+     * 
+     * @param random RandomGenerator to roll against
+     * @return boolean
+     */
+    public boolean generationRoll(RandomGenerator random) {
+        return random.nextDouble() < this.generativeProbability;
     }
 }
@@ -3,10 +3,19 @@ import java.awt.Color;
 import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
 import java.awt.Toolkit;
 import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -16,6 +25,12 @@ import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
+import Simulation.Cells.Cell;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChangeSet;
+import Simulation.Monitoring.PaintEvent;
+import Simulation.Monitoring.SimulationMonitor;
+
 /**
  * Class responsible for painting the Environment board to the screen.
  * 
@@ -27,12 +42,67 @@ import javax.swing.Timer;
  * 
  * So you should probably have that method in your object's class definition.
  * Or re-write this one to deal with it however you see fit.
+ * 
+ * When the board is given a CellGrid instead, it skips the objects altogether:
+ * each state is looked up in a palette and written straight into the pixels of 
+ * an image with one pixel per cell, which is then scaled onto the screen in one draw.
+ * 
+ * Between ticks, applyChanges() only rewrites the pixels of the cells that changed and
+ * asks Swing to repaint the tiles they fall in; a paint then only draws its clip.
+ * 
+ * When the simulation runs on a thread of its own, the board is given the FrameBuffer it
+ * publishes to instead, and paints whichever frame is the latest when showLatestFrame() is called.
+ * 
+ * A board too large for the screen is drawn from a MipmapPyramid, one pixel per block of cells,
+ * at the level that fits; see setLevel(). Drawing then costs as much as the screen, not the board.
+ * 
+ * Dragging the board pans it, and the mouse wheel zooms in and out around the cursor; see 
+ * Viewport. Every paint only draws the cells under its clip. Zoomed in past the level the pyramid
+ * was made for, the visible cells are read straight from the grid, so a close look at one fire
+ * front of a huge board costs as much as a small board. Frames from a FrameBuffer are drawn at
+ * their own level however far in the view is.
  */
 public class Board extends JPanel {
 
     private Object[][] board;
     private int cellSize;
 
+    private HashMap<Class<?>, Method> colorMethods = new HashMap<Class<?>, Method>();   // getColor() of each class of cell.
+
+    /**
+     * Largest number of pixels a cell can be zoomed in to.
+     */
+    public static final double MAX_SCALE = 64;
+
+    private static final double ZOOM_STEP = 1.25;          // Zoom factor of one notch of the mouse wheel.
+
+    private Viewport viewport;
+
+    private int level;                                     // Each drawn cell is a 2^level x 2^level block of the board.
+
+    private CellGrid      grid;
+    private MipmapPyramid pyramid;                         // Blocks of the grid, when the level is above 0.
+    private BufferedImage image;                           // One pixel per cell, when the level is 0.
+    private int[]         pixels;                          // The image's own raster.
+    private byte[]        row;                             // Scratch space for reading the grid a row at a time.
+    private int[]         palette = new int[CellGrid.STATE_COUNT];
+    private boolean       stale   = true;                  // Whether the image has to be rebuilt from the whole grid.
+
+    private BufferedImage visible;                         // Scratch image of the cells under a clip, zoomed in past the pyramid.
+    private int[]         visiblePixels;
+
+    /**
+     * Length in cells of one side of the tiles repainted by applyChanges().
+     */
+    public static final int TILE_SIZE = 32;
+
+    private boolean[]     dirtyTiles = new boolean[0];
+
+    private FrameBuffer   frames;
+    private Frame         frame;                           // Frame being painted.
+
+    private SimulationMonitor monitor;                     // Told about every paint, if set.
+
     /**
      * Default constructor.
      * 
@@ -41,6 +111,7 @@ public class Board extends JPanel {
     public Board(Object[][] board) {
         this.board = board;
         this.setDefaults();
+        this.installViewport();
     }
     
     /**
@@ -52,6 +123,271 @@ public class Board extends JPanel {
     public Board(Object[][] board, int cellSize) {
         this.board = board;
         this.cellSize = cellSize;
+        this.installViewport();
+    }
+
+    /**
+     * Construct board that paints a grid of cell states.
+     * 
+     * @param grid CellGrid to paint
+     */
+    public Board(CellGrid grid) {
+        this.grid = grid;
+        this.setDefaults();
+        this.setGrid(grid);
+        this.installViewport();
+    }
+
+    /**
+     * Construct board that paints a grid of cell states at specific resolution.
+     * 
+     * @param grid CellGrid to paint
+     * @param cellSize desired pixel-length of cells
+     */
+    public Board(CellGrid grid, int cellSize) {
+        this.setGrid(grid);
+        this.cellSize = cellSize;
+        this.installViewport();
+    }
+
+    /**
+     * Get the grid being painted, if any.
+     * 
+     * @return this.grid
+     */
+    public CellGrid getGrid() {
+        return this.grid;
+    }
+
+    /**
+     * Paint the given grid from now on, instead of the 2D array of objects.
+     * 
+     * @param newGrid CellGrid to paint
+     */
+    public void setGrid(CellGrid newGrid) {
+
+        this.grid = newGrid;
+
+        int size = newGrid.getSize();
+        if (this.level > 0) {
+            if (this.pyramid == null || this.pyramid.getSize(0) != size || this.pyramid.getLevels() != this.level) {
+                this.pyramid = new MipmapPyramid(size, this.level);
+            }
+            this.image  = null;
+            this.pixels = null;
+        } else {
+            if (this.image == null || this.image.getWidth() != size) {
+                this.image  = new BufferedImage(Math.max(size, 1), Math.max(size, 1), BufferedImage.TYPE_INT_RGB);
+                this.pixels = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+                this.row    = new byte[size];
+            }
+            this.pyramid = null;
+        }
+
+        int tiles = (MipmapPyramid.sizeAt(size, this.level) + TILE_SIZE - 1) / TILE_SIZE;
+        if (this.dirtyTiles.length != tiles * tiles) {
+            this.dirtyTiles = new boolean[tiles * tiles];
+        }
+        this.stale = true;
+
+        for (byte state = 0; state < CellGrid.STATE_COUNT; ++state) {
+            this.palette[state] = Cell.forState(state).getColor().getRGB();
+        }
+    }
+
+    /**
+     * Get the level drawn; each drawn cell is a 2^level x 2^level block of the board.
+     * 
+     * @return int
+     */
+    public int getLevel() {
+        return this.level;
+    }
+
+    /**
+     * Get the length in pixels of one side of a drawn cell.
+     * 
+     * @return int
+     */
+    public int getCellSize() {
+        return this.cellSize;
+    }
+
+    /**
+     * Draw the grid at the given level from now on, each 2^level x 2^level block of cells as 
+     * one drawn cell of cellSize pixels.
+     * 
+     * @param level int of at least 0
+     * @param cellSize int of at least 1
+     */
+    public void setLevel(int level, int cellSize) {
+
+        if (level < 0 || cellSize < 1) {
+            throw new IllegalArgumentException("Level must not be negative and cell size must be at least 1.");
+        }
+
+        this.level    = level;
+        this.cellSize = cellSize;
+        if (this.grid != null) {
+            this.setGrid(this.grid);
+        }
+        this.resetViewport();
+        this.repaint();
+    }
+
+    /**
+     * Get the part of the board being shown.
+     * 
+     * @return Viewport, changed in place by panning and zooming
+     */
+    public Viewport getViewport() {
+        return this.viewport;
+    }
+
+    /**
+     * Show the whole board again, at the scale it started out at.
+     */
+    public void resetViewport() {
+        double scale = (double) this.cellSize / (1L << this.level);
+        this.viewport = new Viewport(scale, scale / 4, Math.max(scale, MAX_SCALE));
+        this.repaint();
+    }
+
+    /**
+     * Paint the latest frame of the given buffer from now on, instead of the grid.
+     * 
+     * The frames are drawn at their own level, so the buffer should be made at getLevel().
+     * 
+     * @param frames FrameBuffer the simulation publishes to
+     */
+    public void setFrames(FrameBuffer frames) {
+        this.frames = frames;
+        this.frame  = null;
+        this.repaint();
+    }
+
+    /**
+     * Report every paint to the given monitor from now on.
+     * 
+     * @param monitor SimulationMonitor, or null to stop reporting
+     */
+    public void setMonitor(SimulationMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * Take the latest frame from the FrameBuffer, and repaint the tiles that differ from 
+     * the frame painted before it. Must be called on the Event Dispatch Thread.
+     */
+    public void showLatestFrame() {
+
+        if (this.frames == null) {
+            return;
+        }
+
+        // Acquiring hands the previous frame back to the producer, which may publish into it
+        // right away; its sequence number has to be read before then.
+        Frame previous = this.frame;
+        long  seen     = previous != null ? previous.getSequence() : 0;
+        this.frame = this.frames.acquire();
+
+        if (previous == null) {
+            this.repaint();
+            return;
+        }
+        if (this.frame == previous) {
+            return;
+        }
+
+        int size  = this.frame.getSize();
+        int tiles = this.frames.getTiles();
+        int level = this.frames.getLevel();
+
+        for (int tile = 0; tile < tiles * tiles; ++tile) {
+
+            if (this.frame.getTileStamp(tile) <= seen) {
+                continue;
+            }
+
+            int x = (tile % tiles) * TILE_SIZE;
+            int y = (tile / tiles) * TILE_SIZE;
+            int width  = Math.min(TILE_SIZE, size - x);
+            int height = Math.min(TILE_SIZE, size - y);
+
+            this.repaintCells(new Rectangle(x << level, y << level, width << level, height << level));
+        }
+    }
+
+    /**
+     * Rebuild the whole image from the grid on the next paint.
+     * 
+     * Needed whenever the grid changed without a change set saying so.
+     */
+    public void refresh() {
+        this.stale = true;
+    }
+
+    /**
+     * Bring the image up to date with the given changes and repaint only the
+     * tiles they touched.
+     * 
+     * @param changes ChangeSet of the cells that changed since the last call
+     */
+    public void applyChanges(ChangeSet changes) {
+
+        if (this.grid == null) {
+            this.repaint();
+            return;
+        }
+
+        if (changes.isEverything()) {
+            this.stale = true;
+            this.repaint();
+            return;
+        }
+
+        int size  = this.grid.getSize();
+        int drawn = MipmapPyramid.sizeAt(size, this.level);
+        int tiles = (drawn + TILE_SIZE - 1) / TILE_SIZE;
+
+        for (int i = 0; i < changes.size(); ++i) {
+
+            long index = changes.get(i);
+            int x = this.grid.xOf(index);
+            int y = this.grid.yOf(index);
+
+            if (this.pyramid != null) {
+                this.pyramid.update(this.grid, index);
+            } else {
+                this.pixels[y * size + x] = this.palette[this.grid.get(index)];
+            }
+            this.dirtyTiles[((y >>> this.level) / TILE_SIZE) * tiles + (x >>> this.level) / TILE_SIZE] = true;
+        }
+
+        for (int tile = 0; tile < this.dirtyTiles.length; ++tile) {
+
+            if (!this.dirtyTiles[tile]) {
+                continue;
+            }
+            this.dirtyTiles[tile] = false;
+
+            int x = (tile % tiles) * TILE_SIZE;
+            int y = (tile / tiles) * TILE_SIZE;
+            int width  = Math.min(TILE_SIZE, drawn - x);
+            int height = Math.min(TILE_SIZE, drawn - y);
+
+            this.repaintCells(new Rectangle(x << this.level, y << this.level, width << this.level, height << this.level));
+        }
+    }
+
+    /**
+     * Repaint the pixels the given cells of the board are shown on, if any of them are on the panel.
+     */
+    private void repaintCells(Rectangle cells) {
+        Rectangle pixels = this.viewport.pixelsOf(cells);
+        if (pixels.intersects(new Rectangle(this.getSize()))) {
+            this.repaint(pixels);
+        }
     }
 
     /**
@@ -79,6 +415,12 @@ public class Board extends JPanel {
     @Override
     public void paintComponent(Graphics g) {
         
+        Rectangle clip = g.getClipBounds();
+        String source = this.frames != null ? PaintEvent.FRAME : (this.grid != null ? PaintEvent.GRID : PaintEvent.OBJECTS);
+
+        PaintEvent event = new PaintEvent(source, clip != null ? clip.width : this.getWidth(), clip != null ? clip.height : this.getHeight());
+        event.begin();
+
         try {
             super.paintComponent(g);
             doDrawing(g);
@@ -86,6 +428,12 @@ public class Board extends JPanel {
             System.err.println(e.getMessage());
         }         
 
+        event.commit();
+
+        if (this.monitor != null) {
+            this.monitor.framePainted();
+        }
+
     }
 
     /**
@@ -103,26 +451,53 @@ public class Board extends JPanel {
 
         Graphics2D g2d = (Graphics2D) graphics; 
 
-        int x = 0, y = 0;
+        if (this.frames != null) {
+            if (this.frame == null) {
+                this.frame = this.frames.acquire();
+            }
+            this.drawImage(g2d, this.frame.getImage(), this.frames.getSize(), this.frames.getLevel());
+            return;
+        }
+
+        if (this.grid != null) {
+            this.drawGrid(g2d);
+            return;
+        }
+
+        // Only the cells under the clip, drawn in cells of the board through the viewport.
+        Rectangle cells = this.visibleCells(g2d, this.board.length);
+        if (cells.isEmpty()) {
+            return;
+        }
+
+        AffineTransform saved = g2d.getTransform();
+        g2d.transform(this.viewport.getTransform());
 
         try {
             
-            Method cellMethod = this.board[0][0].getClass().getMethod("getColor");
+            // Every state is a class of its own, each declaring its own getColor().
+            Class<?> cellClass  = null;
+            Method   cellMethod = null;
+
+            for (int y = cells.y; y < cells.y + cells.height; ++y) {
 
-            for ( Object[] cellRow : this.board ) {
+                for (int x = cells.x; x < Math.min(cells.x + cells.width, this.board[y].length); ++x) {
 
-                for ( Object cell : cellRow ) {
+                    Object cell = this.board[y][x];
+                    if (cell.getClass() != cellClass) {
+                        cellClass  = cell.getClass();
+                        cellMethod = this.colorMethods.get(cellClass);
+                        if (cellMethod == null) {
+                            cellMethod = cellClass.getMethod("getColor");
+                            this.colorMethods.put(cellClass, cellMethod);
+                        }
+                    }
                     
                     Color cellColor = (Color) cellMethod.invoke(cell);
                     g2d.setColor(cellColor);
-                    g2d.fillRect(x, y, this.cellSize, this.cellSize);
-    
-                    x += this.cellSize;
+                    g2d.fillRect(x, y, 1, 1);
                 }
     
-                y += this.cellSize;
-                x = 0;
-    
             }
 
         } catch (NoSuchMethodException nsme) {
@@ -131,24 +506,186 @@ public class Board extends JPanel {
             throw new IllegalAccessException("Cannot access target method.");
         } catch (InvocationTargetException ite) {
             throw new InvocationTargetException(ite.getTargetException());
+        } finally {
+            g2d.setTransform(saved);
         }
         
     }
 
+    /**
+     * Paint the grid through the palette into the image if it is stale, then draw it.
+     * 
+     * @param g2d Graphics2D to draw onto
+     */
+    private void drawGrid(Graphics2D g2d) {
+
+        int size = this.grid.getSize();
+
+        if (this.pyramid != null) {
+            if (this.stale) {
+                this.pyramid.redraw(this.grid);
+                this.stale = false;
+            }
+
+            // Every level of the pyramid is kept up to date, so any of them can be drawn.
+            int level = this.viewport.levelFor(this.pyramid.getLevels());
+            if (level > 0) {
+                this.drawImage(g2d, this.pyramid.getImage(level), size, level);
+            } else {
+                this.drawCells(g2d);
+            }
+            return;
+        }
+
+        if (this.stale) {
+
+            for (int y = 0; y < size; ++y) {
+
+                this.grid.getRow(y, this.row);
+
+                int offset = y * size;
+                for (int x = 0; x < size; ++x) {
+                    this.pixels[offset + x] = this.palette[this.row[x]];
+                }
+            }
+            this.stale = false;
+        }
+
+        this.drawImage(g2d, this.image, size, 0);
+    }
+
+    /**
+     * Read the cells under the clip straight from the grid into a scratch image, and draw it.
+     * 
+     * @param g2d Graphics2D to draw onto
+     */
+    private void drawCells(Graphics2D g2d) {
+
+        Rectangle cells = this.visibleCells(g2d, this.grid.getSize());
+        if (cells.isEmpty()) {
+            return;
+        }
+
+        if (this.visible == null || this.visible.getWidth() < cells.width || this.visible.getHeight() < cells.height) {
+            int width  = Math.max(cells.width,  this.visible == null ? 0 : this.visible.getWidth());
+            int height = Math.max(cells.height, this.visible == null ? 0 : this.visible.getHeight());
+            this.visible       = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            this.visiblePixels = ((DataBufferInt) this.visible.getRaster().getDataBuffer()).getData();
+        }
+
+        int stride = this.visible.getWidth();
+        for (int y = 0; y < cells.height; ++y) {
+            for (int x = 0; x < cells.width; ++x) {
+                this.visiblePixels[y * stride + x] = this.palette[this.grid.get(cells.x + x, cells.y + y)];
+            }
+        }
+
+        AffineTransform saved = g2d.getTransform();
+        g2d.transform(this.viewport.getTransform());
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2d.drawImage(this.visible,
+                      cells.x, cells.y, cells.x + cells.width, cells.y + cells.height,
+                      0, 0, cells.width, cells.height, null);
+        g2d.setTransform(saved);
+    }
+
+    /**
+     * Draw the part of an image with one pixel per drawn cell that is inside the clip, 
+     * through the viewport.
+     * 
+     * @param g2d Graphics2D to draw onto
+     * @param image BufferedImage to draw
+     * @param size length of one side of the board
+     * @param level int; each pixel of the image is a 2^level x 2^level block of cells
+     */
+    private void drawImage(Graphics2D g2d, BufferedImage image, int size, int level) {
+
+        // Only the cells under the clip need drawing.
+        Rectangle cells = this.visibleCells(g2d, size);
+        if (cells.isEmpty()) {
+            return;
+        }
+
+        int drawn = MipmapPyramid.sizeAt(size, level);
+        int fromX = cells.x >>> level;
+        int fromY = cells.y >>> level;
+        int toX   = Math.min(MipmapPyramid.sizeAt(cells.x + cells.width,  level), drawn);
+        int toY   = Math.min(MipmapPyramid.sizeAt(cells.y + cells.height, level), drawn);
+
+        AffineTransform saved = g2d.getTransform();
+        g2d.transform(this.viewport.getTransform());
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2d.drawImage(image, 
+                      fromX << level, fromY << level, toX << level, toY << level,
+                      fromX, fromY, toX, toY, null);
+        g2d.setTransform(saved);
+    }
+
+    /**
+     * Get the cells of the board under the clip, or under the whole panel if there is none.
+     */
+    private Rectangle visibleCells(Graphics2D g2d, int size) {
+        Rectangle clip = g2d.getClipBounds();
+        return this.viewport.cellsIn(clip != null ? clip : new Rectangle(this.getSize()), size);
+    }
+
+    /**
+     * Pan by dragging the board, and zoom around the cursor with the mouse wheel.
+     */
+    private void installViewport() {
+
+        this.resetViewport();
+
+        MouseAdapter mouse = new MouseAdapter() {
+
+            private Point last;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                this.last = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (this.last != null) {
+                    viewport.pan(e.getX() - this.last.x, e.getY() - this.last.y);
+                    repaint();
+                }
+                this.last = e.getPoint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                viewport.zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+                repaint();
+            }
+        };
+
+        this.addMouseListener(mouse);
+        this.addMouseMotionListener(mouse);
+        this.addMouseWheelListener(mouse);
+    }
+
     /**
      * Defines the default settings for the board.
      * 
      * Cell size is determined by the proportional sizes of the 
-     * screen and board.
+     * screen and board. A grid too large for half the screen is drawn
+     * one pixel per block, at the first level of the pyramid that fits.
      * 
      */
     private void setDefaults() {
         Toolkit toolkit = Toolkit.getDefaultToolkit();
         Dimension dim = toolkit.getScreenSize();
 
-        this.cellSize = (dim.width / 2) / this.board.length;
-        if (this.cellSize == 1) {
-            this.cellSize = 2; // Yes this is ugly, no I don't want to do all of the math yet
+        int length    = Math.max((this.grid != null) ? this.grid.getSize() : this.board.length, 1);
+        int available = Math.max(dim.width / 2, 1);
+
+        if (this.grid != null && length > available) {
+            this.level    = MipmapPyramid.levelFor(length, available);
+            this.cellSize = 1;
+        } else {
+            this.cellSize = Math.max(available / length, 1);
         }
 
     }
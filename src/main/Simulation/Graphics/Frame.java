@@ -0,0 +1,66 @@
+package Simulation.Graphics;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * One rendered picture of the board; an image with one pixel per cell, or per
+ * block of cells when the FrameBuffer draws a level of a MipmapPyramid.
+ *
+ * Frames are handed between the simulation thread and the Event Dispatch Thread
+ * by a FrameBuffer, which makes sure only one of them touches a frame at a time.
+ */
+public class Frame {
+
+    private final int           size;
+    private final BufferedImage image;
+    final int[]                 pixels;                    // The image's own raster.
+    final long[]                tileStamps;                // Sequence number of the frame each tile last changed in.
+
+    long tick;                                             // Tick of the Environment the frame shows.
+    volatile long sequence;                                // Number of frames published up to and including this one.
+
+    /**
+     * @param size length of one side of the image
+     * @param tiles number of tiles the image is split into
+     */
+    Frame(int size, int tiles) {
+        this.size       = size;
+        this.image      = new BufferedImage(Math.max(size, 1), Math.max(size, 1), BufferedImage.TYPE_INT_RGB);
+        this.pixels     = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+        this.tileStamps = new long[tiles];
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public BufferedImage getImage() {
+        return this.image;
+    }
+
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Get the number of frames published up to and including this one; 0 for a blank frame.
+     *
+     * @return long
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Get the sequence number of the frame the given tile last changed in.
+     *
+     * A tile whose stamp is greater than an older frame's sequence number differs from that frame.
+     *
+     * @param tile int of the tile, row-major, Board.TILE_SIZE cells to a side
+     * @return long
+     */
+    public long getTileStamp(int tile) {
+        return this.tileStamps[tile];
+    }
+}
@@ -0,0 +1,219 @@
+package Simulation.Graphics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import Simulation.Cells.Cell;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChangeSet;
+
+/**
+ * <p>Triple-buffered handoff of rendered frames from one producer thread to one consumer thread.</p>
+ *
+ * <p>The producer (the simulation thread) keeps its own up to date raster of the board. Each
+ * update() paints the cells a tick changed into it, and publish() copies the tiles that changed
+ * into the back frame and swaps it with the ready one. The consumer (the Event Dispatch Thread)
+ * calls acquire() to swap the ready frame with its front one whenever a newer one is waiting.</p>
+ *
+ * <p>Each of the three frames is owned by exactly one side at a time, and the only thing the
+ * two sides share is the atomic reference to the ready frame; neither ever waits for the other.
+ * If the producer is faster, frames the consumer never saw are simply overwritten.</p>
+ *
+ * <p>Made at a level above 0, the frames show that level of a MipmapPyramid, one pixel per
+ * 2^level x 2^level block of cells, and the producer keeps the pyramid instead of a raster.</p>
+ */
+public class FrameBuffer {
+
+    private final int       size;
+    private final int       level;
+    private final int       drawn;                         // Pixels to a side of every frame.
+    private final int       tiles;                         // Tiles to a side.
+
+    // Producer side.
+    private final MipmapPyramid pyramid;                   // Only when the level is above 0.
+    private final int[]     pixels;                        // Latest picture of the board.
+    private final long[]    tileStamps;                    // Sequence number of the frame each tile last changed in.
+    private final int[]     palette = new int[CellGrid.STATE_COUNT];
+    private final byte[]    row;
+    private long            sequence;                      // Number of frames published so far.
+    private Frame           back;
+
+    // Shared.
+    private final AtomicReference<Frame> ready;
+
+    // Consumer side.
+    private Frame           front;
+
+    /**
+     * Every frame starts out blank.
+     *
+     * @param size length of one side of the board
+     */
+    public FrameBuffer(int size) {
+        this(size, 0);
+    }
+
+    /**
+     * Every frame starts out blank.
+     *
+     * @param size length of one side of the board
+     * @param level int of at least 0; each pixel of a frame is a 2^level x 2^level block of cells
+     */
+    public FrameBuffer(int size, int level) {
+
+        if (level < 0) {
+            throw new IllegalArgumentException("Level must not be negative.");
+        }
+
+        this.size   = size;
+        this.level  = level;
+        this.drawn  = MipmapPyramid.sizeAt(size, level);
+        this.tiles  = (this.drawn + Board.TILE_SIZE - 1) / Board.TILE_SIZE;
+
+        if (level > 0) {
+            this.pyramid    = new MipmapPyramid(size, level);
+            this.pixels     = this.pyramid.getPixels(level);
+            this.row        = null;
+        } else {
+            this.pyramid    = null;
+            this.pixels     = new int[size * size];
+            this.row        = new byte[size];
+        }
+        this.tileStamps = new long[this.tiles * this.tiles];
+
+        for (byte state = 0; state < CellGrid.STATE_COUNT; ++state) {
+            this.palette[state] = Cell.forState(state).getColor().getRGB();
+        }
+
+        this.back   = new Frame(this.drawn, this.tileStamps.length);
+        this.ready  = new AtomicReference<Frame>(new Frame(this.drawn, this.tileStamps.length));
+        this.front  = new Frame(this.drawn, this.tileStamps.length);
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public int getLevel() {
+        return this.level;
+    }
+
+    /**
+     * Get the number of tiles along one side of a frame.
+     *
+     * @return int
+     */
+    public int getTiles() {
+        return this.tiles;
+    }
+
+    /**
+     * Paint the cells that changed into the producer's raster. Producer only.
+     *
+     * @param grid CellGrid the changes were made to
+     * @param changes ChangeSet of the cells that changed since the last update
+     */
+    public void update(CellGrid grid, ChangeSet changes) {
+
+        if (changes.isEverything()) {
+            this.redraw(grid);
+            return;
+        }
+
+        long stamp = this.sequence + 1;
+
+        for (int i = 0; i < changes.size(); ++i) {
+
+            long index = changes.get(i);
+            int x = grid.xOf(index);
+            int y = grid.yOf(index);
+
+            if (this.pyramid != null) {
+                this.pyramid.update(grid, index);
+            } else {
+                this.pixels[(int) index] = this.palette[grid.get(index)];
+            }
+            this.tileStamps[((y >>> this.level) / Board.TILE_SIZE) * this.tiles + (x >>> this.level) / Board.TILE_SIZE] = stamp;
+        }
+    }
+
+    /**
+     * Repaint the whole grid into the producer's raster. Producer only.
+     *
+     * @param grid CellGrid to paint
+     * @throws IllegalArgumentException if the grid is not the size of the frames
+     */
+    public void redraw(CellGrid grid) {
+
+        if (grid.getSize() != this.size) {
+            throw new IllegalArgumentException("Grid of size " + grid.getSize() + " does not fit frames of size " + this.size + ".");
+        }
+
+        if (this.pyramid != null) {
+            this.pyramid.redraw(grid);
+        } else {
+            for (int y = 0; y < this.size; ++y) {
+
+                grid.getRow(y, this.row);
+
+                int offset = y * this.size;
+                for (int x = 0; x < this.size; ++x) {
+                    this.pixels[offset + x] = this.palette[this.row[x]];
+                }
+            }
+        }
+
+        Arrays.fill(this.tileStamps, this.sequence + 1);
+    }
+
+    /**
+     * Bring the back frame up to date and make it the ready one. Producer only.
+     *
+     * Only the tiles that changed since the back frame was last published are copied.
+     *
+     * @param tick long of the tick the frame shows
+     */
+    public void publish(long tick) {
+
+        Frame frame = this.back;
+
+        for (int tile = 0; tile < this.tileStamps.length; ++tile) {
+
+            if (this.tileStamps[tile] <= frame.sequence) {
+                continue;
+            }
+
+            int fromX = (tile % this.tiles) * Board.TILE_SIZE;
+            int fromY = (tile / this.tiles) * Board.TILE_SIZE;
+            int width = Math.min(Board.TILE_SIZE, this.drawn - fromX);
+            int toY   = Math.min(fromY + Board.TILE_SIZE, this.drawn);
+
+            for (int y = fromY; y < toY; ++y) {
+                int offset = y * this.drawn + fromX;
+                System.arraycopy(this.pixels, offset, frame.pixels, offset, width);
+            }
+        }
+        System.arraycopy(this.tileStamps, 0, frame.tileStamps, 0, this.tileStamps.length);
+
+        frame.tick      = tick;
+        frame.sequence  = ++this.sequence;
+
+        this.back = this.ready.getAndSet(frame);
+    }
+
+    /**
+     * Take the newest published frame, if there is one newer than the current front frame. Consumer only.
+     *
+     * The frame returned stays untouched by the producer until the next call.
+     *
+     * @return the front Frame
+     */
+    public Frame acquire() {
+
+        // The producer only ever puts newer frames in, so whatever is swapped out is newer still.
+        if (this.ready.get().sequence > this.front.sequence) {
+            this.front = this.ready.getAndSet(this.front);
+        }
+        return this.front;
+    }
+}
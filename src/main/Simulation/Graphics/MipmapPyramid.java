@@ -0,0 +1,405 @@
+package Simulation.Graphics;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+import Simulation.Cells.Cell;
+import Simulation.Grid.CellGrid;
+
+/**
+ * <p>Downsampled pictures of the board for zoomed out views, kept up to date cell by cell.</p>
+ *
+ * <p>Level k of the pyramid has one pixel per 2^k x 2^k block of cells, so level 1 is half
+ * the width of the board, level 2 a quarter, and so on. Drawing a board that is larger than the
+ * screen then costs as much as the level that fits, rather than as much as the board.</p>
+ *
+ * <p>Every block keeps a count of its cells in each state. Its pixel shows the most common state
+ * that isn't burning, blended toward the BurningCell color by the square root of the fraction
+ * that is, so a small fire still shows however far out the view is. A changed cell only recounts
+ * the 2 x 2 block it is in, from the grid itself, and moves the difference up through one block
+ * and one pixel per level.</p>
+ *
+ * <p>Each level counts in the narrowest type that holds a whole block: a byte per state up to
+ * level 3, then a char, an int and a long. Level 1 then takes up a byte per cell of the board,
+ * and its picture another; the levels above add a third as much again between them.</p>
+ */
+public class MipmapPyramid {
+
+    private static final long MAX_ARRAY = Integer.MAX_VALUE - 8;
+
+    private final int               size;
+    private final int               levels;
+
+    private final Counts[]          counts;                 // [level], of block * STATE_COUNT + state; none for level 0.
+    private final long[]            delta = new long[CellGrid.STATE_COUNT];
+    private final BufferedImage[]   images;
+    private final int[][]           pixels;                 // The images' own rasters.
+
+    private final int[]             palette = new int[CellGrid.STATE_COUNT];
+
+    /**
+     * Every cell starts out as a GrassCell.
+     *
+     * @param size length of one side of the board
+     * @param levels int of at least 1; the most zoomed out level to keep
+     * @throws IllegalArgumentException if level 1 of the board has too many blocks to hold in an array
+     */
+    public MipmapPyramid(int size, int levels) {
+
+        if (levels < 1) {
+            throw new IllegalArgumentException("A pyramid needs at least one level.");
+        }
+
+        long blocks = (long) sizeAt(size, 1) * sizeAt(size, 1);
+        if (blocks * CellGrid.STATE_COUNT > MAX_ARRAY) {
+            throw new IllegalArgumentException("Board of size " + size + " is too large for a MipmapPyramid; "
+                                             + "level 1 would have " + blocks + " blocks.");
+        }
+
+        this.size   = size;
+        this.levels = levels;
+        this.counts = new Counts[levels + 1];
+        this.images = new BufferedImage[levels + 1];
+        this.pixels = new int[levels + 1][];
+
+        for (byte state = 0; state < CellGrid.STATE_COUNT; ++state) {
+            this.palette[state] = Cell.forState(state).getColor().getRGB();
+        }
+
+        for (int level = 1; level <= levels; ++level) {
+            int side = sizeAt(size, level);
+            long cells = Math.min(1L << (2 * Math.min(level, 31)), (long) size * size);   // Most cells a block can hold.
+            this.counts[level] = Counts.of(side * side * CellGrid.STATE_COUNT, cells);
+            this.images[level] = new BufferedImage(Math.max(side, 1), Math.max(side, 1), BufferedImage.TYPE_INT_RGB);
+            this.pixels[level] = ((DataBufferInt) this.images[level].getRaster().getDataBuffer()).getData();
+        }
+
+        this.clear();
+    }
+
+    /**
+     * Get the number of blocks along one side of the given level of a board.
+     *
+     * @param size length of one side of the board
+     * @param level int of at least 0
+     * @return int
+     */
+    public static int sizeAt(int size, int level) {
+        return (int) (((long) size + (1L << level) - 1) >>> level);
+    }
+
+    /**
+     * Get the first level of a board that is at most the given number of pixels wide.
+     *
+     * @param size length of one side of the board
+     * @param pixels int of at least 1
+     * @return int
+     */
+    public static int levelFor(int size, int pixels) {
+        int level = 0;
+        while (sizeAt(size, level) > pixels) {
+            level++;
+        }
+        return level;
+    }
+
+    public int getLevels() {
+        return this.levels;
+    }
+
+    /**
+     * Get the number of blocks along one side of the given level.
+     *
+     * @param level int between 0 and getLevels()
+     * @return int
+     */
+    public int getSize(int level) {
+        return sizeAt(this.size, level);
+    }
+
+    /**
+     * Get the picture of the given level; one pixel per block.
+     *
+     * @param level int between 1 and getLevels()
+     * @return BufferedImage updated in place
+     */
+    public BufferedImage getImage(int level) {
+        return this.images[level];
+    }
+
+    int[] getPixels(int level) {
+        return this.pixels[level];
+    }
+
+    /**
+     * Rebuild every level from the whole grid.
+     *
+     * @param grid CellGrid to picture
+     * @throws IllegalArgumentException if the grid is not the size of the pyramid
+     */
+    public void redraw(CellGrid grid) {
+
+        if (grid.getSize() != this.size) {
+            throw new IllegalArgumentException("Grid of size " + grid.getSize() + " does not fit a pyramid of size " + this.size + ".");
+        }
+
+        byte[] row   = new byte[this.size];
+        Counts first = this.counts[1];
+        int    side  = this.getSize(1);
+
+        first.clear();
+        for (int y = 0; y < this.size; ++y) {
+            grid.getRow(y, row);
+            for (int x = 0; x < this.size; ++x) {
+                first.add(((y >>> 1) * side + (x >>> 1)) * CellGrid.STATE_COUNT + row[x], 1);
+            }
+        }
+
+        // Every block of a level is the sum of the four blocks under it.
+        for (int level = 2; level <= this.levels; ++level) {
+
+            Counts below     = this.counts[level - 1];
+            int    belowSide = this.getSize(level - 1);
+            Counts counts    = this.counts[level];
+            int    levelSide = this.getSize(level);
+
+            counts.clear();
+            for (int y = 0; y < belowSide; ++y) {
+                for (int x = 0; x < belowSide; ++x) {
+                    int from = (y * belowSide + x) * CellGrid.STATE_COUNT;
+                    int to   = ((y >>> 1) * levelSide + (x >>> 1)) * CellGrid.STATE_COUNT;
+                    for (int state = 0; state < CellGrid.STATE_COUNT; ++state) {
+                        counts.add(to + state, below.get(from + state));
+                    }
+                }
+            }
+        }
+
+        for (int level = 1; level <= this.levels; ++level) {
+            int blocks = this.getSize(level) * this.getSize(level);
+            for (int block = 0; block < blocks; ++block) {
+                this.pixels[level][block] = this.color(this.counts[level], block);
+            }
+        }
+    }
+
+    /**
+     * Bring every level up to date with one cell of the grid.
+     *
+     * The 2 x 2 block the cell is in is counted again from the grid, so a cell reported
+     * twice, or along with the others of its block, is only ever counted once.
+     *
+     * @param grid CellGrid the cell changed on
+     * @param index flat index of the cell
+     */
+    public void update(CellGrid grid, long index) {
+
+        int x = grid.xOf(index) & ~1;
+        int y = grid.yOf(index) & ~1;
+
+        Arrays.fill(this.delta, 0);
+        for (int j = y; j < Math.min(y + 2, this.size); ++j) {
+            for (int i = x; i < Math.min(x + 2, this.size); ++i) {
+                this.delta[grid.get(i, j)]++;
+            }
+        }
+
+        int  first   = (y >>> 1) * this.getSize(1) + (x >>> 1);
+        boolean same = true;
+        for (int state = 0; state < CellGrid.STATE_COUNT; ++state) {
+            this.delta[state] -= this.counts[1].get(first * CellGrid.STATE_COUNT + state);
+            same &= this.delta[state] == 0;
+        }
+        if (same) {
+            return;
+        }
+
+        for (int level = 1; level <= this.levels; ++level) {
+
+            int    block  = (y >>> level) * this.getSize(level) + (x >>> level);
+            Counts counts = this.counts[level];
+
+            for (int state = 0; state < CellGrid.STATE_COUNT; ++state) {
+                if (this.delta[state] != 0) {
+                    counts.add(block * CellGrid.STATE_COUNT + state, this.delta[state]);
+                }
+            }
+            this.pixels[level][block] = this.color(counts, block);
+        }
+    }
+
+    /**
+     * Picture of an all grass board.
+     */
+    private void clear() {
+        for (int level = 1; level <= this.levels; ++level) {
+
+            int side = this.getSize(level);
+            for (int y = 0; y < side; ++y) {
+                for (int x = 0; x < side; ++x) {
+                    // Blocks on the far edges hang off the board and hold fewer cells.
+                    long width  = Math.min(1L << level, this.size - ((long) x << level));
+                    long height = Math.min(1L << level, this.size - ((long) y << level));
+                    this.counts[level].add((y * side + x) * CellGrid.STATE_COUNT + CellGrid.GRASS, width * height);
+                }
+            }
+            Arrays.fill(this.pixels[level], this.palette[CellGrid.GRASS]);
+        }
+    }
+
+    /**
+     * Color of a block from its counts.
+     */
+    private int color(Counts counts, int block) {
+
+        int  offset  = block * CellGrid.STATE_COUNT;
+        long burning = counts.get(offset + CellGrid.BURNING);
+        long total   = burning;
+
+        int common = -1;
+        for (int state = 0; state < CellGrid.STATE_COUNT; ++state) {
+            if (state == CellGrid.BURNING) {
+                continue;
+            }
+            total += counts.get(offset + state);
+            if (common < 0 || counts.get(offset + state) > counts.get(offset + common)) {
+                common = state;
+            }
+        }
+
+        if (burning == 0) {
+            return this.palette[common];
+        }
+        if (burning == total) {
+            return this.palette[CellGrid.BURNING];
+        }
+
+        return blend(this.palette[common], this.palette[CellGrid.BURNING], Math.sqrt((double) burning / total));
+    }
+
+    /**
+     * Mix two RGB colors, channel by channel.
+     *
+     * @param weight double between 0 (all of from) and 1 (all of to)
+     */
+    private static int blend(int from, int to, double weight) {
+
+        int rgb = 0xFF000000;
+        for (int shift = 0; shift < 24; shift += 8) {
+            int a = (from >>> shift) & 0xFF;
+            int b = (to   >>> shift) & 0xFF;
+            rgb |= (int) Math.round(a + (b - a) * weight) << shift;
+        }
+        return rgb;
+    }
+
+    /**
+     * Counts of one level, in the narrowest array that holds the most cells a block can have.
+     */
+    private abstract static class Counts {
+
+        abstract long get(int i);
+
+        abstract void add(int i, long amount);
+
+        abstract void clear();
+
+        static Counts of(int length, long most) {
+            if (most <= 0xFF) {
+                return new ByteCounts(length);
+            }
+            if (most <= Character.MAX_VALUE) {
+                return new CharCounts(length);
+            }
+            if (most <= Integer.MAX_VALUE) {
+                return new IntCounts(length);
+            }
+            return new LongCounts(length);
+        }
+    }
+
+    private static final class ByteCounts extends Counts {
+
+        private final byte[] counts;
+
+        ByteCounts(int length) {
+            this.counts = new byte[length];
+        }
+
+        long get(int i) {
+            return this.counts[i] & 0xFF;
+        }
+
+        void add(int i, long amount) {
+            this.counts[i] += amount;
+        }
+
+        void clear() {
+            Arrays.fill(this.counts, (byte) 0);
+        }
+    }
+
+    private static final class CharCounts extends Counts {
+
+        private final char[] counts;
+
+        CharCounts(int length) {
+            this.counts = new char[length];
+        }
+
+        long get(int i) {
+            return this.counts[i];
+        }
+
+        void add(int i, long amount) {
+            this.counts[i] += amount;
+        }
+
+        void clear() {
+            Arrays.fill(this.counts, (char) 0);
+        }
+    }
+
+    private static final class IntCounts extends Counts {
+
+        private final int[] counts;
+
+        IntCounts(int length) {
+            this.counts = new int[length];
+        }
+
+        long get(int i) {
+            return this.counts[i];
+        }
+
+        void add(int i, long amount) {
+            this.counts[i] += amount;
+        }
+
+        void clear() {
+            Arrays.fill(this.counts, 0);
+        }
+    }
+
+    private static final class LongCounts extends Counts {
+
+        private final long[] counts;
+
+        LongCounts(int length) {
+            this.counts = new long[length];
+        }
+
+        long get(int i) {
+            return this.counts[i];
+        }
+
+        void add(int i, long amount) {
+            this.counts[i] += amount;
+        }
+
+        void clear() {
+            Arrays.fill(this.counts, 0);
+        }
+    }
+}
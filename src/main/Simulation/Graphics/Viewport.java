@@ -0,0 +1,163 @@
+package Simulation.Graphics;
+
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+
+/**
+ * <p>Which part of the board a Board shows, and how large.</p>
+ *
+ * <p>The view is a scale, in pixels per cell of the board, and the cell of the board at the top
+ * left corner of the panel; both can be fractional. getTransform() takes cells of the board to
+ * pixels of the panel, so anything drawn in cells through it lands where the view says.</p>
+ *
+ * <p>Ex:</p>
+ * <p><blockquote><pre>
+ *      Viewport view = new Viewport(2, .25, 64);
+ *      view.zoom(4, 100, 100);                         // The cell under (100, 100) stays put.
+ *      Rectangle cells = view.cellsIn(clip, size);     // Cells of the board under the clip.
+ * </pre></blockquote></p>
+ */
+public class Viewport {
+
+    private final double minScale;
+    private final double maxScale;
+
+    private double scale;
+    private double originX;                                // Cell of the board at the left edge of the panel.
+    private double originY;                                // Cell of the board at the top edge of the panel.
+
+    /**
+     * The view starts with the top left cell of the board in the top left corner.
+     *
+     * @param scale double of pixels per cell
+     * @param minScale double; the farthest out zoom() goes
+     * @param maxScale double; the farthest in zoom() goes
+     */
+    public Viewport(double scale, double minScale, double maxScale) {
+
+        if (!(minScale > 0) || minScale > maxScale) {
+            throw new IllegalArgumentException("Scales must be positive, and the smallest no larger than the largest.");
+        }
+
+        this.minScale = minScale;
+        this.maxScale = maxScale;
+        this.scale    = this.clamp(scale);
+    }
+
+    public double getScale() {
+        return this.scale;
+    }
+
+    public double getOriginX() {
+        return this.originX;
+    }
+
+    public double getOriginY() {
+        return this.originY;
+    }
+
+    /**
+     * Put the given cell of the board in the top left corner of the panel.
+     *
+     * @param x double of the cell's x position
+     * @param y double of the cell's y position
+     */
+    public void setOrigin(double x, double y) {
+        this.originX = x;
+        this.originY = y;
+    }
+
+    /**
+     * Move the board along with the mouse.
+     *
+     * @param dx double of pixels to move right
+     * @param dy double of pixels to move down
+     */
+    public void pan(double dx, double dy) {
+        this.originX -= dx / this.scale;
+        this.originY -= dy / this.scale;
+    }
+
+    /**
+     * Scale the view by the given factor, keeping the cell under the given pixel where it is.
+     *
+     * @param factor double; above 1 zooms in
+     * @param x double of the pixel's x position on the panel
+     * @param y double of the pixel's y position on the panel
+     */
+    public void zoom(double factor, double x, double y) {
+
+        double cellX = this.originX + x / this.scale;
+        double cellY = this.originY + y / this.scale;
+
+        this.scale   = this.clamp(this.scale * factor);
+        this.originX = cellX - x / this.scale;
+        this.originY = cellY - y / this.scale;
+    }
+
+    /**
+     * Get the transform from cells of the board to pixels of the panel.
+     *
+     * @return AffineTransform
+     */
+    public AffineTransform getTransform() {
+        AffineTransform transform = AffineTransform.getScaleInstance(this.scale, this.scale);
+        transform.translate(-this.originX, -this.originY);
+        return transform;
+    }
+
+    /**
+     * Get the cells of the board that are at least partly under the given pixels.
+     *
+     * @param pixels Rectangle of the panel
+     * @param size length of one side of the board
+     * @return Rectangle of cells, empty if none of the board is under the pixels
+     */
+    public Rectangle cellsIn(Rectangle pixels, int size) {
+
+        int fromX = (int) Math.max(Math.floor(this.originX + pixels.x / this.scale), 0);
+        int fromY = (int) Math.max(Math.floor(this.originY + pixels.y / this.scale), 0);
+        int toX   = (int) Math.min(Math.ceil(this.originX + (pixels.x + pixels.width)  / this.scale), size);
+        int toY   = (int) Math.min(Math.ceil(this.originY + (pixels.y + pixels.height) / this.scale), size);
+
+        if (fromX >= toX || fromY >= toY) {
+            return new Rectangle();
+        }
+        return new Rectangle(fromX, fromY, toX - fromX, toY - fromY);
+    }
+
+    /**
+     * Get the pixels of the panel the given cells of the board cover, rounded outward.
+     *
+     * @param cells Rectangle of cells
+     * @return Rectangle of pixels, which may lie partly or wholly off the panel
+     */
+    public Rectangle pixelsOf(Rectangle cells) {
+
+        int fromX = (int) Math.floor((cells.x - this.originX) * this.scale);
+        int fromY = (int) Math.floor((cells.y - this.originY) * this.scale);
+        int toX   = (int) Math.ceil((cells.x + cells.width  - this.originX) * this.scale);
+        int toY   = (int) Math.ceil((cells.y + cells.height - this.originY) * this.scale);
+
+        return new Rectangle(fromX, fromY, toX - fromX, toY - fromY);
+    }
+
+    /**
+     * Get the finest level of a MipmapPyramid whose blocks are no larger than a pixel,
+     * which is the coarsest that still shows every pixel's worth of detail.
+     *
+     * @param levels int of the most zoomed out level there is
+     * @return int between 0 and levels
+     */
+    public int levelFor(int levels) {
+        int level = 0;
+        while (level < levels && (double) (1L << (level + 1)) * this.scale <= 1) {
+            level++;
+        }
+        return level;
+    }
+
+    private double clamp(double scale) {
+        return Math.min(Math.max(scale, this.minScale), this.maxScale);
+    }
+}
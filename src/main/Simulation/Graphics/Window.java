@@ -19,6 +19,7 @@ import java.util.EventListener;
 
 import Simulation.Graphics.Board;
 import Simulation.Graphics.DriverControls;
+import Simulation.Grid.CellGrid;
 
 /**
  * Container class for all of the graphics. 
@@ -40,6 +41,22 @@ public class Window extends JPanel implements ActionListener, ChangeListener {
     public DriverControls controls;
 
     public Window(Object[][] board) {
+        this.build(new Board(board));
+    }
+
+    /**
+     * Build the window around a board that paints the given grid of cell states.
+     * 
+     * @param grid CellGrid to paint
+     */
+    public Window(CellGrid grid) {
+        this.build(new Board(grid));
+    }
+
+    /**
+     * Lay out the window with the given board and the controls, and show it.
+     */
+    private void build(Board board) {
 
         // Load configuration
         this.loadDefaultConfig();                                           // Load the default config.
@@ -58,7 +75,7 @@ public class Window extends JPanel implements ActionListener, ChangeListener {
         this.setLayout(this.layout);
 
         // Initialize and add the board to the content panel.
-        this.board = new Board(board);                                      // Initialize the board.
+        this.board = board;                                                 // Initialize the board.
         this.add(this.board);                                               // Add the board to the window.
 
         this.controls = new DriverControls();                               // Initialize the controls.
@@ -0,0 +1,176 @@
+package Simulation.Grid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * <p>Grid backend stored as two bit-planes, 64 cells to a long per plane.</p>
+ *
+ * <p>Each row is padded out to whole words, and the high and low word of every 64 cells sit
+ * next to each other (see CellGrid.getRowPlanes() for what the planes hold). That makes
+ * reading a row's planes a plain copy, which is what SteppingMode.BITBOARD runs on.
+ * It costs as much memory as a PackedGrid, give or take the padding.</p>
+ *
+ * <p>setNext() updates each plane's word with a compare-and-set, so threads writing different
+ * cells of the same word don't lose each other's writes. The two planes are not written
+ * together, which is enough since a tick only ever races writes of the same state to the same cell.</p>
+ */
+public class BitGrid extends CellGrid {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int rowWords;
+
+    private long[] cells;                                   // High and low word of every 64 cells, interleaved.
+    private long[] transitions;
+
+    /**
+     * Every cell starts as a GrassCell.
+     *
+     * @param size integer length of one side of the board
+     */
+    public BitGrid(int size) {
+        super(size);
+
+        this.rowWords = this.getRowWords();
+
+        long words = 2L * size * this.rowWords;
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board of size " + size + " is too large for a BitGrid.");
+        }
+
+        this.cells          = new long[(int) words];
+        this.transitions    = new long[(int) words];
+    }
+
+    @Override
+    public byte get(long index) {
+        return read(this.cells, this.word(index), bit(index, this.size));
+    }
+
+    @Override
+    public byte getNext(long index) {
+        return read(this.transitions, this.word(index), bit(index, this.size));
+    }
+
+    @Override
+    public byte setNext(long index, byte state) {
+
+        int word = this.word(index);
+        int bit  = bit(index, this.size);
+
+        int high = setBit(this.transitions, word, bit, state >>> 1);
+        int low  = setBit(this.transitions, word + 1, bit, state & 1);
+
+        return (byte) ((high << 1) | low);
+    }
+
+    @Override
+    public void put(long index, byte state) {
+
+        int  word = this.word(index);
+        long mask = 1L << bit(index, this.size);
+
+        long high = (state >>> 1) != 0 ? mask : 0;
+        long low  = (state & 1)   != 0 ? mask : 0;
+
+        this.cells[word]            = (this.cells[word] & ~mask) | high;
+        this.cells[word + 1]        = (this.cells[word + 1] & ~mask) | low;
+        this.transitions[word]      = (this.transitions[word] & ~mask) | high;
+        this.transitions[word + 1]  = (this.transitions[word + 1] & ~mask) | low;
+    }
+
+    @Override
+    public void getRow(int y, byte[] states) {
+
+        int first = 2 * y * this.rowWords;
+
+        for (int x = 0; x < this.size; ++x) {
+            int word = first + ((x >>> 6) << 1);
+            states[x] = (byte) ((((this.cells[word] >>> x) & 1) << 1) | ((this.cells[word + 1] >>> x) & 1));
+        }
+    }
+
+    /**
+     * The planes are stored as they are read, so each word is a straight copy.
+     */
+    @Override
+    public void getRowPlanes(int y, long[] high, long[] low) {
+
+        int first = 2 * y * this.rowWords;
+
+        for (int w = 0; w < this.rowWords; ++w) {
+            high[w] = this.cells[first + 2 * w];
+            low[w]  = this.cells[first + 2 * w + 1];
+        }
+    }
+
+    /**
+     * Fill both buffers with the given state.
+     */
+    public void fill(byte state) {
+
+        long last = this.size % Long.SIZE == 0 ? -1L : (1L << this.size) - 1;   // Keep the padding clear.
+
+        for (int y = 0; y < this.size; ++y) {
+            for (int w = 0; w < this.rowWords; ++w) {
+                long mask = (w == this.rowWords - 1) ? last : -1L;
+                int  word = 2 * (y * this.rowWords + w);
+                this.cells[word]     = (state >>> 1) != 0 ? mask : 0;
+                this.cells[word + 1] = (state & 1)   != 0 ? mask : 0;
+            }
+        }
+        System.arraycopy(this.cells, 0, this.transitions, 0, this.cells.length);
+    }
+
+    @Override
+    public void prepareNext() {
+        System.arraycopy(this.cells, 0, this.transitions, 0, this.cells.length);
+    }
+
+    @Override
+    public void swap() {
+        long[] temp         = this.cells;
+        this.cells          = this.transitions;
+        this.transitions    = temp;
+    }
+
+    /**
+     * Position of the high word of the cell's 64 in the buffers.
+     */
+    private int word(long index) {
+        long y = index / this.size;
+        int  x = (int) (index - y * this.size);
+        return (int) (2 * (y * this.rowWords + (x >>> 6)));
+    }
+
+    /**
+     * Position of the cell within its words.
+     */
+    private static int bit(long index, int size) {
+        return (int) (index % size) & (Long.SIZE - 1);
+    }
+
+    private static byte read(long[] words, int word, int bit) {
+        return (byte) ((((words[word] >>> bit) & 1) << 1) | ((words[word + 1] >>> bit) & 1));
+    }
+
+    /**
+     * Set one bit of a word atomically.
+     *
+     * @return int of the bit before
+     */
+    private static int setBit(long[] words, int word, int bit, int value) {
+
+        long mask = 1L << bit;
+
+        long current;
+        long updated;
+        do {
+            current = (long) WORDS.getOpaque(words, word);
+            updated = value != 0 ? current | mask : current & ~mask;
+        } while (current != updated && !WORDS.compareAndSet(words, word, current, updated));
+
+        return (int) ((current >>> bit) & 1);
+    }
+}
@@ -0,0 +1,17 @@
+package Simulation.Grid;
+
+/**
+ * <p>What a BurningCell at the edge of the board sees past it.</p>
+ *
+ * <ol>
+ * <li>CLAMPED:   nothing; the fire stops at the edge, as if the board were walled in with stone.</li>
+ * <li>TOROIDAL:  the opposite edge; the board wraps around, left to right and top to bottom.</li>
+ * <li>ABSORBING: grass that never changes; the fire can spread off the edge, and a BurningCell
+ *                that sets it alight uses up its one ignition for the tick on it.</li>
+ * </ol>
+ */
+public enum Boundary {
+    CLAMPED,
+    TOROIDAL,
+    ABSORBING
+}
@@ -0,0 +1,271 @@
+package Simulation.Grid;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>Abstract storage for the state of every cell on the board.</p>
+ *
+ * <p>A grid does not hold Cell objects. Each position holds a single state
+ * code (see the constants below), and the grid keeps two buffers of them: the
+ * "live" buffer that is read during a tick, and the "next" buffer that the
+ * transition protocols write into. Calling swap() makes the next buffer live.</p>
+ *
+ * <p>Cells are addressed by a flat index, index = y * size + x, so the
+ * stepping code never has to deal with 2D arrays.</p>
+ */
+public abstract class CellGrid {
+
+    public static final byte GRASS   = 0;
+    public static final byte STONE   = 1;
+    public static final byte BURNING = 2;
+    public static final byte BURNT   = 3;
+
+    /**
+     * Number of distinct states a cell can be in.
+     */
+    public static final int STATE_COUNT = 4;
+
+    /**
+     * Number of cells to a long in the packed form of a board; two bits each.
+     */
+    public static final int CELLS_PER_WORD = 32;
+
+    protected final int size;
+
+    /**
+     * @param size integer length of one side of the board
+     */
+    protected CellGrid(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Grid size must not be negative.");
+        }
+        this.size = size;
+    }
+
+    /**
+     * Get the length of one side of the board.
+     *
+     * @return int
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Get the total number of cells on the board.
+     *
+     * @return long
+     */
+    public long getCellCount() {
+        return (long) this.size * this.size;
+    }
+
+    /**
+     * Convert an (x, y) position to a flat index.
+     *
+     * @param x int of the x position
+     * @param y int of the y position
+     * @return flat index of the cell
+     */
+    public long index(int x, int y) {
+        return (long) y * this.size + x;
+    }
+
+    /**
+     * Get the x position of the given flat index.
+     */
+    public int xOf(long index) {
+        return (int) (index % this.size);
+    }
+
+    /**
+     * Get the y position of the given flat index.
+     */
+    public int yOf(long index) {
+        return (int) (index / this.size);
+    }
+
+    /**
+     * Get the live state of the cell at (x, y).
+     */
+    public byte get(int x, int y) {
+        return this.get(this.index(x, y));
+    }
+
+    /**
+     * Set the cell at (x, y) to the given state in both buffers.
+     */
+    public void put(int x, int y, byte state) {
+        this.put(this.index(x, y), state);
+    }
+
+    /**
+     * Copy the live states of row y into the given array.
+     *
+     * Backends override this when they can read a whole row faster than cell by cell.
+     *
+     * @param y int of the row
+     * @param states array of at least getSize() entries
+     */
+    public void getRow(int y, byte[] states) {
+        long start = this.index(0, y);
+        for (int x = 0; x < this.size; ++x) {
+            states[x] = this.get(start + x);
+        }
+    }
+
+    /**
+     * Get the number of longs a row takes up as a bit-plane; one bit per cell.
+     *
+     * @return int
+     */
+    public int getRowWords() {
+        return (this.size + Long.SIZE - 1) >>> 6;
+    }
+
+    /**
+     * <p>Copy the live states of row y into two bit-planes, 64 cells to a long.</p>
+     *
+     * <p>The cell at x takes up bit x % 64 of word x / 64 in both planes. The high plane
+     * holds bit 1 of its state, set for BURNING and BURNT, and the low plane holds bit 0,
+     * set for STONE and BURNT. Bits of the last word past the end of the row are cleared.</p>
+     *
+     * Backends override this when they can read a whole row faster than cell by cell.
+     *
+     * @param y int of the row
+     * @param high array of at least getRowWords() entries
+     * @param low array of at least getRowWords() entries
+     */
+    public void getRowPlanes(int y, long[] high, long[] low) {
+
+        int words = this.getRowWords();
+        Arrays.fill(high, 0, words, 0);
+        Arrays.fill(low, 0, words, 0);
+
+        long start = this.index(0, y);
+        for (int x = 0; x < this.size; ++x) {
+            byte state = this.get(start + x);
+            high[x >>> 6] |= (long) (state >>> 1) << x;
+            low[x >>> 6]  |= (long) (state & 1) << x;
+        }
+    }
+
+    /**
+     * Add the flat index of every burning and burnt cell to the given list; 
+     * the only cells that change on their own.
+     *
+     * Backends override this when they know parts of the board can't hold any.
+     *
+     * @param cells IndexList to add to
+     */
+    public void addActiveCells(IndexList cells) {
+        long count = this.getCellCount();
+        for (long index = 0; index < count; ++index) {
+            byte state = this.get(index);
+            if (state == BURNING || state == BURNT) {
+                cells.add(index);
+            }
+        }
+    }
+
+    /**
+     * Get the number of longs the board takes up in packed form.
+     *
+     * @return long
+     */
+    public long getPackedLength() {
+        return (this.getCellCount() + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+    }
+
+    /**
+     * <p>Copy the live states into the given buffer in packed form, starting at the given word,
+     * until the buffer is full or the board runs out.</p>
+     *
+     * <p>In packed form, the cell at index i takes up bits 2(i % 32) and 2(i % 32) + 1 of
+     * word i / 32. Any bits of the last word past the end of the board are ignored.</p>
+     *
+     * Backends override this when they can copy whole words at once.
+     *
+     * @param firstWord long of the first word to copy
+     * @param words LongBuffer to copy into
+     */
+    public void exportPacked(long firstWord, LongBuffer words) {
+
+        long count = Math.min(words.remaining(), this.getPackedLength() - firstWord);
+
+        for (long word = firstWord; word < firstWord + count; ++word) {
+
+            long bits  = 0;
+            long first = word * CELLS_PER_WORD;
+            long last  = Math.min(first + CELLS_PER_WORD, this.getCellCount());
+
+            for (long index = first; index < last; ++index) {
+                bits |= (long) this.get(index) << ((index - first) << 1);
+            }
+            words.put(bits);
+        }
+    }
+
+    /**
+     * Set the cells to the packed states in the given buffer, in both buffers of the grid, 
+     * starting at the given word, until the buffer is empty or the board runs out.
+     *
+     * @param firstWord long of the first word to copy
+     * @param words LongBuffer to copy from
+     * @see #exportPacked(long, LongBuffer)
+     */
+    public void importPacked(long firstWord, LongBuffer words) {
+
+        long count = Math.min(words.remaining(), this.getPackedLength() - firstWord);
+
+        for (long word = firstWord; word < firstWord + count; ++word) {
+
+            long bits  = words.get();
+            long first = word * CELLS_PER_WORD;
+            long last  = Math.min(first + CELLS_PER_WORD, this.getCellCount());
+
+            for (long index = first; index < last; ++index) {
+                this.put(index, (byte) ((bits >>> ((index - first) << 1)) & 0b11L));
+            }
+        }
+    }
+
+    /**
+     * Get the live state of the cell at the given index.
+     */
+    public abstract byte get(long index);
+
+    /**
+     * Get the pending state of the cell at the given index.
+     */
+    public abstract byte getNext(long index);
+
+    /**
+     * Set the pending state of the cell at the given index.
+     *
+     * Must be atomic, since a parallel tick writes into the next buffer from every
+     * worker and two BurningCells may set the same neighbor alight at once.
+     *
+     * @return the pending state the cell had before
+     */
+    public abstract byte setNext(long index, byte state);
+
+    /**
+     * Set the cell at the given index to the given state in both buffers.
+     *
+     * Used for anything that happens outside of a tick (loading, arson, etc...).
+     */
+    public abstract void put(long index, byte state);
+
+    /**
+     * Copy the live buffer into the next buffer so a tick only has to write
+     * the cells that actually change.
+     */
+    public abstract void prepareNext();
+
+    /**
+     * Make the next buffer live.
+     */
+    public abstract void swap();
+}
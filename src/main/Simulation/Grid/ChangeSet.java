@@ -0,0 +1,94 @@
+package Simulation.Grid;
+
+/**
+ * <p>The cells that changed state over a tick.</p>
+ * 
+ * <p>Either a list of flat indices, or, when too much of the board changed for 
+ * a list to be worth keeping (a reload, for instance), simply "everything".</p>
+ */
+public class ChangeSet {
+
+    private final IndexList indices = new IndexList();
+    private final long      limit;                         // Past this many changes, everything is marked.
+    private boolean         everything;
+
+    /**
+     * @param cellCount number of cells on the board the changes are for
+     */
+    public ChangeSet(long cellCount) {
+        this.limit = Math.max(cellCount / 4, 64);
+    }
+
+    /**
+     * Record a changed cell.
+     * 
+     * @param index flat index of the cell
+     */
+    public void add(long index) {
+
+        if (this.everything) {
+            return;
+        }
+        if (this.indices.size() >= this.limit) {
+            this.markEverything();
+            return;
+        }
+        this.indices.add(index);
+    }
+
+    /**
+     * Record every change of another set in this one.
+     * 
+     * @param other ChangeSet to merge in
+     */
+    public void addAll(ChangeSet other) {
+
+        if (other.everything) {
+            this.markEverything();
+            return;
+        }
+        for (int i = 0; i < other.size(); ++i) {
+            this.add(other.get(i));
+        }
+    }
+
+    /**
+     * Record that every cell on the board may have changed.
+     */
+    public void markEverything() {
+        this.everything = true;
+        this.indices.clear();
+    }
+
+    /**
+     * @return true if every cell on the board may have changed
+     */
+    public boolean isEverything() {
+        return this.everything;
+    }
+
+    /**
+     * Get the number of listed changes; 0 when everything changed.
+     * 
+     * @return int
+     */
+    public int size() {
+        return this.indices.size();
+    }
+
+    /**
+     * Get the flat index of the i-th changed cell.
+     */
+    public long get(int i) {
+        return this.indices.get(i);
+    }
+
+    public boolean isEmpty() {
+        return !this.everything && this.indices.isEmpty();
+    }
+
+    public void clear() {
+        this.everything = false;
+        this.indices.clear();
+    }
+}
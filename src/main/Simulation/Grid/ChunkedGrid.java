@@ -0,0 +1,270 @@
+package Simulation.Grid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import Simulation.Random.SplitMixSource;
+
+/**
+ * <p>Sparse grid backend for very large boards; only the tiles something was written to take up memory.</p>
+ *
+ * <p>The board is cut into TILE_SIZE x TILE_SIZE tiles. Until a cell of a tile is written, the tile
+ * has no storage and all of its cells read as the terrain: GrassCells and StoneCells drawn from a
+ * seeded hash of each cell's index, so any cell of an untouched tile can be worked out on its own.
+ * The first write to a tile, in either buffer, materializes it from the terrain. Every untouched tile
+ * shares that one terrain, however many of them there are.</p>
+ *
+ * <p>A fire only ever writes the tiles it reaches, so the memory of a run follows the burnt area
+ * rather than the board; a 100,000 x 100,000 board costs 10MB of tile directory, and 8KB per
+ * tile the fire touched. prepareNext(), swap() and addActiveCells() only visit materialized tiles,
+ * which makes SteppingMode.FRONTIER the mode to run it with; every other mode visits every cell.</p>
+ *
+ * <p>Tiles are materialized with a compare-and-set on the directory, so a parallel tick can
+ * reach an untouched tile from several workers at once.</p>
+ */
+public class ChunkedGrid extends CellGrid {
+
+    /**
+     * Length of one side of a tile.
+     */
+    public static final int TILE_SIZE = 64;
+
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_MASK  = TILE_SIZE - 1;
+
+    private static final VarHandle TILES  = MethodHandles.arrayElementVarHandle(Tile[].class);
+    private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final int               tilesPerSide;
+    private final Tile[]            tiles;                  // Directory of every tile, null until materialized.
+    private final ArrayList<Tile>   materialized = new ArrayList<Tile>();
+
+    private long terrainKey;
+    private long grassThreshold = 1L << 53;                 // Terrain cells below this are GrassCells; all of them at first.
+    private double grassCorrection;                         // Terrain GrassCells of the materialized tiles, less their expected number.
+
+    /**
+     * Every cell starts as a GrassCell.
+     *
+     * @param size integer length of one side of the board
+     */
+    public ChunkedGrid(int size) {
+        super(size);
+
+        long tilesPerSide = ((long) size + TILE_SIZE - 1) >>> TILE_SHIFT;
+        if (tilesPerSide * tilesPerSide > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board of size " + size + " is too large for a ChunkedGrid.");
+        }
+
+        this.tilesPerSide   = (int) tilesPerSide;
+        this.tiles          = new Tile[(int) (tilesPerSide * tilesPerSide)];
+    }
+
+    /**
+     * <p>Replace the whole board with fresh terrain, and drop every tile.</p>
+     *
+     * <p>A cell is a GrassCell when its roll, the top 53 bits of mix64(key + index * GOLDEN_GAMMA)
+     * as a fraction, is below the grassProbability, and a StoneCell otherwise. Nothing is rolled
+     * until it is read, so this takes no longer for a huge board than for a small one.</p>
+     *
+     * @param key long the terrain is derived from
+     * @param grassProbability double between 0 and 1
+     */
+    public void generate(long key, double grassProbability) {
+
+        Arrays.fill(this.tiles, null);
+        this.materialized.clear();
+
+        this.terrainKey         = key;
+        this.grassThreshold     = (long) Math.ceil(grassProbability * 0x1.0p53);
+        this.grassCorrection    = 0;
+    }
+
+    /**
+     * <p>Get the number of GrassCells in the terrain; what the board held before anything was written.</p>
+     *
+     * <p>Counting the terrain of the whole board would take time in proportion to it, so only the
+     * tiles that were materialized are counted, as they are; the rest of the board is assumed to 
+     * hold its expected share of grass. Anything a fire reaches is counted exactly.</p>
+     *
+     * @return long
+     */
+    public long getTerrainGrass() {
+        synchronized (this.materialized) {
+            return Math.round(this.grassFraction() * this.getCellCount() + this.grassCorrection);
+        }
+    }
+
+    /**
+     * Get the number of tiles that take up memory.
+     *
+     * @return int
+     */
+    public int getMaterializedTiles() {
+        return this.materialized.size();
+    }
+
+    @Override
+    public byte get(long index) {
+        return this.get(this.xOf(index), this.yOf(index));
+    }
+
+    @Override
+    public byte get(int x, int y) {
+        Tile tile = this.tile(x, y);
+        return tile == null ? this.terrain(this.index(x, y)) : tile.cells[local(x, y)];
+    }
+
+    @Override
+    public byte getNext(long index) {
+        int x = this.xOf(index);
+        int y = this.yOf(index);
+        Tile tile = this.tile(x, y);
+        return tile == null ? this.terrain(index) : tile.transitions[local(x, y)];
+    }
+
+    @Override
+    public byte setNext(long index, byte state) {
+        int x = this.xOf(index);
+        int y = this.yOf(index);
+        return (byte) STATES.getAndSet(this.materialize(x, y).transitions, local(x, y), state);
+    }
+
+    @Override
+    public void put(long index, byte state) {
+        int x = this.xOf(index);
+        int y = this.yOf(index);
+        Tile tile = this.materialize(x, y);
+        tile.cells[local(x, y)]       = state;
+        tile.transitions[local(x, y)] = state;
+    }
+
+    /**
+     * Only materialized tiles can hold burning or burnt cells; the terrain is all grass and stone.
+     */
+    @Override
+    public void addActiveCells(IndexList cells) {
+
+        for (int t = 0; t < this.materialized.size(); ++t) {
+
+            Tile tile = this.materialized.get(t);
+            int  left = (tile.number % this.tilesPerSide) << TILE_SHIFT;
+            int  top  = (tile.number / this.tilesPerSide) << TILE_SHIFT;
+
+            for (int y = top; y < Math.min(top + TILE_SIZE, this.size); ++y) {
+                for (int x = left; x < Math.min(left + TILE_SIZE, this.size); ++x) {
+                    byte state = tile.cells[local(x, y)];
+                    if (state == BURNING || state == BURNT) {
+                        cells.add(this.index(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void prepareNext() {
+        for (int t = 0; t < this.materialized.size(); ++t) {
+            Tile tile = this.materialized.get(t);
+            System.arraycopy(tile.cells, 0, tile.transitions, 0, tile.cells.length);
+        }
+    }
+
+    @Override
+    public void swap() {
+        for (int t = 0; t < this.materialized.size(); ++t) {
+            Tile tile           = this.materialized.get(t);
+            byte[] temp         = tile.cells;
+            tile.cells          = tile.transitions;
+            tile.transitions    = temp;
+        }
+    }
+
+    /**
+     * Terrain state of the cell at the given index.
+     */
+    private byte terrain(long index) {
+        long roll = SplitMixSource.mix64(this.terrainKey + index * SplitMixSource.GOLDEN_GAMMA) >>> 11;
+        return roll < this.grassThreshold ? GRASS : STONE;
+    }
+
+    /**
+     * Get the tile (x, y) is on, or null if it was never written.
+     */
+    private Tile tile(int x, int y) {
+        return (Tile) TILES.getAcquire(this.tiles, this.tileNumber(x, y));
+    }
+
+    /**
+     * Get the tile (x, y) is on, filling it from the terrain if it was never written.
+     */
+    private Tile materialize(int x, int y) {
+
+        int number = this.tileNumber(x, y);
+
+        Tile tile = (Tile) TILES.getAcquire(this.tiles, number);
+        if (tile != null) {
+            return tile;
+        }
+
+        tile = new Tile(number);
+        int left  = (x >>> TILE_SHIFT) << TILE_SHIFT;
+        int top   = (y >>> TILE_SHIFT) << TILE_SHIFT;
+        int grass = 0;
+        for (int j = top; j < Math.min(top + TILE_SIZE, this.size); ++j) {
+            for (int i = left; i < Math.min(left + TILE_SIZE, this.size); ++i) {
+                tile.cells[local(i, j)] = this.terrain(this.index(i, j));
+                if (tile.cells[local(i, j)] == GRASS) {
+                    grass++;
+                }
+            }
+        }
+        int cells = (Math.min(top + TILE_SIZE, this.size) - top) * (Math.min(left + TILE_SIZE, this.size) - left);
+        System.arraycopy(tile.cells, 0, tile.transitions, 0, tile.cells.length);
+
+        // Another worker may have beaten us to it; theirs wins.
+        if (!TILES.compareAndSet(this.tiles, number, null, tile)) {
+            return (Tile) TILES.getAcquire(this.tiles, number);
+        }
+
+        synchronized (this.materialized) {
+            this.materialized.add(tile);
+            this.grassCorrection += grass - this.grassFraction() * cells;
+        }
+        return tile;
+    }
+
+    /**
+     * Chance of a terrain cell being a GrassCell.
+     */
+    private double grassFraction() {
+        return this.grassThreshold * 0x1.0p-53;
+    }
+
+    private int tileNumber(int x, int y) {
+        return (y >>> TILE_SHIFT) * this.tilesPerSide + (x >>> TILE_SHIFT);
+    }
+
+    /**
+     * Position of (x, y) within its tile.
+     */
+    private static int local(int x, int y) {
+        return ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+    }
+
+    /**
+     * Both buffers of one tile, row by row.
+     */
+    private static final class Tile {
+
+        final int   number;
+        byte[]      cells       = new byte[TILE_SIZE * TILE_SIZE];
+        byte[]      transitions = new byte[TILE_SIZE * TILE_SIZE];
+
+        Tile(int number) {
+            this.number = number;
+        }
+    }
+}
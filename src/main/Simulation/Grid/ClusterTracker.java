@@ -0,0 +1,377 @@
+package Simulation.Grid;
+
+import java.util.Arrays;
+
+/**
+ * <p>Connected clusters of burn scar, kept up to date cell by cell with a union-find.</p>
+ *
+ * <p>The scar is every cell that has been a BurningCell or a BurntCell since the tracker was last
+ * cleared; a BurntCell that grows back into grass stays part of it. Two scar cells are in the same
+ * cluster when a path of scar cells joins them, each next to the one before along a row or column.
+ * Clusters only ever grow and merge, which a union-find handles in close to constant time per
+ * cell, so the cost of a tick is the number of cells it changed rather than the size of the board.</p>
+ *
+ * <p>The forest is two primitive arrays the size of the board: the parent of every cell, holding
+ * minus the cluster's size at a root, and a byte of flags for whether a cell is in the scar and
+ * which edges of the board its cluster touches. That is five bytes per cell, so the board can have
+ * at most about two billion cells. Union is by size, and find compresses the path it walks.</p>
+ *
+ * <p>A cluster that touches both the left and right edges, or both the top and bottom edges,
+ * spans the board; once one does, the scar has percolated.</p>
+ *
+ * <p>On a Boundary.TOROIDAL board, cells on opposite edges are next to each other, and every
+ * cluster that reaches an edge carries on past it. Spanning then means a cluster wraps all the
+ * way around the board and meets itself. To tell, every cell also keeps how far it is from its
+ * parent, as if the board were laid out flat without wrapping; two cells of a cluster that meet
+ * at a different distance than the cluster puts them apart are joined around the board. That
+ * takes another eight bytes per cell.</p>
+ */
+public class ClusterTracker {
+
+    private static final byte MEMBER    = 1;
+    private static final byte LEFT      = 2;
+    private static final byte RIGHT     = 4;
+    private static final byte TOP       = 8;
+    private static final byte BOTTOM    = 16;
+
+    private final int       size;
+    private final Boundary  boundary;
+    private final int[]     parent;                         // Parent of every scar cell, or -size at a root.
+    private final byte[]    flags;                          // MEMBER, and the edges a root's cluster touches.
+    private final int[]     dx;                             // Distance of every scar cell from its parent; TOROIDAL only.
+    private final int[]     dy;
+
+    private int[]   path = new int[64];                     // Scratch space for find().
+    private int     foundX;                                 // Distance of the cell last passed to find() from its root.
+    private int     foundY;
+
+    private int     clusters;
+    private int     largest;
+    private long    cells;
+    private boolean spanning;
+
+    private final IndexList scratch = new IndexList();
+
+    /**
+     * The tracker starts out with no scar, on a board that doesn't wrap around.
+     *
+     * @param size length of one side of the board
+     */
+    public ClusterTracker(int size) {
+        this(size, Boundary.CLAMPED);
+    }
+
+    /**
+     * The tracker starts out with no scar.
+     *
+     * @param size length of one side of the board
+     * @param boundary Boundary of the board; only TOROIDAL joins cells across the edges
+     */
+    public ClusterTracker(int size, Boundary boundary) {
+
+        long cellCount = (long) size * size;
+        if (cellCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board of size " + size + " is too large to track clusters on.");
+        }
+
+        this.size       = size;
+        this.boundary   = boundary;
+        this.parent     = new int[(int) cellCount];
+        this.flags      = new byte[(int) cellCount];
+
+        boolean wraps   = boundary == Boundary.TOROIDAL;
+        this.dx         = wraps ? new int[(int) cellCount] : null;
+        this.dy         = wraps ? new int[(int) cellCount] : null;
+    }
+
+    public Boundary getBoundary() {
+        return this.boundary;
+    }
+
+    /**
+     * Forget the whole scar.
+     */
+    public void clear() {
+        Arrays.fill(this.flags, (byte) 0);
+        this.clusters   = 0;
+        this.largest    = 0;
+        this.cells      = 0;
+        this.spanning   = false;
+    }
+
+    /**
+     * Add the cells of a tick that are burning or burnt now to the scar.
+     *
+     * @param grid CellGrid the changes were made to
+     * @param changes ChangeSet of the cells that changed; every cell on the board when it is everything
+     */
+    public void update(CellGrid grid, ChangeSet changes) {
+
+        if (changes.isEverything()) {
+            this.addAll(grid);
+            return;
+        }
+
+        for (int i = 0; i < changes.size(); ++i) {
+            long index = changes.get(i);
+            byte state = grid.get(index);
+            if (state == CellGrid.BURNING || state == CellGrid.BURNT) {
+                this.add(index);
+            }
+        }
+    }
+
+    /**
+     * Add every cell of the grid that is burning or burnt to the scar.
+     *
+     * @param grid CellGrid of the same size as the tracker
+     */
+    public void addAll(CellGrid grid) {
+
+        if (grid.getSize() != this.size) {
+            throw new IllegalArgumentException("Grid of size " + grid.getSize() + " does not fit a tracker of size " + this.size + ".");
+        }
+
+        this.scratch.clear();
+        grid.addActiveCells(this.scratch);
+        for (int i = 0; i < this.scratch.size(); ++i) {
+            this.add(this.scratch.get(i));
+        }
+    }
+
+    /**
+     * Add one cell to the scar, joining it to the clusters next to it. Adding a cell twice does nothing.
+     *
+     * @param index flat index of the cell
+     */
+    public void add(long index) {
+
+        int cell = (int) index;
+        if (this.flags[cell] != 0) {
+            return;
+        }
+
+        int x = cell % this.size;
+        int y = cell / this.size;
+
+        this.parent[cell] = -1;
+        if (this.dx != null) {
+            this.dx[cell] = 0;
+            this.dy[cell] = 0;
+        }
+        this.flags[cell]  = (byte) (MEMBER
+                          | (x == 0             ? LEFT   : 0)
+                          | (x == this.size - 1 ? RIGHT  : 0)
+                          | (y == 0             ? TOP    : 0)
+                          | (y == this.size - 1 ? BOTTOM : 0));
+
+        this.cells++;
+        this.clusters++;
+        this.largest = Math.max(this.largest, 1);
+
+        if (this.dx != null) {
+            // Every cell has four neighbors; past an edge, they are on the opposite one.
+            int left  = x > 0             ? cell - 1         : cell + this.size - 1;
+            int right = x < this.size - 1 ? cell + 1         : cell - this.size + 1;
+            int up    = y > 0             ? cell - this.size : cell + (this.size - 1) * this.size;
+            int down  = y < this.size - 1 ? cell + this.size : x;
+
+            this.union(cell, left,  -1,  0);
+            this.union(cell, right,  1,  0);
+            this.union(cell, up,     0, -1);
+            this.union(cell, down,   0,  1);
+            return;
+        }
+
+        this.checkSpanning(cell);
+
+        if (x > 0) {
+            this.union(cell, cell - 1, -1, 0);
+        }
+        if (x < this.size - 1) {
+            this.union(cell, cell + 1, 1, 0);
+        }
+        if (y > 0) {
+            this.union(cell, cell - this.size, 0, -1);
+        }
+        if (y < this.size - 1) {
+            this.union(cell, cell + this.size, 0, 1);
+        }
+    }
+
+    /**
+     * Check whether a cell is part of the scar.
+     *
+     * @param index flat index of the cell
+     * @return boolean
+     */
+    public boolean contains(long index) {
+        return this.flags[(int) index] != 0;
+    }
+
+    /**
+     * Get the number of cells in the cluster the given cell is part of.
+     *
+     * @param index flat index of the cell
+     * @return int, 0 if the cell is not part of the scar
+     */
+    public int getClusterSize(long index) {
+        if (!this.contains(index)) {
+            return 0;
+        }
+        return -this.parent[this.find((int) index)];
+    }
+
+    /**
+     * Check whether two cells are part of the same cluster.
+     *
+     * @param a flat index of one cell
+     * @param b flat index of the other
+     * @return true if both are part of the scar, and joined by it
+     */
+    public boolean connected(long a, long b) {
+        return this.contains(a) && this.contains(b) && this.find((int) a) == this.find((int) b);
+    }
+
+    /**
+     * Get the number of separate clusters.
+     *
+     * @return int
+     */
+    public int getClusterCount() {
+        return this.clusters;
+    }
+
+    /**
+     * Get the number of cells in the largest cluster.
+     *
+     * @return int
+     */
+    public int getLargestCluster() {
+        return this.largest;
+    }
+
+    /**
+     * Get the number of cells in the scar.
+     *
+     * @return long
+     */
+    public long getCellCount() {
+        return this.cells;
+    }
+
+    /**
+     * Check whether any cluster touches two opposite edges of the board, or on a 
+     * TOROIDAL board, wraps all the way around it.
+     *
+     * @return boolean
+     */
+    public boolean isSpanning() {
+        return this.spanning;
+    }
+
+    /**
+     * Join the clusters of a new scar cell and one next to it, if that one is scar too.
+     *
+     * @param stepX int of how far the neighbor is from the cell along x, -1, 0 or 1
+     * @param stepY int of how far the neighbor is from the cell along y, -1, 0 or 1
+     */
+    private void union(int cell, int neighbor, int stepX, int stepY) {
+
+        if (this.flags[neighbor] == 0) {
+            return;
+        }
+
+        int a = this.find(cell);
+        int ax = this.foundX, ay = this.foundY;
+        int b = this.find(neighbor);
+        int bx = this.foundX, by = this.foundY;
+
+        // How far b's root is from a's root, going through the two cells.
+        int offsetX = ax + stepX - bx;
+        int offsetY = ay + stepY - by;
+
+        if (a == b) {
+            // Already one cluster; if it puts the two cells apart some other way, it goes around the board.
+            if (this.dx != null && (offsetX != 0 || offsetY != 0)) {
+                this.spanning = true;
+            }
+            return;
+        }
+
+        // The smaller tree goes under the larger one.
+        if (this.parent[a] > this.parent[b]) {
+            int temp = a;
+            a = b;
+            b = temp;
+            offsetX = -offsetX;
+            offsetY = -offsetY;
+        }
+
+        this.parent[a] += this.parent[b];
+        this.parent[b]  = a;
+        this.flags[a]  |= this.flags[b];
+        if (this.dx != null) {
+            this.dx[b] = offsetX;
+            this.dy[b] = offsetY;
+        }
+
+        this.clusters--;
+        this.largest = Math.max(this.largest, -this.parent[a]);
+        if (this.dx == null) {
+            this.checkSpanning(a);
+        }
+    }
+
+    /**
+     * Get the root of a cell's cluster, pointing every cell on the way straight at it.
+     * On a TOROIDAL board, also leaves the cell's distance from the root in foundX and foundY.
+     */
+    private int find(int cell) {
+
+        if (this.dx == null) {
+
+            int root = cell;
+            while (this.parent[root] >= 0) {
+                root = this.parent[root];
+            }
+
+            while (this.parent[cell] >= 0) {
+                int next = this.parent[cell];
+                this.parent[cell] = root;
+                cell = next;
+            }
+            return root;
+        }
+
+        int length = 0;
+        int root   = cell;
+        while (this.parent[root] >= 0) {
+            if (length == this.path.length) {
+                this.path = Arrays.copyOf(this.path, length * 2);
+            }
+            this.path[length++] = root;
+            root = this.parent[root];
+        }
+
+        // From the cell nearest the root down, each parent is already measured from the root.
+        for (int k = length - 2; k >= 0; --k) {
+            int node = this.path[k];
+            int next = this.parent[node];
+            this.dx[node]    += this.dx[next];
+            this.dy[node]    += this.dy[next];
+            this.parent[node] = root;
+        }
+
+        this.foundX = length > 0 ? this.dx[cell] : 0;
+        this.foundY = length > 0 ? this.dy[cell] : 0;
+        return root;
+    }
+
+    private void checkSpanning(int root) {
+        byte edges = this.flags[root];
+        if ((edges & (LEFT | RIGHT)) == (LEFT | RIGHT) || (edges & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            this.spanning = true;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package Simulation.Grid;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of flat cell indices.
+ * 
+ * Used instead of an ArrayList of Longs so recording a cell never allocates
+ * once the list has grown to its working size.
+ */
+public class IndexList {
+
+    private long[] indices;
+    private int size;
+
+    public IndexList() {
+        this(64);
+    }
+
+    /**
+     * @param capacity initial number of indices the list can hold
+     */
+    public IndexList(int capacity) {
+        this.indices = new long[Math.max(capacity, 1)];
+    }
+
+    public void add(long index) {
+        if (this.size == this.indices.length) {
+            this.indices = Arrays.copyOf(this.indices, this.indices.length * 2);
+        }
+        this.indices[this.size++] = index;
+    }
+
+    public long get(int i) {
+        return this.indices[i];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+}
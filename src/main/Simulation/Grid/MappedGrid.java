@@ -0,0 +1,252 @@
+package Simulation.Grid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Out-of-core grid backend; both buffers live in a memory-mapped file, two bits per cell.</p>
+ *
+ * <p>The board takes up no heap at all. The operating system pages the file in and out as the
+ * stepping code touches it, so the board can be far larger than physical memory; the page cache
+ * holds whatever part of it was used last.</p>
+ *
+ * <p>The file holds the two buffers one after the other. Each buffer is laid out tile by tile,
+ * TILE_SIZE x TILE_SIZE cells to a tile and tiles row by row, rather than row by row across the
+ * whole board, so the cells around any cell share a handful of pages. A sweep walks one row of
+ * tiles at a time and moves through the file front to back, and prepareNext() is a straight copy
+ * of one half of the file onto the other.</p>
+ *
+ * <p>Within a tile, each row of cells takes up two words, in the packed form of PackedGrid:
+ * the cell at x takes up bits 2(x % 32) and 2(x % 32) + 1. The file starts out as all zeros,
+ * which is a board of GrassCells.</p>
+ *
+ * <p>Ex:</p>
+ * <p><blockquote><pre>
+ *      try (MappedGrid grid = new MappedGrid(200000, Path.of("board.grid"))) {
+ *          Environment environment = new Environment(grid, 42);
+ *          ...
+ *      }
+ * </pre></blockquote></p>
+ */
+public class MappedGrid extends CellGrid implements Closeable {
+
+    /**
+     * Length of one side of a tile.
+     */
+    public static final int TILE_SIZE = 64;
+
+    private static final int  TILE_SHIFT    = 6;
+    private static final int  TILE_MASK     = TILE_SIZE - 1;
+    private static final int  TILE_WORDS    = TILE_SIZE * TILE_SIZE / CELLS_PER_WORD;
+    private static final int  REGION_SHIFT  = 25;                              // Words per mapped region, as a power of two; 256MB.
+    private static final long REGION_MASK   = (1L << REGION_SHIFT) - 1;
+
+    private static final long STATE_MASK   = 0b11L;
+
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final int         tilesPerSide;
+    private final long        bufferWords;                  // Words in each of the two buffers.
+
+    private final MappedByteBuffer[][] regions;             // [buffer][region]
+    private int               live;                         // Buffer being read, 0 or 1.
+
+    /**
+     * Map a board onto the given file, replacing whatever was in it. Every cell starts as a GrassCell.
+     *
+     * @param size integer length of one side of the board
+     * @param path Path of the file to keep the board in; 2 * getBufferBytes() long
+     * @throws IOException if the file can't be created or mapped
+     */
+    public MappedGrid(int size, Path path) throws IOException {
+        this(size, FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                          StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    private MappedGrid(int size, FileChannel channel) throws IOException {
+        super(size);
+
+        this.channel        = channel;
+        this.tilesPerSide   = (size + TILE_SIZE - 1) >>> TILE_SHIFT;
+        this.bufferWords    = (long) this.tilesPerSide * this.tilesPerSide * TILE_WORDS;
+
+        int regionCount     = (int) ((this.bufferWords + REGION_MASK) >>> REGION_SHIFT);
+        this.regions        = new MappedByteBuffer[2][regionCount];
+
+        try {
+            for (int buffer = 0; buffer < 2; ++buffer) {
+                for (int region = 0; region < regionCount; ++region) {
+
+                    long first = (long) region << REGION_SHIFT;
+                    long words = Math.min(1L << REGION_SHIFT, this.bufferWords - first);
+
+                    this.regions[buffer][region] = channel.map(FileChannel.MapMode.READ_WRITE, (buffer * this.bufferWords + first) * Long.BYTES, words * Long.BYTES);
+                    this.regions[buffer][region].order(ByteOrder.nativeOrder());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Map a board onto a new temporary file, deleted when the grid is closed.
+     *
+     * @param size integer length of one side of the board
+     * @return MappedGrid of GrassCells
+     * @throws IOException if the file can't be created or mapped
+     */
+    public static MappedGrid temporary(int size) throws IOException {
+        Path path = Files.createTempFile("board", ".grid");
+        return new MappedGrid(size, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                                           StandardOpenOption.DELETE_ON_CLOSE));
+    }
+
+    /**
+     * Get the number of bytes each of the two buffers takes up in the file.
+     *
+     * @return long
+     */
+    public long getBufferBytes() {
+        return this.bufferWords * Long.BYTES;
+    }
+
+    @Override
+    public byte get(long index) {
+        return this.get(this.xOf(index), this.yOf(index));
+    }
+
+    @Override
+    public byte get(int x, int y) {
+        return (byte) ((this.read(this.live, word(x, y)) >>> shift(x)) & STATE_MASK);
+    }
+
+    @Override
+    public void getRow(int y, byte[] states) {
+
+        // Two words per tile cover the row's 64 cells in it.
+        for (int left = 0; left < this.size; left += TILE_SIZE) {
+
+            long first = this.word(left, y);
+            int  count = Math.min(TILE_SIZE, this.size - left);
+
+            for (int half = 0; half < 2 && half * CELLS_PER_WORD < count; ++half) {
+
+                long bits = this.read(this.live, first + half);
+                int  end  = Math.min(CELLS_PER_WORD, count - half * CELLS_PER_WORD);
+
+                for (int k = 0; k < end; ++k) {
+                    states[left + half * CELLS_PER_WORD + k] = (byte) (bits & STATE_MASK);
+                    bits >>>= 2;
+                }
+            }
+        }
+    }
+
+    @Override
+    public byte getNext(long index) {
+        int x = this.xOf(index);
+        return (byte) ((this.read(1 - this.live, this.word(x, this.yOf(index))) >>> shift(x)) & STATE_MASK);
+    }
+
+    @Override
+    public byte setNext(long index, byte state) {
+
+        int  x     = this.xOf(index);
+        long word  = this.word(x, this.yOf(index));
+        int  shift = shift(x);
+
+        MappedByteBuffer region = this.regions[1 - this.live][(int) (word >>> REGION_SHIFT)];
+        int offset = (int) (word & REGION_MASK) << 3;
+
+        long current;
+        long updated;
+        do {
+            current = (long) WORDS.getOpaque(region, offset);
+            updated = (current & ~(STATE_MASK << shift)) | ((long) state << shift);
+        } while (current != updated && !WORDS.compareAndSet(region, offset, current, updated));
+
+        return (byte) ((current >>> shift) & STATE_MASK);
+    }
+
+    @Override
+    public void put(long index, byte state) {
+
+        int  x     = this.xOf(index);
+        long word  = this.word(x, this.yOf(index));
+        int  shift = shift(x);
+
+        for (int buffer = 0; buffer < 2; ++buffer) {
+            long bits = this.read(buffer, word);
+            this.write(buffer, word, (bits & ~(STATE_MASK << shift)) | ((long) state << shift));
+        }
+    }
+
+    @Override
+    public void prepareNext() {
+        for (int region = 0; region < this.regions[0].length; ++region) {
+            MappedByteBuffer from = this.regions[this.live][region];
+            this.regions[1 - this.live][region].put(0, from, 0, from.capacity());
+        }
+    }
+
+    @Override
+    public void swap() {
+        this.live = 1 - this.live;
+    }
+
+    /**
+     * Write any changes still in memory out to the file.
+     */
+    public void force() {
+        for (MappedByteBuffer[] buffer : this.regions) {
+            for (MappedByteBuffer region : buffer) {
+                region.force();
+            }
+        }
+    }
+
+    /**
+     * Close the file. The mapping lasts until the grid is garbage collected, but the grid
+     * must not be used after this.
+     *
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Word of the buffer that holds (x, y).
+     */
+    private long word(int x, int y) {
+        long tile = (long) (y >>> TILE_SHIFT) * this.tilesPerSide + (x >>> TILE_SHIFT);
+        return tile * TILE_WORDS + ((y & TILE_MASK) << 1) + ((x & TILE_MASK) >>> 5);
+    }
+
+    private long read(int buffer, long word) {
+        return this.regions[buffer][(int) (word >>> REGION_SHIFT)].getLong((int) (word & REGION_MASK) << 3);
+    }
+
+    private void write(int buffer, long word, long bits) {
+        this.regions[buffer][(int) (word >>> REGION_SHIFT)].putLong((int) (word & REGION_MASK) << 3, bits);
+    }
+
+    /**
+     * Bit offset of a cell within its word.
+     */
+    private static int shift(int x) {
+        return (x & (CELLS_PER_WORD - 1)) << 1;
+    }
+}
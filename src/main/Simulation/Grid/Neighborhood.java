@@ -0,0 +1,144 @@
+package Simulation.Grid;
+
+/**
+ * <p>Precomputed offsets of a neighborhood of any radius.</p>
+ *
+ * <p>Offsets are listed top-down, left to right, and include the center cell.
+ * For a von Neumann neighborhood of radius 2 that is the following order:</p>
+ * <p><blockquote><pre>
+ *            +----+
+ *            | 00 |
+ *       +----+----+----+
+ *       | 01 | 02 | 03 |
+ *  +----+----+----+----+----+
+ *  | 04 | 05 | 06 | 07 | 08 |
+ *  +----+----+----+----+----+
+ *       | 09 | 10 | 11 |
+ *       +----+----+----+
+ *            | 12 |
+ *            +----+
+ * </pre></blockquote><p>
+ *
+ * <p>Cells at least one radius away from every border are "interior"; their neighbors
+ * can be reached by adding getOffset(k) to their flat index without any bounds checks.
+ * Cells on the border have to check each neighbor with contains().</p>
+ */
+public class Neighborhood {
+
+    public enum Shape {
+        VON_NEUMANN,    // Cells within Manhattan distance r.
+        MOORE           // Cells within Chebyshev distance r.
+    }
+
+    private final Shape shape;
+    private final int   radius;
+    private final int   size;
+
+    private final int[]  dx;
+    private final int[]  dy;
+    private final long[] offsets;
+
+    /**
+     * @param shape Shape of the neighborhood
+     * @param radius int of at least 0
+     * @param size length of one side of the board the neighborhood is used on
+     */
+    public Neighborhood(Shape shape, int radius, int size) {
+
+        if (radius < 0) {
+            throw new IllegalArgumentException("Neighborhood radius must not be negative.");
+        }
+
+        this.shape  = shape;
+        this.radius = radius;
+        this.size   = size;
+
+        int count = 0;
+        for (int j = -radius; j <= radius; ++j) {
+            count += 2 * this.reach(j) + 1;
+        }
+
+        this.dx      = new int[count];
+        this.dy      = new int[count];
+        this.offsets = new long[count];
+
+        int k = 0;
+        for (int j = -radius; j <= radius; ++j) {
+            for (int i = -this.reach(j); i <= this.reach(j); ++i) {
+                this.dx[k]      = i;
+                this.dy[k]      = j;
+                this.offsets[k] = (long) j * size + i;
+                k++;
+            }
+        }
+    }
+
+    /**
+     * Half-width of the neighborhood on the row dy away from the center.
+     */
+    private int reach(int dy) {
+        return this.shape == Shape.MOORE ? this.radius : this.radius - Math.abs(dy);
+    }
+
+    public Shape getShape() {
+        return this.shape;
+    }
+
+    public int getRadius() {
+        return this.radius;
+    }
+
+    /**
+     * Get the number of cells in the neighborhood, center included.
+     *
+     * @return int
+     */
+    public int getCount() {
+        return this.offsets.length;
+    }
+
+    public int getDx(int k) {
+        return this.dx[k];
+    }
+
+    public int getDy(int k) {
+        return this.dy[k];
+    }
+
+    /**
+     * Get the flat index offset of the k-th neighbor.
+     *
+     * @param k int between 0 and getCount() - 1
+     * @return long
+     */
+    public long getOffset(int k) {
+        return this.offsets[k];
+    }
+
+    /**
+     * Check whether every neighbor of (x, y) is on the board.
+     *
+     * @param x int of the x position
+     * @param y int of the y position
+     * @return true if the neighborhood needs no bounds checks
+     */
+    public boolean isInterior(int x, int y) {
+        return x >= this.radius && x < this.size - this.radius
+            && y >= this.radius && y < this.size - this.radius;
+    }
+
+    /**
+     * Check whether the k-th neighbor of (x, y) is on the board.
+     *
+     * @param x int of the x position
+     * @param y int of the y position
+     * @param k int between 0 and getCount() - 1
+     * @return true if the neighbor exists
+     */
+    public boolean contains(int x, int y, int k) {
+        int i = x + this.dx[k];
+        int j = y + this.dy[k];
+        return i >= 0 && i < this.size
+            && j >= 0 && j < this.size;
+    }
+}
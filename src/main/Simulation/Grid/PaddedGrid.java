@@ -0,0 +1,268 @@
+package Simulation.Grid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * <p>Grid backend with one byte per cell, surrounded by a halo of cells past the edge.</p>
+ *
+ * <p>The board is stored row by row with getHalo() extra cells on every side, so a row takes up
+ * getStride() = size + 2 * halo bytes. Reading a neighbor within the halo's width of any cell is then
+ * a plain array read at paddedIndex(x, y) plus a fixed offset, without checking for the edge:</p>
+ *
+ * <p><blockquote><pre>
+ *      long center = grid.paddedIndex(x, y);
+ *      byte state  = grid.getPadded(center + dy * grid.getStride() + dx);
+ * </pre></blockquote></p>
+ *
+ * <p>The halo holds what a BurningCell sees past the edge under the grid's Boundary: StoneCells
+ * when CLAMPED, GrassCells when ABSORBING, and a copy of the opposite edge when TOROIDAL. It is
+ * only kept in the live buffer, and filled again by swap(), put() and setBoundary().</p>
+ *
+ * <p>The padded arrays are indexed by int, which limits the side length to about 46,000 cells.</p>
+ */
+public class PaddedGrid extends CellGrid {
+
+    private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final int halo;
+    private final int stride;
+
+    private Boundary boundary = Boundary.CLAMPED;
+
+    private byte[] cells;
+    private byte[] transitions;
+
+    /**
+     * Every cell starts as a GrassCell, with a halo wide enough for the default neighborhood.
+     *
+     * @param size integer length of one side of the board
+     */
+    public PaddedGrid(int size) {
+        this(size, 2);
+    }
+
+    /**
+     * Every cell starts as a GrassCell.
+     *
+     * @param size integer length of one side of the board
+     * @param halo int of at least 0; the widest neighborhood radius the halo serves
+     */
+    public PaddedGrid(int size, int halo) {
+        super(size);
+
+        if (halo < 0) {
+            throw new IllegalArgumentException("Halo width must not be negative.");
+        }
+
+        long stride = (long) size + 2L * halo;
+        if (stride * stride > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board of size " + size + " with a halo of " + halo + " is too large for a PaddedGrid.");
+        }
+
+        this.halo           = halo;
+        this.stride         = (int) stride;
+        this.cells          = new byte[(int) (stride * stride)];
+        this.transitions    = new byte[(int) (stride * stride)];
+
+        this.fillHalo();
+    }
+
+    /**
+     * Get the number of cells past each edge of the board.
+     *
+     * @return int
+     */
+    public int getHalo() {
+        return this.halo;
+    }
+
+    /**
+     * Get the length of a padded row; the distance between the padded indices of two vertical neighbors.
+     *
+     * @return int
+     */
+    public int getStride() {
+        return this.stride;
+    }
+
+    public Boundary getBoundary() {
+        return this.boundary;
+    }
+
+    /**
+     * Set what the halo holds, and fill it.
+     *
+     * @param boundary Boundary of the board
+     */
+    public void setBoundary(Boundary boundary) {
+        this.boundary = boundary;
+        this.fillHalo();
+    }
+
+    /**
+     * Convert an (x, y) position to an index into the padded arrays.
+     *
+     * @param x int of the x position, from -getHalo() to getSize() + getHalo() - 1
+     * @param y int of the y position, from -getHalo() to getSize() + getHalo() - 1
+     * @return padded index of the cell
+     */
+    public long paddedIndex(int x, int y) {
+        return (long) (y + this.halo) * this.stride + x + this.halo;
+    }
+
+    /**
+     * Get the live state at the given padded index, halo included.
+     */
+    public byte getPadded(long padded) {
+        return this.cells[(int) padded];
+    }
+
+    /**
+     * Get the flat index of the cell on the board that the given padded index stands for.
+     *
+     * @param padded long padded index
+     * @return flat index, the one the halo copies when TOROIDAL, or -1 for any other halo cell
+     */
+    public long boardIndexOf(long padded) {
+
+        int x = (int) (padded % this.stride) - this.halo;
+        int y = (int) (padded / this.stride) - this.halo;
+
+        if (x >= 0 && x < this.size && y >= 0 && y < this.size) {
+            return this.index(x, y);
+        }
+        if (this.boundary == Boundary.TOROIDAL) {
+            return this.index(Math.floorMod(x, this.size), Math.floorMod(y, this.size));
+        }
+        return -1;
+    }
+
+    @Override
+    public byte get(long index) {
+        return this.cells[this.pad(index)];
+    }
+
+    @Override
+    public byte get(int x, int y) {
+        return this.cells[(int) this.paddedIndex(x, y)];
+    }
+
+    @Override
+    public void getRow(int y, byte[] states) {
+        System.arraycopy(this.cells, (int) this.paddedIndex(0, y), states, 0, this.size);
+    }
+
+    @Override
+    public byte getNext(long index) {
+        return this.transitions[this.pad(index)];
+    }
+
+    @Override
+    public byte setNext(long index, byte state) {
+        return (byte) STATES.getAndSet(this.transitions, this.pad(index), state);
+    }
+
+    @Override
+    public void put(long index, byte state) {
+
+        int padded = this.pad(index);
+        this.cells[padded]       = state;
+        this.transitions[padded] = state;
+
+        if (this.boundary == Boundary.TOROIDAL) {
+            this.mirror(this.xOf(index), this.yOf(index), state);
+        }
+    }
+
+    /**
+     * Fill both buffers with the given state.
+     */
+    public void fill(byte state) {
+        Arrays.fill(this.cells, state);
+        Arrays.fill(this.transitions, state);
+        this.fillHalo();
+    }
+
+    @Override
+    public void prepareNext() {
+        System.arraycopy(this.cells, 0, this.transitions, 0, this.cells.length);
+    }
+
+    @Override
+    public void swap() {
+        byte[] temp         = this.cells;
+        this.cells          = this.transitions;
+        this.transitions    = temp;
+
+        this.fillHalo();
+    }
+
+    /**
+     * Padded index of the cell at the given flat index.
+     */
+    private int pad(long index) {
+        return (int) this.paddedIndex(this.xOf(index), this.yOf(index));
+    }
+
+    /**
+     * Fill the halo of the live buffer for the current boundary.
+     */
+    private void fillHalo() {
+
+        for (int py = 0; py < this.stride; ++py) {
+
+            int y = py - this.halo;
+
+            if (y < 0 || y >= this.size) {
+                for (int px = 0; px < this.stride; ++px) {
+                    this.cells[py * this.stride + px] = this.haloState(px - this.halo, y);
+                }
+            } else {
+                for (int i = 0; i < this.halo; ++i) {
+                    this.cells[py * this.stride + i]                   = this.haloState(i - this.halo, y);
+                    this.cells[py * this.stride + this.stride - 1 - i] = this.haloState(this.size + this.halo - 1 - i, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * State of the halo cell at (x, y), which is past the edge of the board.
+     */
+    private byte haloState(int x, int y) {
+        switch (this.boundary) {
+            case TOROIDAL:
+                return this.size == 0 ? CellGrid.STONE : this.get(Math.floorMod(x, this.size), Math.floorMod(y, this.size));
+            case ABSORBING:
+                return CellGrid.GRASS;
+            default:
+                return CellGrid.STONE;
+        }
+    }
+
+    /**
+     * Copy a cell on the board into every halo cell that wraps around onto it.
+     */
+    private void mirror(int x, int y, byte state) {
+
+        if (x >= this.halo && x < this.size - this.halo && y >= this.halo && y < this.size - this.halo) {
+            return;                                     // Too far from the edge to show up in the halo.
+        }
+
+        int images = (this.halo + this.size - 1) / this.size;   // Times the board fits into the halo's width.
+
+        for (int b = -images; b <= images; ++b) {
+            for (int a = -images; a <= images; ++a) {
+
+                int px = x + a * this.size + this.halo;
+                int py = y + b * this.size + this.halo;
+
+                if ((a != 0 || b != 0) && px >= 0 && px < this.stride && py >= 0 && py < this.stride) {
+                    this.cells[py * this.stride + px] = state;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package Simulation.Monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one paint of the Board.
+ */
+@Name("Simulation.Paint")
+@Label("Paint")
+@Category("Fire Simulation")
+@Description("One paint of the board")
+@StackTrace(false)
+public class PaintEvent extends Event {
+
+    public static final String OBJECTS  = "Objects";
+    public static final String GRID     = "Grid";
+    public static final String FRAME    = "Frame";
+
+    @Label("Source")
+    @Description("What the board painted from")
+    String source;
+
+    @Label("Width")
+    @Description("Width of the painted region in pixels")
+    int width;
+
+    @Label("Height")
+    @Description("Height of the painted region in pixels")
+    int height;
+
+    /**
+     * @param source String of what the board paints from, one of the constants above
+     * @param width int of the painted region in pixels
+     * @param height int of the painted region in pixels
+     */
+    public PaintEvent(String source, int width, int height) {
+        this.source = source;
+        this.width  = width;
+        this.height = height;
+    }
+}
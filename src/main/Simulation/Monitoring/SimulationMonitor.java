@@ -0,0 +1,296 @@
+package Simulation.Monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import Simulation.Environment;
+import Simulation.SteppingMode;
+import Simulation.TickListener;
+import Simulation.Grid.CellGrid;
+
+/**
+ * <p>Keeps running statistics of an Environment's ticks and a Board's frames, and publishes
+ * them as a JMX MBean so a run can be watched from jconsole or JMC.</p>
+ *
+ * <p>The monitor listens to the Environment's ticks; the Board reports its frames through
+ * framePainted(). Recording a tick or frame is a few array writes under an uncontended lock,
+ * while the statistics are only worked out when they are asked for.</p>
+ *
+ * <p>Allocation is only measured on the thread that runs the tick. A PARALLEL tick allocates on
+ * the workers of its pool as well, and a tick that runs on a different thread than the one before
+ * can't be told apart from the allocation in between; neither counts towards the average.</p>
+ *
+ * <p>Ex:</p>
+ * <p><blockquote><pre>
+ *      SimulationMonitor monitor = new SimulationMonitor();
+ *      monitor.attach(environment);
+ *      monitor.register("Batch");
+ * </pre></blockquote></p>
+ */
+public class SimulationMonitor implements SimulationMonitorMBean, TickListener {
+
+    /**
+     * Number of the most recent ticks and frames the statistics cover.
+     */
+    public static final int WINDOW = 1024;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private Environment environment;
+    private ObjectName  name;
+
+    // Rings of the last WINDOW ticks.
+    private final long[] tickLatencies  = new long[WINDOW];    // Nanoseconds.
+    private final long[] tickTimes      = new long[WINDOW];    // System.nanoTime() at the end of the tick.
+    private final long[] tickChanges    = new long[WINDOW];
+    private final long[] tickAllocated  = new long[WINDOW];    // Bytes, -1 if unknown.
+    private long         ticksSeen;
+    private long         lastAllocated  = -1;
+    private long         lastThread     = -1;                   // Thread lastAllocated was read on.
+
+    // Ring of the last WINDOW frames.
+    private final long[] frameTimes     = new long[WINDOW];
+    private long         framesSeen;
+
+    /**
+     * Start listening to the given Environment's ticks, and stop listening to the one before it.
+     *
+     * @param environment Environment to watch
+     */
+    public synchronized void attach(Environment environment) {
+        this.detach();
+        this.environment = environment;
+        environment.addTickListener(this);
+    }
+
+    /**
+     * Stop listening to the Environment.
+     */
+    public synchronized void detach() {
+        if (this.environment != null) {
+            this.environment.removeTickListener(this);
+            this.environment = null;
+        }
+        this.lastAllocated = -1;
+    }
+
+    /**
+     * Publish the monitor to the platform MBean server as Simulation:type=SimulationMonitor,name=[name].
+     *
+     * @param name String to tell this monitor apart from others
+     * @return ObjectName it was registered under
+     * @throws JMException if the name is malformed or already taken
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        this.unregister();
+        this.name = new ObjectName("Simulation:type=SimulationMonitor,name=" + ObjectName.quote(name));
+        server.registerMBean(this, this.name);
+
+        return this.name;
+    }
+
+    /**
+     * Remove the monitor from the platform MBean server, if it was registered.
+     *
+     * @throws JMException if it can't be removed
+     */
+    public synchronized void unregister() throws JMException {
+        if (this.name != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.name);
+            this.name = null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public synchronized void tickCompleted(Environment environment) {
+
+        int slot = (int) (this.ticksSeen % WINDOW);
+
+        this.tickLatencies[slot]  = environment.getLastTickNanos();
+        this.tickTimes[slot]      = System.nanoTime();
+        this.tickChanges[slot]    = environment.getChanges().isEverything() ? environment.getGrid().getCellCount()
+                                                                           : environment.getChanges().size();
+
+        // Only the calling thread's allocation is measured, which misses a PARALLEL tick's workers.
+        long thread    = Thread.currentThread().getId();
+        long allocated = allocatedBytes(thread);
+        boolean known  = allocated >= 0 && this.lastAllocated >= 0 && thread == this.lastThread
+                      && environment.getSteppingMode() != SteppingMode.PARALLEL;
+
+        this.tickAllocated[slot]  = known ? allocated - this.lastAllocated : -1;
+        this.lastAllocated        = allocated;
+        this.lastThread           = thread;
+
+        this.ticksSeen++;
+    }
+
+    /**
+     * Record that a frame was painted.
+     */
+    public synchronized void framePainted() {
+        this.frameTimes[(int) (this.framesSeen % WINDOW)] = System.nanoTime();
+        this.framesSeen++;
+    }
+
+    @Override
+    public synchronized long getTick() {
+        return this.environment != null ? this.environment.getTick() : 0;
+    }
+
+    @Override
+    public synchronized long getTicksSeen() {
+        return this.ticksSeen;
+    }
+
+    @Override
+    public synchronized double getTicksPerSecond() {
+        return rate(this.tickTimes, this.ticksSeen);
+    }
+
+    @Override
+    public double getTickLatencyP50Millis() {
+        return this.tickLatencyPercentile(.50);
+    }
+
+    @Override
+    public double getTickLatencyP90Millis() {
+        return this.tickLatencyPercentile(.90);
+    }
+
+    @Override
+    public double getTickLatencyP99Millis() {
+        return this.tickLatencyPercentile(.99);
+    }
+
+    @Override
+    public double getTickLatencyMaxMillis() {
+        return this.tickLatencyPercentile(1);
+    }
+
+    @Override
+    public synchronized long getFramesSeen() {
+        return this.framesSeen;
+    }
+
+    @Override
+    public synchronized double getFramesPerSecond() {
+        return rate(this.frameTimes, this.framesSeen);
+    }
+
+    @Override
+    public synchronized double getCellsChangedPerTick() {
+
+        int count = (int) Math.min(this.ticksSeen, WINDOW);
+        if (count == 0) {
+            return 0;
+        }
+
+        long total = 0;
+        for (int i = 0; i < count; ++i) {
+            total += this.tickChanges[i];
+        }
+        return (double) total / count;
+    }
+
+    @Override
+    public synchronized double getAllocatedBytesPerTick() {
+
+        int count = (int) Math.min(this.ticksSeen, WINDOW);
+
+        long total = 0;
+        int known = 0;
+        for (int i = 0; i < count; ++i) {
+            if (this.tickAllocated[i] >= 0) {
+                total += this.tickAllocated[i];
+                known++;
+            }
+        }
+        return known > 0 ? (double) total / known : -1;
+    }
+
+    @Override
+    public long getGrassCells() {
+        return this.population(CellGrid.GRASS);
+    }
+
+    @Override
+    public long getStoneCells() {
+        return this.population(CellGrid.STONE);
+    }
+
+    @Override
+    public long getBurningCells() {
+        return this.population(CellGrid.BURNING);
+    }
+
+    @Override
+    public long getBurntCells() {
+        return this.population(CellGrid.BURNT);
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.ticksSeen      = 0;
+        this.framesSeen     = 0;
+        this.lastAllocated  = -1;
+    }
+
+    /**
+     * Get the given percentile of the tick latencies in the window.
+     *
+     * @param percentile double between 0 and 1
+     * @return double of milliseconds
+     */
+    public synchronized double tickLatencyPercentile(double percentile) {
+
+        int count = (int) Math.min(this.ticksSeen, WINDOW);
+        if (count == 0) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(this.tickLatencies, count);
+        Arrays.sort(sorted);
+
+        int rank = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(rank, 0)] / 1e6;
+    }
+
+    private synchronized long population(byte state) {
+        return this.environment != null ? this.environment.getPopulation(state) : 0;
+    }
+
+    /**
+     * Events per second over a ring of their times.
+     */
+    private static double rate(long[] times, long seen) {
+
+        int count = (int) Math.min(seen, WINDOW);
+        if (count < 2) {
+            return 0;
+        }
+
+        long newest = times[(int) ((seen - 1) % WINDOW)];
+        long oldest = times[(int) ((seen - count) % WINDOW)];
+
+        return newest > oldest ? (count - 1) * 1e9 / (newest - oldest) : 0;
+    }
+
+    /**
+     * Bytes allocated so far by the given thread, or -1 if the JVM can't tell.
+     */
+    private static long allocatedBytes(long thread) {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(thread);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,62 @@
+package Simulation.Monitoring;
+
+/**
+ * Management interface of a SimulationMonitor, as seen in jconsole or JMC.
+ *
+ * Rates and percentiles cover the last SimulationMonitor.WINDOW ticks or frames.
+ */
+public interface SimulationMonitorMBean {
+
+    /**
+     * @return long of the tick the Environment is at
+     */
+    long getTick();
+
+    /**
+     * @return long of ticks seen since the monitor was attached or reset
+     */
+    long getTicksSeen();
+
+    double getTicksPerSecond();
+
+    double getTickLatencyP50Millis();
+
+    double getTickLatencyP90Millis();
+
+    double getTickLatencyP99Millis();
+
+    double getTickLatencyMaxMillis();
+
+    /**
+     * @return long of frames painted since the monitor was attached or reset
+     */
+    long getFramesSeen();
+
+    double getFramesPerSecond();
+
+    /**
+     * @return double of the average number of cells changed per tick
+     */
+    double getCellsChangedPerTick();
+
+    /**
+     * Only counts the thread that runs the ticks, so leaves out the workers of a PARALLEL tick.
+     *
+     * @return double of the average number of bytes allocated by the ticking thread per tick, 
+     *         or -1 if unsupported or every tick in the window was PARALLEL
+     */
+    double getAllocatedBytesPerTick();
+
+    long getGrassCells();
+
+    long getStoneCells();
+
+    long getBurningCells();
+
+    long getBurntCells();
+
+    /**
+     * Forget everything seen so far.
+     */
+    void reset();
+}
@@ -0,0 +1,52 @@
+package Simulation.Monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one whole call to Environment.implementTransitions().
+ */
+@Name("Simulation.Tick")
+@Label("Tick")
+@Category("Fire Simulation")
+@Description("One tick of an Environment")
+@StackTrace(false)
+public class TickEvent extends Event {
+
+    @Label("Tick")
+    long tick;
+
+    @Label("Stepping Mode")
+    String mode;
+
+    @Label("Cells Changed")
+    @Description("Cells the tick changed, or -1 if it changed the whole board")
+    long cellsChanged;
+
+    @Label("Burning Cells")
+    long burning;
+
+    /**
+     * @param tick long of the tick being run
+     * @param mode String name of the stepping mode
+     */
+    public TickEvent(long tick, String mode) {
+        this.tick = tick;
+        this.mode = mode;
+    }
+
+    /**
+     * Record the outcome of the tick; call before commit().
+     *
+     * @param cellsChanged long of cells changed, or -1 for the whole board
+     * @param burning long of cells left burning
+     */
+    public void setOutcome(long cellsChanged, long burning) {
+        this.cellsChanged = cellsChanged;
+        this.burning      = burning;
+    }
+}
@@ -0,0 +1,63 @@
+package Simulation.Monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>JFR event spanning one phase of a tick.</p>
+ *
+ * <p>The phases, in order:</p>
+ *
+ * <ol>
+ * <li>PREPARE:     lining the next buffer up with the live one, or rebuilding the frontier.</li>
+ * <li>TRANSITIONS: running the transition protocols.</li>
+ * <li>SWAP:        making the next buffer live, or committing the frontier.</li>
+ * <li>COMBUSTION:  rolling for spontaneous combustion.</li>
+ * <li>PUBLISH:     publishing the changes and notifying the tick listeners.</li>
+ * </ol>
+ */
+@Name("Simulation.TickPhase")
+@Label("Tick Phase")
+@Category("Fire Simulation")
+@Description("One phase of a tick of an Environment")
+@StackTrace(false)
+public class TickPhaseEvent extends Event {
+
+    public static final String PREPARE      = "Prepare";
+    public static final String TRANSITIONS  = "Transitions";
+    public static final String SWAP         = "Swap";
+    public static final String COMBUSTION   = "Combustion";
+    public static final String PUBLISH      = "Publish";
+
+    @Label("Tick")
+    long tick;
+
+    @Label("Phase")
+    String phase;
+
+    /**
+     * @param tick long of the tick being run
+     * @param phase String of the phase, one of the constants above
+     */
+    public TickPhaseEvent(long tick, String phase) {
+        this.tick  = tick;
+        this.phase = phase;
+    }
+
+    /**
+     * Create the event for a phase and start timing it.
+     *
+     * @param tick long of the tick being run
+     * @param phase String of the phase, one of the constants above
+     * @return TickPhaseEvent to commit() once the phase is over
+     */
+    public static TickPhaseEvent start(long tick, String phase) {
+        TickPhaseEvent event = new TickPhaseEvent(tick, phase);
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,35 @@
+package Simulation.Random;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * <p>A seeded source of randomness that can jump to the start of any stream.</p>
+ * 
+ * <p>Every stream is named by a (tick, key) pair and depends on nothing but the seed and that pair.
+ * The Environment gives each cell its own stream per tick, keyed by the cell's index, so a 
+ * cell rolls the same numbers no matter which thread visits it or in what order.</p>
+ */
+public interface RandomSource extends RandomGenerator {
+
+    /**
+     * Get the seed every stream is derived from.
+     * 
+     * @return long
+     */
+    long getSeed();
+
+    /**
+     * Jump to the start of the stream for the given tick and key.
+     * 
+     * @param tick the tick the stream belongs to
+     * @param key the cell index, or any other name, of the stream
+     */
+    void seek(long tick, long key);
+
+    /**
+     * Create an independent source with the same seed, for use on another thread.
+     * 
+     * @return RandomSource
+     */
+    RandomSource copy();
+}
@@ -0,0 +1,76 @@
+package Simulation.Random;
+
+/**
+ * <p>Counter-based RandomSource built on the SplitMix64 generator.</p>
+ * 
+ * <p>seek() hashes the seed, tick and key into a starting state, and every
+ * draw after that is a single add and mix. It is the same generator 
+ * java.util.SplittableRandom uses, without the allocation of splitting it.</p>
+ */
+public class SplitMixSource implements RandomSource {
+
+    /**
+     * Added to the state before every draw.
+     */
+    public static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Spreads the key of a stream over the state.
+     */
+    public static final long KEY_GAMMA    = 0xD1B54A32D192ED03L;
+
+    private final long seed;
+    private long state;
+
+    /**
+     * @param seed long every stream is derived from
+     */
+    public SplitMixSource(long seed) {
+        this.seed = seed;
+        this.seek(0, 0);
+    }
+
+    @Override
+    public long getSeed() {
+        return this.seed;
+    }
+
+    @Override
+    public void seek(long tick, long key) {
+        this.state = mix64(tickBase(this.seed, tick) ^ (key * KEY_GAMMA));
+    }
+
+    /**
+     * Get the part of a stream's starting state shared by every key of a tick.
+     * 
+     * The stream for (tick, key) starts at mix64(tickBase(seed, tick) ^ (key * KEY_GAMMA)),
+     * which lets a caller work out the streams of many keys at once.
+     * 
+     * @param seed long the source was created with
+     * @param tick the tick the streams belong to
+     * @return long
+     */
+    public static long tickBase(long seed, long tick) {
+        return mix64(seed + tick * GOLDEN_GAMMA);
+    }
+
+    @Override
+    public long nextLong() {
+        this.state += GOLDEN_GAMMA;
+        return mix64(this.state);
+    }
+
+    @Override
+    public RandomSource copy() {
+        return new SplitMixSource(this.seed);
+    }
+
+    /**
+     * The SplitMix64 finalizer.
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
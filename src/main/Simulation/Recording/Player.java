@@ -0,0 +1,388 @@
+package Simulation.Recording;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import Exceptions.InvalidRecordingException;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChangeSet;
+import Simulation.Grid.IndexList;
+import Simulation.Grid.PackedGrid;
+
+/**
+ * <p>Replays a recording written by a Recorder.</p>
+ *
+ * <p>The player keeps the board of the tick it is at in a grid of its own. step() moves it
+ * one tick forward by applying that tick's changes, and seek() jumps to any recorded tick
+ * by loading the nearest keyframe before it and applying the changes after that. Either
+ * way getChanges() says which cells changed, so the grid can be painted like a live one:</p>
+ *
+ * <p><blockquote><pre>
+ *      Board board = new Board(player.getGrid());
+ *      while (player.step()) {
+ *          board.applyChanges(player.getChanges());
+ *      }
+ * </pre></blockquote></p>
+ *
+ * <p>Opening a recording only reads the record headers, so it is quick however long the run was.
+ * A recording cut short by a crash plays up to its last complete record. A record that is
+ * complete but damaged is only found when it is played, and leaves the board as it was.</p>
+ */
+public class Player implements Closeable {
+
+    private final FileChannel   channel;
+    private final int           size;
+    private final long          seed;
+    private final int           keyframeInterval;
+
+    private final CellGrid      grid;
+    private final ChangeSet     changes;
+
+    // One entry per record, in file order.
+    private final IndexList     ticks       = new IndexList();
+    private final IndexList     offsets     = new IndexList();     // Position of the record's body.
+    private final IndexList     lengths     = new IndexList();     // Length of the record's body.
+    private final IndexList     keyframes   = new IndexList();     // Numbers of the keyframe records.
+
+    private ByteBuffer          body        = ByteBuffer.allocate(1 << 12);
+    private int                 current     = -1;                  // Number of the record the board is at.
+
+    /**
+     * Open a recording and move to its first tick.
+     *
+     * @param path Path of the recording
+     * @throws IOException if the file can't be read
+     * @throws InvalidRecordingException if the file is not a recording this version can read
+     */
+    public Player(Path path) throws IOException, InvalidRecordingException {
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(RecordingFormat.HEADER_BYTES);
+            this.readFully(header, 0);
+
+            byte[] magic = new byte[RecordingFormat.MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, RecordingFormat.MAGIC)) {
+                throw new InvalidRecordingException(path + " is not a recording.");
+            }
+
+            int version = header.getInt();
+            if (version != RecordingFormat.VERSION) {
+                throw new InvalidRecordingException("Recording version " + version + " is not supported, expected " + RecordingFormat.VERSION + ".");
+            }
+
+            this.size               = header.getInt();
+            this.seed               = header.getLong();
+            this.keyframeInterval   = header.getInt();
+
+            try {
+                this.grid = new PackedGrid(this.size);
+            } catch (IllegalArgumentException iae) {
+                throw new InvalidRecordingException(iae.getMessage());
+            }
+            if (this.grid.getPackedLength() * Long.BYTES > RecordingFormat.MAX_BODY_BYTES) {
+                throw new InvalidRecordingException("Board of size " + this.size + " is too large to play back.");
+            }
+            this.changes = new ChangeSet(this.grid.getCellCount());
+
+            this.indexRecords();
+
+            if (this.keyframes.isEmpty() || this.keyframes.get(0) != 0) {
+                throw new InvalidRecordingException(path + " does not start with a keyframe.");
+            }
+
+            this.seek(this.getFirstTick());
+
+        } catch (IOException | InvalidRecordingException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the length of one side of the recorded board.
+     *
+     * @return int
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Get the seed of the recorded Environment.
+     *
+     * @return long
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public int getKeyframeInterval() {
+        return this.keyframeInterval;
+    }
+
+    public long getFirstTick() {
+        return this.ticks.get(0);
+    }
+
+    public long getLastTick() {
+        return this.ticks.get(this.ticks.size() - 1);
+    }
+
+    /**
+     * Get the tick the board is at.
+     *
+     * @return long
+     */
+    public long getTick() {
+        return this.ticks.get(this.current);
+    }
+
+    /**
+     * Get the board as it was at the current tick. Updated in place by step() and seek().
+     *
+     * @return CellGrid
+     */
+    public CellGrid getGrid() {
+        return this.grid;
+    }
+
+    /**
+     * Get the cells that changed over the last step() or seek().
+     *
+     * @return ChangeSet
+     */
+    public ChangeSet getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Move the board forward one tick.
+     *
+     * @return false if the board was already at the last tick
+     * @throws IOException if the file can't be read
+     * @throws InvalidRecordingException if the record is damaged; the board stays at the tick before it
+     */
+    public boolean step() throws IOException, InvalidRecordingException {
+
+        if (this.current + 1 >= this.ticks.size()) {
+            return false;
+        }
+
+        this.changes.clear();
+        this.apply(this.current + 1);
+        return true;
+    }
+
+    /**
+     * Move the board to the given tick, forwards or backwards.
+     *
+     * @param tick long between getFirstTick() and getLastTick()
+     * @throws IOException if the file can't be read
+     * @throws InvalidRecordingException if a record on the way is damaged
+     * @throws IllegalArgumentException if the tick was not recorded
+     */
+    public void seek(long tick) throws IOException, InvalidRecordingException {
+
+        int target = search(this.ticks, tick);
+        if (target < 0) {
+            throw new IllegalArgumentException("Tick " + tick + " was not recorded.");
+        }
+
+        // Start from the last keyframe at or before the target, unless the board is already past it.
+        int keyframe = (int) this.keyframes.get(searchFloor(this.keyframes, target));
+        int from = (this.current >= keyframe && this.current <= target) ? this.current + 1 : keyframe;
+
+        for (int record = from; record <= target; ++record) {
+            this.apply(record);
+        }
+
+        this.changes.markEverything();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Read the header of every complete record in the file.
+     */
+    private void indexRecords() throws IOException {
+
+        ByteBuffer header = ByteBuffer.allocate(1 + 10 + 10);     // Type and two varints at most.
+        long position = RecordingFormat.HEADER_BYTES;
+        long fileSize = this.channel.size();
+
+        while (position < fileSize) {
+
+            header.clear();
+            this.channel.read(header, position);
+            header.flip();
+
+            long tick;
+            long length;
+            byte type;
+            try {
+                type    = header.get();
+                tick    = RecordingFormat.readVarint(header);
+                length  = RecordingFormat.readVarint(header);
+            } catch (RuntimeException e) {
+                break;                                      // Cut off in the middle of a header.
+            }
+
+            long bodyStart = position + header.position();
+            if (length > RecordingFormat.MAX_BODY_BYTES || bodyStart + length > fileSize || (type != RecordingFormat.KEYFRAME && type != RecordingFormat.DELTA)) {
+                break;
+            }
+
+            if (type == RecordingFormat.KEYFRAME) {
+                this.keyframes.add(this.ticks.size());
+            }
+            this.ticks.add(tick);
+            this.offsets.add(bodyStart);
+            this.lengths.add(length);
+
+            position = bodyStart + length;
+        }
+    }
+
+    /**
+     * Apply the given record to the board.
+     */
+    private void apply(int record) throws IOException, InvalidRecordingException {
+
+        int length = (int) this.lengths.get(record);
+        if (this.body.capacity() < length) {
+            this.body = ByteBuffer.allocate(length);
+        }
+        this.body.clear().limit(length);
+        this.readFully(this.body, this.offsets.get(record));
+
+        if (isKeyframe(record)) {
+            if (length != this.grid.getPackedLength() * Long.BYTES) {
+                throw new InvalidRecordingException("Keyframe at tick " + this.ticks.get(record) + " is " + length
+                                                  + " bytes long, expected " + this.grid.getPackedLength() * Long.BYTES + ".");
+            }
+            this.grid.importPacked(0, this.body.asLongBuffer());
+            this.changes.markEverything();
+        } else {
+            this.checkDelta(this.body, this.ticks.get(record));
+            this.applyDelta(this.body);
+        }
+
+        this.current = record;
+    }
+
+    /**
+     * Make sure every run of a delta is on the board and the body holds nothing else,
+     * before any of it is applied. Leaves the buffer where it was.
+     */
+    private void checkDelta(ByteBuffer delta, long tick) throws InvalidRecordingException {
+
+        ByteBuffer in = delta.duplicate();
+        long cells = this.grid.getCellCount();
+
+        try {
+            long runs = RecordingFormat.readVarint(in);
+            long end  = 0;
+
+            for (long run = 0; run < runs; ++run) {
+
+                long gap    = RecordingFormat.readVarint(in) >>> 2;
+                long length = RecordingFormat.readVarint(in);
+
+                // end + gap + length + 1 <= cells, without overflowing.
+                if (gap > cells - end || length >= cells - end - gap) {
+                    throw new InvalidRecordingException("Delta at tick " + tick + " runs past the end of the board.");
+                }
+                end += gap + length + 1;
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new InvalidRecordingException("Delta at tick " + tick + " is cut short or malformed.");
+        }
+
+        if (in.hasRemaining()) {
+            throw new InvalidRecordingException("Delta at tick " + tick + " has " + in.remaining() + " bytes past its last run.");
+        }
+    }
+
+    /**
+     * Set every run of cells in a delta to its state.
+     */
+    private void applyDelta(ByteBuffer delta) {
+
+        long runs = RecordingFormat.readVarint(delta);
+        long end  = 0;
+
+        for (long run = 0; run < runs; ++run) {
+
+            long gapAndState = RecordingFormat.readVarint(delta);
+            long start  = end + (gapAndState >>> 2);
+            byte state  = (byte) (gapAndState & 0b11);
+            end         = start + RecordingFormat.readVarint(delta) + 1;
+
+            for (long index = start; index < end; ++index) {
+                this.grid.put(index, state);
+                this.changes.add(index);
+            }
+        }
+    }
+
+    private boolean isKeyframe(int record) {
+        int k = searchFloor(this.keyframes, record);
+        return k >= 0 && this.keyframes.get(k) == record;
+    }
+
+    /**
+     * Fill the buffer from the file, starting at the given position, and flip it.
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = this.channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Recording ends early.");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Find the position of the given value in a sorted list, or -1.
+     */
+    private static int search(IndexList list, long value) {
+        int found = searchFloor(list, value);
+        return (found >= 0 && list.get(found) == value) ? found : -1;
+    }
+
+    /**
+     * Find the position of the last value in a sorted list that is at most the given value, or -1.
+     */
+    private static int searchFloor(IndexList list, long value) {
+
+        int low  = 0;
+        int high = list.size() - 1;
+        int found = -1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (list.get(middle) <= value) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,179 @@
+package Simulation.Recording;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import Simulation.Environment;
+import Simulation.TickListener;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChangeSet;
+
+/**
+ * <p>Records every tick of an Environment to a file, for a Player to replay later.</p>
+ *
+ * <p>Each tick is written as the cells it changed, run-length and varint encoded (see
+ * RecordingFormat). Every keyframeInterval ticks, and whenever the whole board changed
+ * at once, the whole board is written instead, so a Player can seek without replaying
+ * the run from the start.</p>
+ *
+ * <p>Ex:</p>
+ * <p><blockquote><pre>
+ *      try (Recorder recorder = new Recorder(path, environment, 500)) {
+ *          while (environment.isBurning()) {
+ *              environment.implementTransitions();
+ *          }
+ *      }
+ * </pre></blockquote></p>
+ */
+public class Recorder implements TickListener, Closeable {
+
+    private final Environment       environment;
+    private final DataOutputStream  out;
+    private final int               keyframeInterval;
+
+    private final ByteArrayOutputStream runs = new ByteArrayOutputStream();  // Scratch space for deltas.
+    private ByteBuffer              words;                 // Scratch space for keyframes.
+    private long[]                  indices = new long[0]; // Scratch space for sorting changes.
+
+    private long                    lastKeyframe;          // Tick of the last keyframe written.
+
+    /**
+     * Start recording the given Environment; writes a keyframe of the board as it is now,
+     * and records every tick after it until closed.
+     *
+     * @param path Path of the file to write, replaced if it exists
+     * @param environment Environment to record
+     * @param keyframeInterval int of at least 1; most ticks between two keyframes
+     * @throws IOException if the file can't be written
+     * @throws IllegalArgumentException if the board is too large for a keyframe to fit in one buffer
+     */
+    public Recorder(Path path, Environment environment, int keyframeInterval) throws IOException {
+
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least 1.");
+        }
+        if (environment.getGrid().getPackedLength() * Long.BYTES > RecordingFormat.MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Board of size " + environment.getSize() + " is too large to record; "
+                                             + "a keyframe would not fit in one buffer.");
+        }
+
+        this.environment        = environment;
+        this.keyframeInterval   = keyframeInterval;
+        this.out                = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+
+        this.out.write(RecordingFormat.MAGIC);
+        this.out.writeInt(RecordingFormat.VERSION);
+        this.out.writeInt(environment.getSize());
+        this.out.writeLong(environment.getSeed());
+        this.out.writeInt(keyframeInterval);
+
+        this.writeKeyframe(environment.getTick(), environment.getGrid());
+
+        environment.addTickListener(this);
+    }
+
+    @Override
+    public void tickCompleted(Environment environment) {
+
+        long      tick    = environment.getTick();
+        ChangeSet changes = environment.getChanges();
+
+        try {
+            if (changes.isEverything() || tick - this.lastKeyframe >= this.keyframeInterval) {
+                this.writeKeyframe(tick, environment.getGrid());
+            } else {
+                this.writeDelta(tick, environment.getGrid(), changes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stop recording and close the file.
+     *
+     * @throws IOException if the file can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        this.environment.removeTickListener(this);
+        this.out.close();
+    }
+
+    /**
+     * Write the whole board.
+     */
+    private void writeKeyframe(long tick, CellGrid grid) throws IOException {
+
+        int length = (int) (grid.getPackedLength() * Long.BYTES);
+        if (this.words == null || this.words.capacity() != length) {
+            this.words = ByteBuffer.allocate(length);
+        }
+
+        this.words.clear();
+        grid.exportPacked(0, this.words.asLongBuffer());
+
+        this.out.writeByte(RecordingFormat.KEYFRAME);
+        RecordingFormat.writeVarint(this.out, tick);
+        RecordingFormat.writeVarint(this.out, length);
+        this.out.write(this.words.array(), 0, length);
+
+        this.lastKeyframe = tick;
+    }
+
+    /**
+     * Write the cells that changed, in runs of the same state.
+     */
+    private void writeDelta(long tick, CellGrid grid, ChangeSet changes) throws IOException {
+
+        int count = changes.size();
+        if (this.indices.length < count) {
+            this.indices = new long[Math.max(count, this.indices.length * 2)];
+        }
+        for (int i = 0; i < count; ++i) {
+            this.indices[i] = changes.get(i);
+        }
+        Arrays.sort(this.indices, 0, count);
+
+        // Encode the runs first, since their count goes in front of them.
+        this.runs.reset();
+
+        int  runCount = 0;
+        long end      = 0;                                      // Index after the last run.
+
+        for (int i = 0; i < count; ) {
+
+            long start = this.indices[i];
+            byte state = grid.get(start);
+
+            // Extend the run over following cells that changed into the same state; skip duplicates.
+            long last = start;
+            int j = i + 1;
+            while (j < count && (this.indices[j] == last || (this.indices[j] == last + 1 && grid.get(this.indices[j]) == state))) {
+                last = this.indices[j];
+                j++;
+            }
+
+            RecordingFormat.writeVarint(this.runs, ((start - end) << 2) | state);
+            RecordingFormat.writeVarint(this.runs, last - start);
+
+            end = last + 1;
+            runCount++;
+            i = j;
+        }
+
+        this.out.writeByte(RecordingFormat.DELTA);
+        RecordingFormat.writeVarint(this.out, tick);
+        RecordingFormat.writeVarint(this.out, RecordingFormat.varintLength(runCount) + this.runs.size());
+        RecordingFormat.writeVarint(this.out, runCount);
+        this.runs.writeTo(this.out);
+    }
+}
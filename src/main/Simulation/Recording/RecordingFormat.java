@@ -0,0 +1,82 @@
+package Simulation.Recording;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Constants and varint coding shared by the Recorder and the Player.</p>
+ *
+ * <p>A recording is a header followed by one record per tick. Everything is big-endian:</p>
+ *
+ * <p><blockquote><pre>
+ *   header:    byte[4] "FREC", int version, int size, long seed, int keyframe interval
+ *   record:    byte type, varint tick, varint body length, byte[] body
+ *   keyframe:  the whole board in packed form (see CellGrid.exportPacked())
+ *   delta:     varint run count, then per run
+ *                varint (gap &lt;&lt; 2 | state), varint (length - 1)
+ * </pre></blockquote></p>
+ *
+ * <p>A delta lists the cells that changed over its tick in runs of consecutive cells that
+ * ended up in the same state. Runs are sorted by index, and each one's gap is the number
+ * of cells between the end of the run before it (or the start of the board) and its start.</p>
+ *
+ * <p>Varints are unsigned LEB128; 7 bits to a byte, low bits first, high bit set on every
+ * byte but the last.</p>
+ */
+final class RecordingFormat {
+
+    static final byte[] MAGIC           = "FREC".getBytes(StandardCharsets.US_ASCII);
+    static final int    VERSION         = 1;
+    static final int    HEADER_BYTES    = 24;
+
+    static final byte   KEYFRAME        = 1;
+    static final byte   DELTA           = 2;
+
+    static final long   MAX_BODY_BYTES  = Integer.MAX_VALUE - 8;   // Longest record body the Player can read into a buffer.
+
+    private RecordingFormat() {
+    }
+
+    /**
+     * Write a non-negative value as a varint.
+     */
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Get the number of bytes a non-negative value takes up as a varint.
+     */
+    static int varintLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Read a varint from the buffer's position.
+     *
+     * @throws IllegalArgumentException if the varint is longer than a long
+     */
+    static long readVarint(ByteBuffer in) {
+
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint.");
+    }
+}
@@ -0,0 +1,22 @@
+package Simulation;
+
+/**
+ * Runs the transition protocols over a band of rows; the inner loop of a sweep.
+ * 
+ * Environment.sweepRows() is the scalar kernel every other kernel has to match, roll for roll.
+ */
+interface RowKernel {
+
+    /**
+     * Visit every cell in rows [fromRow, toRow).
+     * 
+     * Expects the next buffer to have been prepared.
+     * 
+     * @param environment Environment being ticked
+     * @param fromRow first row to visit
+     * @param toRow row to stop before
+     * @param context TransitionContext of the worker sweeping the rows
+     * @return true if anything in the rows was burning
+     */
+    boolean sweepRows(Environment environment, int fromRow, int toRow, TransitionContext context);
+}
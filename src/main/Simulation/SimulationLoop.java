@@ -0,0 +1,212 @@
+package Simulation;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import Simulation.Graphics.FrameBuffer;
+
+/**
+ * <p>Runs an Environment on a thread of its own and publishes a frame of the board after every tick.</p>
+ *
+ * <p>The Environment belongs to the simulation thread once the loop is started. Anything
+ * else that wants to change it (the controls, a reset, etc...) hands the loop a command
+ * through execute(), which is run on the simulation thread between two ticks.</p>
+ *
+ * <p>Frames go out through a FrameBuffer, so the Event Dispatch Thread can paint the latest one
+ * whenever it likes without ever holding up, or being held up by, a tick.</p>
+ */
+public class SimulationLoop implements Runnable {
+
+    /**
+     * How long the loop waits for commands while paused.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final FrameBuffer frames;
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<Runnable>();
+
+    private Environment environment;                       // Only touched by the simulation thread once started.
+    private boolean     redraw = true;                     // Whether the next frame has to be painted from scratch.
+
+    private volatile boolean running      = true;
+    private volatile boolean stopped;
+    private volatile long    tickInterval;                 // Least time between two ticks in nanoseconds, 0 for none.
+
+    private volatile Thread thread;
+
+    /**
+     * @param environment Environment to run
+     * @param frames FrameBuffer to publish frames of the board to
+     */
+    public SimulationLoop(Environment environment, FrameBuffer frames) {
+        this.environment    = environment;
+        this.frames         = frames;
+    }
+
+    /**
+     * Start the simulation thread.
+     *
+     * @throws IllegalStateException if the loop was started before
+     */
+    public synchronized void start() {
+
+        if (this.thread != null) {
+            throw new IllegalStateException("Simulation loop was already started.");
+        }
+
+        this.thread = new Thread(this, "Simulation");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stop the simulation thread after the current tick and wait for it to end.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void stop() throws InterruptedException {
+
+        this.stopped = true;
+
+        Thread current = this.thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+            current.join();
+        }
+    }
+
+    /**
+     * Run the given command on the simulation thread before the next tick.
+     *
+     * @param command Runnable to run
+     */
+    public void execute(Runnable command) {
+        this.commands.add(command);
+
+        Thread current = this.thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /**
+     * Get the Environment being run. Only safe to use from a command, or before the loop is started.
+     *
+     * @return Environment
+     */
+    public Environment getEnvironment() {
+        return this.environment;
+    }
+
+    /**
+     * Run a different Environment from now on. Only safe to call from a command, or before the loop is started.
+     *
+     * @param environment Environment the same size as the frames
+     */
+    public void setEnvironment(Environment environment) {
+        this.environment    = environment;
+        this.redraw         = true;
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Pause or resume ticking. Commands are still run, and frames still published, while paused.
+     *
+     * @param running boolean
+     */
+    public void setRunning(boolean running) {
+        this.running = running;
+
+        Thread current = this.thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /**
+     * Get the least time between two ticks.
+     *
+     * @return long of nanoseconds
+     */
+    public long getTickInterval() {
+        return this.tickInterval;
+    }
+
+    /**
+     * Set the least time between two ticks; 0 ticks as fast as the Environment can.
+     *
+     * @param nanos long of nanoseconds
+     */
+    public void setTickInterval(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Tick interval must not be negative.");
+        }
+        this.tickInterval = nanos;
+    }
+
+    @Override
+    public void run() {
+
+        long nextTick = System.nanoTime();
+
+        while (!this.stopped) {
+
+            boolean changed = this.runCommands();
+
+            // While paused, no tick will publish what the commands changed.
+            if (changed && !this.running) {
+                this.redraw = true;
+            }
+
+            if (this.running && System.nanoTime() - nextTick >= 0) {
+
+                this.environment.implementTransitions();
+                this.frames.update(this.environment.getGrid(), this.environment.getChanges());
+
+                nextTick = Math.max(nextTick + this.tickInterval, System.nanoTime());  // Never try to catch up.
+                changed = true;
+            }
+
+            if (this.redraw) {
+                this.frames.redraw(this.environment.getGrid());
+                this.redraw = false;
+                changed = true;
+            }
+
+            if (changed) {
+                this.frames.publish(this.environment.getTick());
+            }
+
+            // Wait for the next tick, or a command, whichever comes first.
+            long wait = this.running ? nextTick - System.nanoTime() : IDLE_NANOS;
+            if (wait > 0 && this.commands.isEmpty()) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    /**
+     * Run every command waiting in the queue.
+     *
+     * @return true if there were any
+     */
+    private boolean runCommands() {
+
+        boolean ran = false;
+
+        Runnable command;
+        while ((command = this.commands.poll()) != null) {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                System.err.println(e.getMessage());
+            }
+            ran = true;
+        }
+        return ran;
+    }
+}
@@ -0,0 +1,27 @@
+package Simulation;
+
+/**
+ * How the Environment walks the board during a tick.
+ * 
+ * <ol>
+ * <li>SWEEP:     visit every cell on the board.</li>
+ * <li>FRONTIER:  only visit the burning and burnt cells; everything else can only change
+ *                when a burning neighbor sets it alight. Cost follows the size of the fire
+ *                rather than the size of the board.</li>
+ * <li>PARALLEL:  visit every cell, with bands of rows spread over several worker threads.</li>
+ * <li>VECTOR:    visit every cell like SWEEP, with runs of cells classified and rolled for in
+ *                SIMD lanes. Needs the jdk.incubator.vector module at compile and run time
+ *                and falls back to SWEEP without it; see Environment.isVectorAvailable().</li>
+ * <li>BITBOARD:  visit every cell 64 at a time as bit-planes, with the rules applied from each
+ *                GrassCell's side; a slightly different model than the other modes, see
+ *                BitboardKernel. Fastest on a BitGrid, which stores the planes as they are read.
+ *                Only for a Boundary.CLAMPED board; falls back to SWEEP for any other.</li>
+ * </ol>
+ */
+public enum SteppingMode {
+    SWEEP,
+    FRONTIER,
+    PARALLEL,
+    VECTOR,
+    BITBOARD
+}
@@ -0,0 +1,416 @@
+package Simulation.Sweep;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import Exceptions.InvalidProbabilityException;
+import Exceptions.InvalidSweepException;
+import Simulation.Ensemble.Ensemble;
+import Simulation.Ensemble.EnsembleStatistics;
+
+/**
+ * <p>Maps how a fire's outcome depends on the Environment's probabilities, by running an
+ * Ensemble at every point of a grid of them.</p>
+ *
+ * <p>Each axis is one of the names Environment.setProbability() accepts, with the values to
+ * try. The grid is every combination of the axes' values; probabilities without an axis
+ * keep whatever the Ensemble was given. Every point runs the same seeds, so neighbouring
+ * points differ by their physics and not by their luck.</p>
+ *
+ * <p>Each point is appended to a CSV file as soon as it is done. Running a sweep again on
+ * the same file skips the points already in it, so an interrupted sweep picks up where
+ * it left off. The file starts with a comment line of everything else that decides a
+ * point's outcome: the board size, boundary, fires and tick limit of the Ensemble, the
+ * probabilities that aren't swept, the runs per point and the seed. A sweep only resumes
+ * from a file whose settings and axes match its own, so it never mixes in points from
+ * runs that can't be compared with its own.</p>
+ *
+ * <p>Refinement adds points where the outcome changes fastest; after the grid, the
+ * midpoint of any two neighbours along the refined axis whose mean burnt fraction differs
+ * by more than the threshold is run too, for a number of rounds. That homes in on phase
+ * transitions like the percolation threshold without running a fine grid everywhere.</p>
+ *
+ * <p>Ex:</p>
+ * <p><blockquote><pre>
+ *      ParameterSweep sweep = new ParameterSweep(new Ensemble(300), 200, 42);
+ *      sweep.addRange("Ignition", .3, .9, 13);
+ *      sweep.addValues("Generation", .5, .7, .9);
+ *      sweep.setRefinement("Ignition", .1, 4);
+ *      sweep.run(Path.of("ignition.csv"));
+ * </pre></blockquote></p>
+ */
+public class ParameterSweep {
+
+    private final Ensemble ensemble;
+    private final int      runsPerPoint;
+    private final long     seed;
+
+    private final ArrayList<String>   names  = new ArrayList<String>();
+    private final ArrayList<double[]> values = new ArrayList<double[]>();
+
+    private int    refineAxis = -1;
+    private double refineThreshold;
+    private int    refineRounds;
+
+    private final LinkedHashMap<String, SweepPoint> points = new LinkedHashMap<String, SweepPoint>();
+
+    /**
+     * @param ensemble Ensemble to run each point with; its other settings apply to every point
+     * @param runsPerPoint int of runs at each point, at least 1
+     * @param seed long of the first run's seed at every point
+     */
+    public ParameterSweep(Ensemble ensemble, int runsPerPoint, long seed) {
+        if (runsPerPoint < 1) {
+            throw new IllegalArgumentException("Runs per point must be at least 1.");
+        }
+        this.ensemble       = ensemble;
+        this.runsPerPoint   = runsPerPoint;
+        this.seed           = seed;
+    }
+
+    /**
+     * Sweep a probability over the given values.
+     *
+     * @param name String of the probability, as Environment.setProbability() takes it
+     * @param values doubles between 0 and 1
+     * @throws InvalidProbabilityException when a value is not between 0 and 1
+     * @throws IllegalArgumentException when the name is unknown or already swept, or there are no values
+     */
+    public void addValues(String name, double... values) throws InvalidProbabilityException {
+
+        if (this.names.contains(name)) {
+            throw new IllegalArgumentException(name + " is already swept.");
+        }
+        if (values.length == 0) {
+            throw new IllegalArgumentException("An axis needs at least one value.");
+        }
+
+        if (!Ensemble.PROBABILITY_NAMES.contains(name)) {
+            throw new IllegalArgumentException("Unknown probability " + name);
+        }
+        for (double value : values) {
+            if (value < 0 || value > 1) {
+                throw new InvalidProbabilityException("Probabilties must be between 0 and 100.");
+            }
+        }
+
+        this.names.add(name);
+        this.values.add(values.clone());
+    }
+
+    /**
+     * Sweep a probability over evenly spaced values, both ends included.
+     *
+     * @param name String of the probability, as Environment.setProbability() takes it
+     * @param from double of the first value
+     * @param to double of the last value
+     * @param steps int number of values, at least 2
+     * @throws InvalidProbabilityException when an end is not between 0 and 1
+     */
+    public void addRange(String name, double from, double to, int steps) throws InvalidProbabilityException {
+
+        if (steps < 2) {
+            throw new IllegalArgumentException("A range needs at least 2 steps.");
+        }
+
+        double[] values = new double[steps];
+        for (int i = 0; i < steps; ++i) {
+            values[i] = from + (to - from) * i / (steps - 1);
+        }
+        values[steps - 1] = to;
+
+        this.addValues(name, values);
+    }
+
+    /**
+     * Refine the grid along a swept axis where the mean burnt fraction jumps.
+     *
+     * @param name String of a probability already added as an axis
+     * @param threshold double of the difference in mean burnt fraction between neighbours that gets a midpoint
+     * @param rounds int of the most times to halve the spacing
+     */
+    public void setRefinement(String name, double threshold, int rounds) {
+        int axis = this.names.indexOf(name);
+        if (axis < 0) {
+            throw new IllegalArgumentException(name + " is not swept.");
+        }
+        this.refineAxis         = axis;
+        this.refineThreshold    = threshold;
+        this.refineRounds       = rounds;
+    }
+
+    /**
+     * Get the names of the swept probabilities, in axis order.
+     *
+     * @return List of String
+     */
+    public List<String> getNames() {
+        return new ArrayList<String>(this.names);
+    }
+
+    /**
+     * Get every point done so far, read from the file or run.
+     *
+     * @return Collection of SweepPoint in the order they were done
+     */
+    public Collection<SweepPoint> getPoints() {
+        return new ArrayList<SweepPoint>(this.points.values());
+    }
+
+    /**
+     * Run every point of the grid, then refine, skipping the points already in the file.
+     *
+     * @param path Path of the CSV file to resume from and append to; created if missing
+     * @throws IOException if the file can't be read or written
+     * @throws InvalidSweepException if the file belongs to a sweep over different axes or with different settings
+     * @throws InterruptedException if interrupted; every point written so far is kept
+     */
+    public void run(Path path) throws IOException, InvalidSweepException, InterruptedException {
+
+        if (this.names.isEmpty()) {
+            throw new IllegalStateException("Nothing to sweep.");
+        }
+
+        this.resume(path);
+
+        HashMap<String, Double> base = this.ensemble.getProbabilities();
+
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+            if (Files.size(path) == 0) {
+                out.write(this.settings());
+                out.newLine();
+                out.write(this.header());
+                out.newLine();
+                out.flush();
+            }
+
+            // The grid, in odometer order; the last axis changes fastest.
+            int[] odometer = new int[this.names.size()];
+            do {
+                double[] point = new double[odometer.length];
+                for (int axis = 0; axis < odometer.length; ++axis) {
+                    point[axis] = this.values.get(axis)[odometer[axis]];
+                }
+                this.runPoint(point, out);
+            } while (this.advance(odometer));
+
+            // Refinement.
+            for (int round = 0; round < this.refineRounds; ++round) {
+
+                List<double[]> midpoints = this.midpoints();
+                if (midpoints.isEmpty()) {
+                    break;
+                }
+                for (double[] point : midpoints) {
+                    this.runPoint(point, out);
+                }
+            }
+
+        } finally {
+            this.restore(base);
+        }
+    }
+
+    /**
+     * Run an ensemble at the point and append it to the file, unless it is already done.
+     */
+    private void runPoint(double[] point, BufferedWriter out) throws IOException, InterruptedException {
+
+        String key = SweepPoint.keyOf(point);
+        if (this.points.containsKey(key)) {
+            return;
+        }
+
+        try {
+            for (int axis = 0; axis < point.length; ++axis) {
+                this.ensemble.setProbability(this.names.get(axis), point[axis]);
+            }
+        } catch (InvalidProbabilityException ipe) {
+            // Every value was checked when its axis was added; this should not be reachable.
+            throw new IllegalStateException(ipe.getMessage());
+        }
+
+        EnsembleStatistics statistics = new EnsembleStatistics();
+        this.ensemble.run(this.seed, this.runsPerPoint, statistics);
+
+        SweepPoint done = new SweepPoint(point, statistics);
+        this.points.put(key, done);
+
+        out.write(done.toString());
+        out.newLine();
+        out.flush();
+    }
+
+    /**
+     * Find the midpoints of neighbours along the refined axis whose outcomes differ by more
+     * than the threshold, among every point done so far.
+     */
+    private List<double[]> midpoints() {
+
+        ArrayList<double[]> midpoints = new ArrayList<double[]>();
+        int axis = this.refineAxis;
+
+        // Group the points by their values on every other axis.
+        LinkedHashMap<String, ArrayList<SweepPoint>> lines = new LinkedHashMap<String, ArrayList<SweepPoint>>();
+        for (SweepPoint point : this.points.values()) {
+            double[] others = point.getValues();
+            others[axis] = 0;
+            lines.computeIfAbsent(SweepPoint.keyOf(others), k -> new ArrayList<SweepPoint>()).add(point);
+        }
+
+        for (ArrayList<SweepPoint> line : lines.values()) {
+
+            line.sort(Comparator.comparingDouble(point -> point.getValue(axis)));
+
+            for (int i = 0; i + 1 < line.size(); ++i) {
+
+                SweepPoint low  = line.get(i);
+                SweepPoint high = line.get(i + 1);
+
+                if (Math.abs(high.getBurntFractionMean() - low.getBurntFractionMean()) <= this.refineThreshold) {
+                    continue;
+                }
+
+                double[] middle = low.getValues();
+                middle[axis] = (low.getValue(axis) + high.getValue(axis)) / 2;
+
+                // Stop once the neighbours are as close as doubles get.
+                if (middle[axis] != low.getValue(axis) && middle[axis] != high.getValue(axis)) {
+                    midpoints.add(middle);
+                }
+            }
+        }
+
+        return midpoints;
+    }
+
+    /**
+     * Load the points already in the file, and cut off a line left half written.
+     */
+    private void resume(Path path) throws IOException, InvalidSweepException {
+
+        this.points.clear();
+
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            return;
+        }
+
+        byte[] bytes = Files.readAllBytes(path);
+
+        // A sweep killed mid-write leaves a partial last line; drop it so appending starts clean.
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end < bytes.length) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+            }
+        }
+
+        String[] lines = new String(bytes, 0, end, StandardCharsets.UTF_8).split("\\R");
+        if (lines.length == 0 || lines[0].isEmpty()) {
+            return;
+        }
+
+        if (!lines[0].equals(this.settings())) {
+            throw new InvalidSweepException(path + " was swept with " + lines[0] + ", not " + this.settings() + ".");
+        }
+
+        // Killed between the two lines that start the file; nothing was run yet.
+        if (lines.length < 2) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(0);
+            }
+            return;
+        }
+
+        if (!lines[1].equals(this.header())) {
+            throw new InvalidSweepException(path + " is a sweep over " + lines[1] + ", not " + this.header() + ".");
+        }
+
+        for (int i = 2; i < lines.length; ++i) {
+            if (lines[i].isEmpty()) {
+                continue;
+            }
+            SweepPoint point;
+            try {
+                point = SweepPoint.parse(lines[i], this.names.size());
+            } catch (IllegalArgumentException iae) {
+                throw new InvalidSweepException(path + " line " + (i + 1) + ": " + iae.getMessage());
+            }
+            this.points.put(SweepPoint.keyOf(point.getValues()), point);
+        }
+    }
+
+    /**
+     * Put the swept probabilities back the way the Ensemble had them.
+     */
+    private void restore(HashMap<String, Double> base) {
+        try {
+            for (String name : this.names) {
+                if (base.containsKey(name)) {
+                    this.ensemble.setProbability(name, base.get(name));
+                } else {
+                    this.ensemble.clearProbability(name);
+                }
+            }
+        } catch (InvalidProbabilityException ipe) {
+            // They were valid when they were set; this should not be reachable.
+        }
+    }
+
+    /**
+     * Move the odometer to the next point of the grid.
+     *
+     * @return false once every point has been visited
+     */
+    private boolean advance(int[] odometer) {
+        for (int axis = odometer.length - 1; axis >= 0; --axis) {
+            if (++odometer[axis] < this.values.get(axis).length) {
+                return true;
+            }
+            odometer[axis] = 0;
+        }
+        return false;
+    }
+
+    private String header() {
+        return String.join(",", this.names).toLowerCase() + "," + SweepPoint.SUMMARY_HEADER;
+    }
+
+    /**
+     * The comment line of every setting besides the axes that decides a point's outcome.
+     * The stepping mode and parallelism don't; a seed plays out the same way with any of them.
+     */
+    private String settings() {
+
+        StringBuilder settings = new StringBuilder("# size=").append(this.ensemble.getSize())
+            .append(",boundary=").append(this.ensemble.getBoundary())
+            .append(",fires=").append(this.ensemble.getFires())
+            .append(",max_ticks=").append(this.ensemble.getMaxTicks())
+            .append(",runs_per_point=").append(this.runsPerPoint)
+            .append(",seed=").append(this.seed);
+
+        ArrayList<String> fixed = new ArrayList<String>(Ensemble.PROBABILITY_NAMES);
+        fixed.removeAll(this.names);
+        fixed.sort(null);
+        for (String name : fixed) {
+            settings.append(',').append(name.toLowerCase()).append('=').append(this.ensemble.getProbability(name));
+        }
+
+        return settings.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package Simulation.Sweep;
+
+import java.util.Arrays;
+
+import Simulation.Ensemble.EnsembleStatistics;
+
+/**
+ * <p>One point of a ParameterSweep: the value of each swept probability, and a summary
+ * of the ensemble run there.</p>
+ *
+ * <p>A point is one line of the sweep's CSV file; the values in axis order, then the summary.</p>
+ */
+public class SweepPoint {
+
+    /**
+     * Columns of the summary, after the axes.
+     */
+    static final String SUMMARY_HEADER = "runs,extinguished,burnt_fraction_mean,burnt_fraction_stddev,ticks_mean,peak_burning_mean,seconds";
+
+    private static final int SUMMARY_COLUMNS = 7;
+
+    private final double[] values;
+    private final long     runs;
+    private final long     extinguished;
+    private final double   burntFractionMean;
+    private final double   burntFractionStddev;
+    private final double   ticksMean;
+    private final double   peakBurningMean;
+    private final double   seconds;
+
+    SweepPoint(double[] values, long runs, long extinguished, double burntFractionMean, double burntFractionStddev,
+               double ticksMean, double peakBurningMean, double seconds) {
+        this.values                 = values;
+        this.runs                   = runs;
+        this.extinguished           = extinguished;
+        this.burntFractionMean      = burntFractionMean;
+        this.burntFractionStddev    = burntFractionStddev;
+        this.ticksMean              = ticksMean;
+        this.peakBurningMean        = peakBurningMean;
+        this.seconds                = seconds;
+    }
+
+    SweepPoint(double[] values, EnsembleStatistics statistics) {
+        this(values, statistics.getRuns(), statistics.getExtinguished(),
+             statistics.getBurntFraction().getMean(), statistics.getBurntFraction().getStandardDeviation(),
+             statistics.getTicks().getMean(), statistics.getPeakBurning().getMean(), sum(statistics));
+    }
+
+    /**
+     * Get the value of each swept probability, in the order the axes were added.
+     *
+     * @return double[], a copy
+     */
+    public double[] getValues() {
+        return this.values.clone();
+    }
+
+    public double getValue(int axis) {
+        return this.values[axis];
+    }
+
+    public long getRuns() {
+        return this.runs;
+    }
+
+    public long getExtinguished() {
+        return this.extinguished;
+    }
+
+    public double getBurntFractionMean() {
+        return this.burntFractionMean;
+    }
+
+    public double getBurntFractionStddev() {
+        return this.burntFractionStddev;
+    }
+
+    public double getTicksMean() {
+        return this.ticksMean;
+    }
+
+    public double getPeakBurningMean() {
+        return this.peakBurningMean;
+    }
+
+    /**
+     * Get the total time the point's runs took, summed over the workers.
+     *
+     * @return double of seconds
+     */
+    public double getSeconds() {
+        return this.seconds;
+    }
+
+    /**
+     * String representation as a line of the sweep's CSV file, without the line break.
+     */
+    public String toString() {
+        StringBuilder line = new StringBuilder();
+        for (double value : this.values) {
+            line.append(value).append(',');
+        }
+        line.append(this.runs).append(',')
+            .append(this.extinguished).append(',')
+            .append(this.burntFractionMean).append(',')
+            .append(this.burntFractionStddev).append(',')
+            .append(this.ticksMean).append(',')
+            .append(this.peakBurningMean).append(',')
+            .append(this.seconds);
+        return line.toString();
+    }
+
+    /**
+     * Read a line of a sweep's CSV file.
+     *
+     * @param line String without the line break
+     * @param axes int number of axes the sweep has
+     * @return SweepPoint
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    static SweepPoint parse(String line, int axes) {
+
+        String[] fields = line.split(",", -1);
+        if (fields.length != axes + SUMMARY_COLUMNS) {
+            throw new IllegalArgumentException("Expected " + (axes + SUMMARY_COLUMNS) + " columns, found " + fields.length);
+        }
+
+        double[] values = new double[axes];
+        for (int i = 0; i < axes; ++i) {
+            values[i] = Double.parseDouble(fields[i]);
+        }
+
+        return new SweepPoint(values,
+                              Long.parseLong(fields[axes]),
+                              Long.parseLong(fields[axes + 1]),
+                              Double.parseDouble(fields[axes + 2]),
+                              Double.parseDouble(fields[axes + 3]),
+                              Double.parseDouble(fields[axes + 4]),
+                              Double.parseDouble(fields[axes + 5]),
+                              Double.parseDouble(fields[axes + 6]));
+    }
+
+    /**
+     * Key that tells points apart by their values alone.
+     */
+    static String keyOf(double[] values) {
+        return Arrays.toString(values);
+    }
+
+    private static double sum(EnsembleStatistics statistics) {
+        return statistics.getSeconds().getMean() * statistics.getRuns();
+    }
+}
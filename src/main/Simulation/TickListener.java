@@ -0,0 +1,16 @@
+package Simulation;
+
+/**
+ * Notified by an Environment at the end of every tick.
+ */
+public interface TickListener {
+
+    /**
+     * Called once the tick is complete; getTick() and getChanges() already describe it.
+     * 
+     * Runs on whichever thread ran the tick, and holds up the next tick until it returns.
+     * 
+     * @param environment Environment that ticked
+     */
+    void tickCompleted(Environment environment);
+}
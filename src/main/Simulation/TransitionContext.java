@@ -0,0 +1,54 @@
+package Simulation;
+
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChangeSet;
+import Simulation.Grid.IndexList;
+import Simulation.Random.RandomSource;
+
+/**
+ * Everything a worker needs of its own while running transition protocols,
+ * so several workers can share one Environment during a tick.
+ */
+class TransitionContext {
+
+    final RandomSource  random;
+    final IndexList     ignitions;                         // GrassCells this worker set alight, may be null.
+    final ChangeSet     changes;                           // Cells this worker changed.
+    final long[]        population;                        // Change in the number of cells in each state.
+
+    /**
+     * @param random RandomSource owned by the worker
+     * @param ignitions IndexList to record newly ignited cells in, may be null
+     * @param changes ChangeSet to record changed cells in
+     * @param population long[] of CellGrid.STATE_COUNT counts to add the changes in population to
+     */
+    TransitionContext(RandomSource random, IndexList ignitions, ChangeSet changes, long[] population) {
+        this.random     = random;
+        this.ignitions  = ignitions;
+        this.changes    = changes;
+        this.population = population;
+    }
+
+    /**
+     * Create a context for another worker; its own copy of the random source, 
+     * no ignition list, and nothing changed yet.
+     * 
+     * @param cellCount number of cells on the board
+     * @return TransitionContext
+     */
+    TransitionContext fork(long cellCount) {
+        return new TransitionContext(this.random.copy(), null, new ChangeSet(cellCount), new long[CellGrid.STATE_COUNT]);
+    }
+
+    /**
+     * Add everything another worker changed to this context.
+     * 
+     * @param other TransitionContext of the other worker
+     */
+    void merge(TransitionContext other) {
+        this.changes.addAll(other.changes);
+        for (int state = 0; state < CellGrid.STATE_COUNT; ++state) {
+            this.population[state] += other.population[state];
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package Simulation;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import Simulation.Grid.CellGrid;
+import Simulation.Random.SplitMixSource;
+
+/**
+ * <p>RowKernel built on the Vector API; the kernel behind SteppingMode.VECTOR.</p>
+ * 
+ * <p>Each row is read a full byte vector of cells at a time, and a single compare finds
+ * the burning and burnt cells among them; on most of a board there are none and the whole
+ * vector is skipped. Where there are, the first roll of every cell's random stream is worked
+ * out in long lanes, with the SplitMix64 arithmetic of SplitMixSource.seek() and nextLong()
+ * done lane-wise, and compared against the probabilities as integers.</p>
+ * 
+ * <p>That first roll decides every burnt cell, and every burning cell that burns out straight
+ * away. A burning cell that survives it falls back to the scalar transition protocol, since
+ * walking its neighborhood draws a varying number of rolls; so does the end of a row too short
+ * for a full vector. The outcome matches Environment.sweepRows() roll for roll.</p>
+ * 
+ * <p>Only ever created by reflection, so the rest of the simulation compiles and runs without
+ * the jdk.incubator.vector module. Only works with a SplitMixSource; with any other random
+ * source it hands the rows to the scalar kernel.</p>
+ * 
+ * <p>Each Environment has its own kernel, which keeps the row and rolls it works in between
+ * ticks, so it must only sweep one band of rows at a time.</p>
+ */
+final class VectorKernel implements RowKernel {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    private static final long[] LANE_OFFSETS = new long[LONGS.length()];   // 0, 1, 2, ...
+
+    static {
+        for (int i = 0; i < LANE_OFFSETS.length; ++i) {
+            LANE_OFFSETS[i] = i;
+        }
+    }
+
+    private byte[] row   = new byte[0];                                   // Cells of the row being swept.
+    private long[] rolls = new long[BYTES.length()];                      // First roll of each of a vector's cells.
+
+    @Override
+    public boolean sweepRows(Environment environment, int fromRow, int toRow, TransitionContext context) {
+
+        if (!(context.random instanceof SplitMixSource)) {
+            return environment.sweepRows(fromRow, toRow, context);
+        }
+
+        CellGrid grid = environment.getGrid();
+        int size = grid.getSize();
+
+        long base           = SplitMixSource.tickBase(context.random.getSeed(), environment.getTick());
+        long burnout        = threshold(environment.getBurnoutProbability());
+        long resurrection   = threshold(environment.getResurrectionProbability());
+
+        if (this.row.length != size) {
+            this.row = new byte[size];
+        }
+        byte[] row   = this.row;
+        long[] rolls = this.rolls;
+        int    bound = BYTES.loopBound(size);
+
+        boolean somethingBurning = false;
+
+        for (int y = fromRow; y < toRow; ++y) {
+
+            grid.getRow(y, row);
+            long rowStart = grid.index(0, y);
+
+            int x = 0;
+            for (; x < bound; x += BYTES.length()) {
+
+                // Burning and burnt are the two highest states.
+                VectorMask<Byte> active = ByteVector.fromArray(BYTES, row, x).compare(VectorOperators.GE, CellGrid.BURNING);
+                if (!active.anyTrue()) {
+                    continue;
+                }
+
+                firstRolls(base, rowStart + x, rolls);
+
+                for (long lanes = active.toLong(); lanes != 0; lanes &= lanes - 1) {
+
+                    int  lane  = Long.numberOfTrailingZeros(lanes);
+                    long index = rowStart + x + lane;
+
+                    if (row[x + lane] == CellGrid.BURNT) {
+                        if (rolls[lane] < resurrection) {
+                            environment.transition(index, CellGrid.GRASS, context);
+                        }
+                        continue;
+                    }
+
+                    somethingBurning = true;
+                    if (rolls[lane] < burnout) {
+                        environment.transition(index, CellGrid.BURNT, context);
+                    } else {
+                        environment.transitionProtocol(x + lane, y, context);
+                    }
+                }
+            }
+
+            // The end of the row, one cell at a time.
+            for (; x < size; ++x) {
+                if (row[x] == CellGrid.BURNING) {
+                    somethingBurning = true;
+                    environment.transitionProtocol(x, y, context);
+                } else if (row[x] == CellGrid.BURNT) {
+                    environment.transitionProtocol(x, y, context);
+                }
+            }
+        }
+
+        return somethingBurning;
+    }
+
+    /**
+     * Work out the top 53 bits of the first draw of the streams of consecutive cells.
+     * 
+     * @param base long of SplitMixSource.tickBase() for the tick
+     * @param firstIndex long index of the first cell
+     * @param rolls long[] to fill, one draw per cell
+     */
+    private static void firstRolls(long base, long firstIndex, long[] rolls) {
+
+        LongVector offsets = LongVector.fromArray(LONGS, LANE_OFFSETS, 0);
+
+        for (int i = 0; i < rolls.length; i += LONGS.length()) {
+
+            LongVector keys  = offsets.add(firstIndex + i);
+            LongVector state = mix64(keys.mul(SplitMixSource.KEY_GAMMA).lanewise(VectorOperators.XOR, base));
+
+            mix64(state.add(SplitMixSource.GOLDEN_GAMMA)).lanewise(VectorOperators.LSHR, 11).intoArray(rolls, i);
+        }
+    }
+
+    /**
+     * SplitMixSource.mix64() on every lane.
+     */
+    private static LongVector mix64(LongVector z) {
+        z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 30)).mul(0xBF58476D1CE4E5B9L);
+        z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 27)).mul(0x94D049BB133111EBL);
+        return z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 31));
+    }
+
+    /**
+     * Turn a probability into the bound a draw's top 53 bits are compared against;
+     * nextDouble() &lt; probability exactly when (nextLong() &gt;&gt;&gt; 11) &lt; threshold(probability).
+     */
+    private static long threshold(double probability) {
+        return (long) Math.ceil(probability * 0x1p53);
+    }
+}
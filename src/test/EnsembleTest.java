@@ -0,0 +1,91 @@
+package test;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.fail;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import Exceptions.InvalidProbabilityException;
+import Simulation.Environment;
+import Simulation.Ensemble.Ensemble;
+import Simulation.Ensemble.EnsembleStatistics;
+import Simulation.Ensemble.RunResult;
+import Simulation.Grid.CellGrid;
+
+public class EnsembleTest {
+
+    @Test
+    public void ensembleTest() throws Exception {
+
+        Ensemble ensemble = new Ensemble(80);
+        try {
+            ensemble.setProbability("Ignition", .6);
+            ensemble.setProbability("Combustion", 0);
+        } catch (InvalidProbabilityException ipe) {
+            fail("TESTING ERROR: The creator of this test screwed up.");
+        }
+        ensemble.setParallelism(3);
+
+        HashMap<Integer, RunResult> results = new HashMap<Integer, RunResult>();
+        EnsembleStatistics statistics = new EnsembleStatistics();
+
+        ensemble.run(100, 40, result -> {
+            assertTrue(results.put(result.getRun(), result) == null);      // Each run is reported once.
+            statistics.runCompleted(result);
+        });
+
+        assertTrue(results.size() == 40);
+        assertTrue(statistics.getRuns() == 40);
+        assertTrue(statistics.getExtinguished() == 40);
+        for (RunResult result : results.values()) {
+            assertTrue(result.getSeed() == 100 + result.getRun());
+            assertTrue(result.getBurntFraction() > 0 && result.getBurntFraction() <= 1);
+            assertTrue(result.getPeakBurning() >= 1);
+        }
+
+        // The same seeds play out the same way on a single reused Environment.
+        ensemble.setParallelism(1);
+        ensemble.run(100, 40, result -> {
+            RunResult first = results.get(result.getRun());
+            assertTrue(first.getTicks() == result.getTicks());
+            assertTrue(first.getBurntFraction() == result.getBurntFraction());
+            assertTrue(first.getPeakBurning() == result.getPeakBurning());
+        });
+
+        // And the same way as an Environment reset by hand.
+        Environment environment = new Environment(80, 7);
+        environment.setProbability("Ignition", .6);
+        environment.setProbability("Combustion", 0);
+        environment.reset(105);
+        environment.setFire();
+        while (environment.isBurning()) {
+            environment.implementTransitions();
+        }
+        assertTrue(environment.getTick() == results.get(5).getTicks());
+        assertTrue(environment.getPopulation(CellGrid.BURNT) == Math.round(results.get(5).getBurntFraction() * 80 * 80));
+
+        // A cleared probability goes back to its default on a reused Environment.
+        Ensemble defaults = new Ensemble(80);
+        defaults.setProbability("Combustion", 0);
+        defaults.setParallelism(1);
+        HashMap<Integer, RunResult> expected = new HashMap<Integer, RunResult>();
+        defaults.run(200, 5, result -> expected.put(result.getRun(), result));
+
+        ensemble.setProbability("Burnout", 1);
+        ensemble.clearProbability("Ignition");
+        ensemble.run(200, 5, result -> assertTrue(result.getPeakBurning() == 1));     // Every fire goes out at once.
+
+        ensemble.clearProbability("Burnout");
+        ensemble.run(200, 5, result -> {
+            RunResult first = expected.get(result.getRun());
+            assertTrue(first.getTicks() == result.getTicks());
+            assertTrue(first.getBurntFraction() == result.getBurntFraction());
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> ensemble.setProbability("Wind", .5));
+        assertThrows(InvalidProbabilityException.class, () -> ensemble.setProbability("Burnout", 2));
+    }
+}
@@ -1,17 +1,28 @@
 package test;
 
 import Simulation.Environment;
+import Simulation.SteppingMode;
 import Simulation.Cells.Cell;
+import Simulation.Cells.PositionedCell;
 import Simulation.Cells.Nature.BurningCell;
-import Simulation.Cells.Nature.BurntCell;
 import Simulation.Cells.Nature.GrassCell;
 import Simulation.Cells.Nature.StoneCell;
+import Simulation.Grid.BitGrid;
+import Simulation.Grid.Boundary;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChunkedGrid;
+import Simulation.Grid.MappedGrid;
+import Simulation.Grid.PackedGrid;
+import Simulation.Grid.PaddedGrid;
 
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.fail;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Random;
@@ -21,8 +32,10 @@ import javax.management.remote.TargetedNotification;
 import javax.sound.sampled.AudioFormat.Encoding;
 import javax.swing.tree.TreeNode;
 
+import org.junit.Assume;
 import org.junit.Test;
 
+import Exceptions.InvalidCheckpointException;
 import Exceptions.InvalidProbabilityException;
 
 
@@ -111,9 +124,9 @@ public class EnvironmentTest {
         setup();
         environment = new Environment(500);
 
-        Cell[][] cellMatrix = environment.getCellMatrix();
-        Cell cell;
-        Cell[] neighborhood;
+        PositionedCell[][] cellMatrix = environment.getCellMatrix();
+        PositionedCell cell;
+        PositionedCell[] neighborhood;
 
         // Correct positions
         cell = cellMatrix[50][50];
@@ -188,14 +201,14 @@ public class EnvironmentTest {
             int randomY = rand.nextInt(450);
 
             // Stone cell never changes
-            StoneCell stoneCell = new StoneCell(randomX, randomY);                          // Create a new StoneCell
+            PositionedCell stoneCell = new PositionedCell(CellGrid.STONE, randomX, randomY); // Create a new StoneCell
             environment.setCell(randomX, randomY, stoneCell);                               // Place it on the matrix
 
             environment.transitionProtocol(environment.getCell(randomX, randomY));          // Run the transition protocol
 
             Cell[][] transionMatrix = environment.getTransitionMatrix();                    // Grab the cell from the transitionMatrix
 
-            assertTrue(transionMatrix[randomY][randomX].getClass() == StoneCell.class);     // Ensure it hasn't changed
+            assertTrue(transionMatrix[randomY][randomX].getState() == CellGrid.STONE);      // Ensure it hasn't changed
         }
        
         // BurningCell burns out
@@ -207,14 +220,14 @@ public class EnvironmentTest {
             int randomX = rand.nextInt(450);
             int randomY = rand.nextInt(450);
 
-            BurningCell burningCell = new BurningCell(randomX, randomY);                    // Create a new BurningCell
+            PositionedCell burningCell = new PositionedCell(CellGrid.BURNING, randomX, randomY); // Create a new BurningCell
             environment.setCell(randomX, randomY, burningCell);                             // Place it on the matrix
 
             environment.transitionProtocol(environment.getCell(randomX, randomY));          // Run the transition protocol
 
             Cell[][] transionMatrix = environment.getTransitionMatrix();                    // Grab the cell from the transitionMatrix
 
-            assertTrue(transionMatrix[randomY][randomX].getClass() == BurntCell.class);     // Ensure it has transitioned to BurntCell
+            assertTrue(transionMatrix[randomY][randomX].getState() == CellGrid.BURNT);      // Ensure it has transitioned to BurntCell
         }
 
         // BurningCell catches GrassCell neighbor
@@ -233,10 +246,10 @@ public class EnvironmentTest {
             int randomX = rand.nextInt(450);
             int randomY = rand.nextInt(450);
 
-            BurningCell burningCell = new BurningCell(randomX, randomY);                    // Create a new BurningCell
+            PositionedCell burningCell = new PositionedCell(CellGrid.BURNING, randomX, randomY); // Create a new BurningCell
             environment.setCell(randomX, randomY, burningCell);                             // Place it on the matrix
 
-            Cell[] neighbors = environment.getVanNeumannNeighborhood(burningCell, 2);     // Get its neighboring cells
+            PositionedCell[] neighbors = environment.getVanNeumannNeighborhood(burningCell, 2); // Get its neighboring cells
             for (int j = 0; j < neighbors.length; ++j) {                                    // Turn them all to GrassCells
 
                 if (neighbors[j] == null) {
@@ -249,7 +262,7 @@ public class EnvironmentTest {
                     continue;
                 }
 
-                GrassCell grassCell = new GrassCell(xPos, yPos);
+                PositionedCell grassCell = new PositionedCell(CellGrid.GRASS, xPos, yPos);
                 environment.setCell(xPos, yPos, grassCell);
             }                            
 
@@ -258,13 +271,13 @@ public class EnvironmentTest {
             neighbors = environment.getVanNeumannNeighborhood(burningCell, 2);            // Check the neighborhood after transitions.
 
             int numberOfBurning = 0;
-            for (Cell cell : neighbors) {
+            for (PositionedCell cell : neighbors) {
 
                 if (cell == null) {
                     continue;
                 }
 
-                if (cell.getClass() == BurningCell.class) {
+                if (cell.getState() == CellGrid.BURNING) {
                     numberOfBurning++;
                 }
             }
@@ -290,10 +303,10 @@ public class EnvironmentTest {
             int randomX = rand.nextInt(450);
             int randomY = rand.nextInt(450);
 
-            BurningCell burningCell = new BurningCell(randomX, randomY);                    // Create a new BurningCell
+            PositionedCell burningCell = new PositionedCell(CellGrid.BURNING, randomX, randomY); // Create a new BurningCell
             environment.setCell(randomX, randomY, burningCell);                             // Place it on the matrix
 
-            Cell[] neighbors = environment.getVanNeumannNeighborhood(burningCell, 2);     // Get its neighboring cells
+            PositionedCell[] neighbors = environment.getVanNeumannNeighborhood(burningCell, 2); // Get its neighboring cells
             for (int j = 0; j < neighbors.length; ++j) {                                    // Turn them all to StoneCells
 
                 if (neighbors[j] == null) {
@@ -306,7 +319,7 @@ public class EnvironmentTest {
                     continue;
                 }
 
-                StoneCell stoneCell = new StoneCell(xPos, yPos);
+                PositionedCell stoneCell = new PositionedCell(CellGrid.STONE, xPos, yPos);
                 environment.setCell(xPos, yPos, stoneCell);
                 
             }                            
@@ -314,7 +327,7 @@ public class EnvironmentTest {
             environment.implementTransitions();
             neighbors = environment.getVanNeumannNeighborhood(burningCell, 2);
 
-            for (Cell cell : neighbors) {
+            for (PositionedCell cell : neighbors) {
 
                 if (cell == null) {
                     continue;
@@ -324,7 +337,7 @@ public class EnvironmentTest {
                     continue;
                 }
 
-                assertTrue(cell.getClass() == StoneCell.class);
+                assertTrue(cell.getState() == CellGrid.STONE);
             }
             
         }
@@ -349,13 +362,13 @@ public class EnvironmentTest {
             int randomX = rand.nextInt(450);
             int randomY = rand.nextInt(450);
 
-            GrassCell grassCell = new GrassCell(randomX, randomY);                          // Create a new BurningCell
+            PositionedCell grassCell = new PositionedCell(CellGrid.GRASS, randomX, randomY); // Create a new BurningCell
             environment.setCell(randomX, randomY, grassCell);                               // Place it on the matrix
             System.out.println(environment.getCell(randomX, randomY));
             environment.implementTransitions();
 
             System.out.println(environment.getCell(randomX, randomY).getClass());
-            assertTrue(environment.getCell(randomX, randomY).getClass() == BurningCell.class);
+            assertTrue(environment.getCell(randomX, randomY).getState() == CellGrid.BURNING);
         }
    
         // BurntCell resurrects into GrassCell
@@ -375,17 +388,770 @@ public class EnvironmentTest {
             int randomX = rand.nextInt(450);
             int randomY = rand.nextInt(450);
 
-            BurntCell burntCell = new BurntCell(randomX, randomY);                          // Create a new BurntCell
+            PositionedCell burntCell = new PositionedCell(CellGrid.BURNT, randomX, randomY); // Create a new BurntCell
             environment.setCell(randomX, randomY, burntCell);                               // Place it on the matrix
             
             environment.implementTransitions();                                             // Implement transitions
 
-            assertTrue(environment.getCell(randomX, randomY).getClass() == GrassCell.class);
+            assertTrue(environment.getCell(randomX, randomY).getState() == CellGrid.GRASS);
         }
         */
     }
 
 
+    @Test
+    public void stateMatrixTest() {
+
+        setup();
+        environment = new Environment(100);
+
+        // Every state has one shared instance describing it.
+        for (byte state = 0; state < CellGrid.STATE_COUNT; ++state) {
+            assertTrue(Cell.forState(state).getState() == state);
+            assertTrue(Cell.forState(state) == Cell.forState(state));
+        }
+        assertTrue(Cell.forState(CellGrid.GRASS) == GrassCell.INSTANCE);
+        assertTrue(GrassCell.INSTANCE.getColor() == GrassCell.COLOR);
+
+        // Positions are held by the views handed out, which share the instances.
+        environment.setFire(3, 4);
+        PositionedCell burning = environment.getCell(3, 4);
+        assertTrue(burning.getCell() == BurningCell.INSTANCE);
+        assertTrue(burning.getColor() == BurningCell.COLOR);
+        assertTrue(burning.getxPosition() == 3 && burning.getyPosition() == 4);
+        assertTrue(burning.equals(new PositionedCell(CellGrid.BURNING, 3, 4)));
+        assertTrue(new PositionedCell(burning, 5, 6).getCell() == BurningCell.INSTANCE);
+
+        Cell[][] first = environment.getStateMatrix();
+        environment.setFire(10, 10);
+        environment.implementTransitions();
+        Cell[][] second = environment.getStateMatrix();
+
+        // The matrix is refreshed in place and only holds shared instances.
+        assertTrue(first == second);
+        for (int y = 0; y < 100; ++y) {
+            for (int x = 0; x < 100; ++x) {
+                assertTrue(second[y][x] == Cell.forState(environment.getGrid().get(x, y)));
+            }
+        }
+    }
+
+    @Test
+    public void frontierTest() {
+
+        setup();
+
+        Random rand = new Random();
+        rand.setSeed(System.currentTimeMillis());
+
+        // BurningCell catches exactly one GrassCell neighbor
+        for (int i = 0; i < 11; ++i) {
+
+            environment = new Environment(200);
+            environment.setSteppingMode(SteppingMode.FRONTIER);
+
+            try {
+                environment.setGenerativeProbability(1);                        // Only GrassCells on the board
+                environment.setIgnitionProbability(1);
+                environment.setBurnoutProbability(0);
+            } catch (Exception e) {
+                fail("TESTING ERROR: The creator of this test screwed up.");
+            }
+
+            int randomX = rand.nextInt(200);
+            int randomY = rand.nextInt(200);
+            environment.setFire(randomX, randomY);
+
+            environment.implementTransitions();
+
+            assertTrue(countState(CellGrid.BURNING) == 2);
+        }
+
+        // Switching modes mid-run keeps the live and next buffers in step
+        environment = new Environment(200);
+        environment.setFire(100, 100);
+
+        for (int tick = 0; tick < 60; ++tick) {
+
+            environment.setSteppingMode((tick / 10) % 2 == 0 ? SteppingMode.FRONTIER : SteppingMode.SWEEP);
+            environment.implementTransitions();
+
+            if (environment.getSteppingMode() == SteppingMode.FRONTIER) {
+                CellGrid grid = environment.getGrid();
+                for (long index = 0; index < grid.getCellCount(); ++index) {
+                    assertTrue(grid.get(index) == grid.getNext(index));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parallelTest() {
+
+        setup();
+
+        // Ignitions across band borders still only catch one neighbor per BurningCell.
+        // On 300 rows with 4 threads, two of the borders between bands are at rows 75 and 150;
+        // each row of fires sits right next to one, on one side or the other.
+        int[] rows    = {74, 75, 149, 150};
+        int[] borders = {75, 75, 150, 150};
+
+        for (int i = 0; i < 12; ++i) {
+
+            environment = new Environment(300);
+            environment.setSteppingMode(SteppingMode.PARALLEL);
+            environment.setParallelism(4);
+
+            try {
+                environment.setGenerativeProbability(1);
+                environment.setIgnitionProbability(1);
+                environment.setBurnoutProbability(0);
+            } catch (Exception e) {
+                fail("TESTING ERROR: The creator of this test screwed up.");
+            }
+
+            // A row of fires five cells apart, so no two share a neighbor
+            int row = rows[i % rows.length];
+            for (int x = 0; x < 300; x += 5) {
+                environment.setFire(x, row);
+            }
+
+            environment.implementTransitions();
+
+            assertTrue(countState(CellGrid.BURNING) == 2 * 60);
+
+            // Some of the fires caught over the border, within the neighborhood's two rows of it.
+            int border = borders[i % rows.length];
+            int from   = row < border ? border : border - 2;
+            int caught = 0;
+            for (int y = from; y < from + 2; ++y) {
+                for (int x = 0; x < 300; ++x) {
+                    if (environment.getGrid().get(x, y) == CellGrid.BURNING) {
+                        caught++;
+                    }
+                }
+            }
+            assertTrue(caught > 0);
+        }
+    }
+
+    @Test
+    public void seededTest() {
+
+        setup();
+
+        long seed = System.currentTimeMillis();
+
+        // The same seed plays out the same way, whatever the stepping mode or thread count.
+        Environment reference = seededEnvironment(seed, SteppingMode.SWEEP, 1);
+
+        Environment[] others = {
+            seededEnvironment(seed, SteppingMode.FRONTIER, 1),
+            seededEnvironment(seed, SteppingMode.PARALLEL, 1),
+            seededEnvironment(seed, SteppingMode.PARALLEL, 3),
+            seededEnvironment(seed, SteppingMode.VECTOR, 1),
+        };
+
+        for (int tick = 0; tick < 40; ++tick) {
+
+            reference.implementTransitions();
+
+            for (Environment other : others) {
+                other.implementTransitions();
+
+                CellGrid expected = reference.getGrid();
+                CellGrid actual   = other.getGrid();
+                for (long index = 0; index < expected.getCellCount(); ++index) {
+                    assertTrue(expected.get(index) == actual.get(index));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void vectorTest() {
+
+        setup();
+
+        // Without the jdk.incubator.vector module VECTOR sweeps like SWEEP, and there is nothing to compare.
+        // The makefile next to the tests adds it; run them without it and this is skipped.
+        Assume.assumeTrue(Environment.isVectorAvailable());
+
+        long seed = System.currentTimeMillis();
+
+        // Rows that don't fill a whole number of vectors, a board full of fire, and burnt cells growing back.
+        for (int size : new int[] {101, 64, 7}) {
+
+            Environment[] environments = new Environment[2];
+            SteppingMode[] modes = {SteppingMode.SWEEP, SteppingMode.VECTOR};
+
+            for (int i = 0; i < 2; ++i) {
+                environments[i] = new Environment(size, seed + size);
+                environments[i].setSteppingMode(modes[i]);
+                try {
+                    environments[i].setBurnoutProbability(.3);
+                    environments[i].setResurrectionProbability(.2);
+                    environments[i].setIgnitionProbability(.9);
+                    environments[i].setSpontaneousCombustionProbability(.01);
+                } catch (Exception e) {
+                    fail("TESTING ERROR: The creator of this test screwed up.");
+                }
+                for (int fire = 0; fire < size; ++fire) {
+                    environments[i].setFire();
+                }
+            }
+
+            for (int tick = 0; tick < 60; ++tick) {
+
+                environments[0].implementTransitions();
+                environments[1].implementTransitions();
+
+                CellGrid expected = environments[0].getGrid();
+                CellGrid actual   = environments[1].getGrid();
+                for (long index = 0; index < expected.getCellCount(); ++index) {
+                    assertTrue(expected.get(index) == actual.get(index));
+                }
+                assertTrue(Arrays.equals(environments[0].getPopulations(), environments[1].getPopulations()));
+            }
+        }
+    }
+
+    @Test
+    public void bitboardTest() {
+
+        setup();
+
+        Environment bits   = new Environment(new BitGrid(101), 9);
+        Environment packed = new Environment(new PackedGrid(101), 9);
+
+        // With certain ignition and no burnout, the fire is exactly the neighborhood grown once per tick.
+        for (Environment environment : new Environment[] {bits, packed}) {
+            try {
+                environment.setGenerativeProbability(1);
+                environment.setIgnitionProbability(1);
+                environment.setBurnoutProbability(0);
+                environment.setSpontaneousCombustionProbability(0);
+            } catch (Exception e) {
+                fail("TESTING ERROR: The creator of this test screwed up.");
+            }
+            environment.setSteppingMode(SteppingMode.BITBOARD);
+            environment.setFire(50, 50);
+        }
+
+        for (int tick = 1; tick <= 20; ++tick) {
+
+            bits.implementTransitions();
+            packed.implementTransitions();
+
+            for (int y = 0; y < 101; ++y) {
+                for (int x = 0; x < 101; ++x) {
+                    boolean reached = Math.abs(x - 50) + Math.abs(y - 50) <= 2 * tick;
+                    assertTrue((bits.getGrid().get(x, y) == CellGrid.BURNING) == reached);
+                    assertTrue(packed.getGrid().get(x, y) == bits.getGrid().get(x, y));
+                }
+            }
+        }
+
+        // Reading the planes straight from a BitGrid plays out the same as building them from any other grid.
+        bits   = new Environment(new BitGrid(130), 4);
+        packed = new Environment(new PackedGrid(130), 4);
+
+        for (Environment environment : new Environment[] {bits, packed}) {
+            try {
+                environment.setIgnitionProbability(.6);
+                environment.setBurnoutProbability(.2);
+                environment.setResurrectionProbability(.1);
+            } catch (Exception e) {
+                fail("TESTING ERROR: The creator of this test screwed up.");
+            }
+            environment.setSteppingMode(SteppingMode.BITBOARD);
+            environment.setFire();
+            environment.setFire();
+        }
+
+        for (int tick = 0; tick < 40; ++tick) {
+
+            bits.implementTransitions();
+            packed.implementTransitions();
+
+            for (long index = 0; index < bits.getGrid().getCellCount(); ++index) {
+                assertTrue(bits.getGrid().get(index) == packed.getGrid().get(index));
+            }
+        }
+    }
+
+    @Test
+    public void boundaryTest() {
+
+        setup();
+
+        for (Boundary boundary : Boundary.values()) {
+
+            // A fire in the corner of an all stone board, with a GrassCell to its right and one across the left edge.
+            for (CellGrid grid : new CellGrid[] {new PackedGrid(50), new PaddedGrid(50)}) {
+
+                environment = new Environment(grid, 8);
+                try {
+                    environment.setGenerativeProbability(0);
+                    environment.setIgnitionProbability(1);
+                    environment.setBurnoutProbability(0);
+                    environment.setSpontaneousCombustionProbability(0);
+                } catch (Exception e) {
+                    fail("TESTING ERROR: The creator of this test screwed up.");
+                }
+                environment.setBoundary(boundary);
+                environment.setCell(new PositionedCell(CellGrid.GRASS, 1, 0));
+                environment.setCell(new PositionedCell(CellGrid.GRASS, 49, 0));
+                environment.setFire(0, 0);
+
+                environment.implementTransitions();
+
+                boolean right = grid.get(1, 0) == CellGrid.BURNING;
+                boolean left  = grid.get(49, 0) == CellGrid.BURNING;
+
+                if (boundary == Boundary.CLAMPED) {
+                    assertTrue(right && !left);
+                } else if (boundary == Boundary.TOROIDAL) {
+                    assertTrue(right != left);                      // Only one neighbor catches per tick.
+                } else {
+                    assertTrue(!right && !left);                    // Both walks reach past the edge first.
+                }
+                assertTrue(grid.get(0, 0) == CellGrid.BURNING);
+            }
+
+            // The halo plays out exactly like checking each neighbor against the edge, in every mode.
+            Environment reference = seededEnvironment(17, SteppingMode.SWEEP, 1);
+            reference.setBoundary(boundary);
+
+            Environment[] others = new Environment[3];
+            SteppingMode[] modes = {SteppingMode.SWEEP, SteppingMode.FRONTIER, SteppingMode.PARALLEL};
+            for (int i = 0; i < others.length; ++i) {
+                others[i] = new Environment(new PaddedGrid(150), 17);
+                try {
+                    others[i].setBurnoutProbability(.1);
+                    others[i].setResurrectionProbability(.05);
+                    others[i].setIgnitionProbability(.8);
+                } catch (Exception e) {
+                    fail("TESTING ERROR: The creator of this test screwed up.");
+                }
+                others[i].setSteppingMode(modes[i]);
+                others[i].setParallelism(3);
+                others[i].setBoundary(boundary);
+                others[i].setFire();
+                others[i].setFire();
+            }
+
+            for (int tick = 0; tick < 60; ++tick) {
+
+                reference.implementTransitions();
+
+                for (Environment other : others) {
+                    other.implementTransitions();
+                    for (long index = 0; index < reference.getGrid().getCellCount(); ++index) {
+                        assertTrue(reference.getGrid().get(index) == other.getGrid().get(index));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void chunkedTest() {
+
+        setup();
+
+        // Same seed, same fire, whether the board is swept or only its frontier is visited.
+        Environment frontier = new Environment(new ChunkedGrid(300), 12);
+        Environment sweep    = new Environment(new ChunkedGrid(300), 12);
+
+        for (Environment environment : new Environment[] {frontier, sweep}) {
+            try {
+                environment.setIgnitionProbability(.8);
+                environment.setBurnoutProbability(.1);
+                environment.setResurrectionProbability(.05);
+            } catch (Exception e) {
+                fail("TESTING ERROR: The creator of this test screwed up.");
+            }
+            environment.setFire();
+        }
+        frontier.setSteppingMode(SteppingMode.FRONTIER);
+        sweep.setSteppingMode(SteppingMode.SWEEP);
+
+        for (int tick = 0; tick < 40; ++tick) {
+            frontier.implementTransitions();
+            sweep.implementTransitions();
+            for (long index = 0; index < frontier.getGrid().getCellCount(); ++index) {
+                assertTrue(frontier.getGrid().get(index) == sweep.getGrid().get(index));
+            }
+        }
+
+        // A big board only allocates the tiles the fire reached.
+        ChunkedGrid grid = new ChunkedGrid(20000);
+        environment = new Environment(grid, 3);
+        environment.setSteppingMode(SteppingMode.FRONTIER);
+        environment.setFire();
+        for (int tick = 0; tick < 30; ++tick) {
+            environment.implementTransitions();
+        }
+
+        long total = 0;
+        for (long count : environment.getPopulations()) {
+            total += count;
+        }
+        assertTrue(total == grid.getCellCount());
+        assertTrue(grid.getMaterializedTiles() < 20);
+    }
+
+    @Test
+    public void clusterTest() {
+
+        setup();
+
+        // Without resurrection the scar is every cell burning or burnt now, so the tracker
+        // has to agree with labelling the board from scratch after every tick.
+        for (SteppingMode mode : new SteppingMode[] {SteppingMode.SWEEP, SteppingMode.FRONTIER}) {
+
+            environment = new Environment(120, 31);
+            try {
+                environment.setIgnitionProbability(.7);
+                environment.setBurnoutProbability(.2);
+                environment.setResurrectionProbability(0);
+                environment.setSpontaneousCombustionProbability(.5);
+            } catch (Exception e) {
+                fail("TESTING ERROR: The creator of this test screwed up.");
+            }
+            environment.setSteppingMode(mode);
+            environment.setFire();
+
+            assertThrows(IllegalStateException.class, () -> environment.getClusterCount());
+            environment.setClusterTracking(true);
+
+            for (int tick = 0; tick < 60; ++tick) {
+                environment.implementTransitions();
+                int[] labelled = labelClusters(environment.getGrid(), false);
+                assertTrue(environment.getClusterCount() == labelled[0]);
+                assertTrue(environment.getLargestCluster() == labelled[1]);
+                assertTrue(environment.isSpanning() == (labelled[2] == 1));
+            }
+
+            // A new board starts a new scar.
+            environment.reset(32);
+            assertTrue(environment.getClusterCount() == 0 && !environment.isSpanning());
+        }
+
+        // On a torus, scar across an edge joins up with the scar on the other side.
+        environment = new Environment(60, 33);
+        try {
+            environment.setIgnitionProbability(.8);
+            environment.setBurnoutProbability(.2);
+            environment.setResurrectionProbability(0);
+            environment.setSpontaneousCombustionProbability(.5);
+        } catch (Exception e) {
+            fail("TESTING ERROR: The creator of this test screwed up.");
+        }
+        environment.setClusterTracking(true);
+        environment.setBoundary(Boundary.TOROIDAL);
+        assertTrue(environment.getClusters().getBoundary() == Boundary.TOROIDAL);
+        environment.setFire(0, 30);
+        environment.setFire(59, 30);
+
+        boolean wrapped = false;
+        for (int tick = 0; tick < 60; ++tick) {
+            environment.implementTransitions();
+            int[] labelled = labelClusters(environment.getGrid(), true);
+            int[] flat     = labelClusters(environment.getGrid(), false);
+            assertTrue(environment.getClusterCount() == labelled[0]);
+            assertTrue(environment.getLargestCluster() == labelled[1]);
+            wrapped |= labelled[0] < flat[0];
+        }
+        assertTrue(wrapped);
+
+        environment.setClusterTracking(false);
+        assertFalse(environment.isClusterTracking());
+    }
+
+    @Test
+    public void mappedTest() throws Exception {
+
+        setup();
+
+        // A board kept in a file plays out exactly like one kept in memory, in every mode.
+        Environment reference = seededEnvironment(31, SteppingMode.SWEEP, 1);
+
+        SteppingMode[] modes = {SteppingMode.SWEEP, SteppingMode.FRONTIER, SteppingMode.PARALLEL, SteppingMode.VECTOR};
+        MappedGrid[] grids = new MappedGrid[modes.length];
+        Environment[] others = new Environment[modes.length];
+
+        try {
+            for (int i = 0; i < modes.length; ++i) {
+                grids[i] = MappedGrid.temporary(150);
+                others[i] = new Environment(grids[i], 31);
+                try {
+                    others[i].setBurnoutProbability(.1);
+                    others[i].setResurrectionProbability(.05);
+                    others[i].setIgnitionProbability(.8);
+                } catch (Exception e) {
+                    fail("TESTING ERROR: The creator of this test screwed up.");
+                }
+                others[i].setSteppingMode(modes[i]);
+                others[i].setParallelism(3);
+                others[i].setFire();
+                others[i].setFire();
+            }
+
+            for (int tick = 0; tick < 40; ++tick) {
+
+                reference.implementTransitions();
+
+                for (Environment other : others) {
+                    other.implementTransitions();
+                    for (long index = 0; index < reference.getGrid().getCellCount(); ++index) {
+                        assertTrue(reference.getGrid().get(index) == other.getGrid().get(index));
+                    }
+                }
+            }
+        } finally {
+            for (MappedGrid grid : grids) {
+                if (grid != null) {
+                    grid.close();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void burningTest() {
+
+        setup();
+
+        for (SteppingMode mode : SteppingMode.values()) {
+
+            environment = new Environment(100);
+            environment.setSteppingMode(mode);
+
+            try {
+                environment.setSpontaneousCombustionProbability(0);
+                environment.setBurnoutProbability(1);
+            } catch (Exception e) {
+                fail("TESTING ERROR: The creator of this test screwed up.");
+            }
+
+            assertFalse(environment.isBurning());
+
+            environment.setFire(50, 50);
+            assertTrue(environment.isBurning());
+
+            environment.implementTransitions();                         // The fire burns out straight away.
+            assertFalse(environment.isBurning());
+        }
+    }
+
+    @Test
+    public void changesTest() {
+
+        setup();
+
+        for (SteppingMode mode : SteppingMode.values()) {
+
+            environment = seededEnvironment(7, mode, 4);
+            try {
+                environment.setSpontaneousCombustionProbability(0);
+            } catch (Exception e) {
+                fail("TESTING ERROR: The creator of this test screwed up.");
+            }
+
+            // Loading the board changed everything.
+            environment.implementTransitions();
+            assertTrue(environment.getChanges().isEverything());
+
+            CellGrid grid = environment.getGrid();
+            byte[] before = new byte[(int) grid.getCellCount()];
+
+            // From then on, the changes are exactly the cells that differ.
+            for (int tick = 0; tick < 30; ++tick) {
+
+                for (int i = 0; i < before.length; ++i) {
+                    before[i] = grid.get(i);
+                }
+
+                environment.implementTransitions();
+
+                if (environment.getChanges().isEverything()) {
+                    continue;
+                }
+
+                Set<Long> changed = new HashSet<Long>();
+                for (int i = 0; i < environment.getChanges().size(); ++i) {
+                    changed.add(environment.getChanges().get(i));
+                }
+                assertTrue(changed.size() == environment.getChanges().size());
+
+                for (int i = 0; i < before.length; ++i) {
+                    assertTrue(changed.contains((long) i) == (before[i] != grid.get(i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void populationTest() {
+
+        setup();
+
+        for (SteppingMode mode : SteppingMode.values()) {
+
+            environment = seededEnvironment(31, mode, 4);
+
+            for (int tick = 0; tick < 40; ++tick) {
+
+                if (tick == 20) {
+                    environment.setCell(5, 5, StoneCell.INSTANCE);
+                    environment.setFire();
+                }
+                environment.implementTransitions();
+
+                long total = 0;
+                for (byte state = 0; state < CellGrid.STATE_COUNT; ++state) {
+                    assertTrue(environment.getPopulation(state) == countState(state));
+                    total += environment.getPopulation(state);
+                }
+                assertTrue(total == environment.getGrid().getCellCount());
+                assertTrue(environment.isBurning() == (countState(CellGrid.BURNING) > 0));
+            }
+        }
+    }
+
+    @Test
+    public void checkpointTest() throws Exception {
+
+        setup();
+
+        Path path = Files.createTempFile("checkpoint", ".fsim");
+
+        try {
+            Environment saved = seededEnvironment(23, SteppingMode.FRONTIER, 1);
+            for (int i = 0; i < 10; ++i) {
+                saved.implementTransitions();
+            }
+            saved.save(path);
+
+            Environment loaded = Environment.load(path);
+
+            assertTrue(loaded.getSize() == saved.getSize());
+            assertTrue(loaded.getSeed() == saved.getSeed());
+            assertTrue(loaded.getTick() == saved.getTick());
+            assertTrue(loaded.getSteppingMode() == saved.getSteppingMode());
+            assertTrue(loaded.getProbabilities().equals(saved.getProbabilities()));
+            assertTrue(loaded.isBurning() == saved.isBurning());
+
+            // Both play out the same from here on.
+            for (int i = 0; i < 20; ++i) {
+
+                for (long index = 0; index < saved.getGrid().getCellCount(); ++index) {
+                    assertTrue(loaded.getGrid().get(index) == saved.getGrid().get(index));
+                }
+
+                saved.implementTransitions();
+                loaded.implementTransitions();
+            }
+
+            // Anything else is refused.
+            Files.write(path, new byte[] {1, 2, 3});
+            assertThrows(InvalidCheckpointException.class, () -> Environment.load(path));
+
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private Environment seededEnvironment(long seed, SteppingMode mode, int parallelism) {
+
+        Environment seeded = new Environment(150, seed);
+        seeded.setSteppingMode(mode);
+        seeded.setParallelism(parallelism);
+
+        try {
+            seeded.setBurnoutProbability(.1);
+            seeded.setResurrectionProbability(.05);
+            seeded.setIgnitionProbability(.8);
+        } catch (Exception e) {
+            fail("TESTING ERROR: The creator of this test screwed up.");
+        }
+
+        seeded.setFire();
+        seeded.setFire();
+        return seeded;
+    }
+
+    /**
+     * Flood fill the burning and burnt cells of the grid, four neighbors to a cell.
+     * 
+     * @param wrap whether cells on opposite edges are neighbors
+     * @return the number of clusters, the size of the largest, and 1 if any touches opposite edges
+     */
+    private int[] labelClusters(CellGrid grid, boolean wrap) {
+
+        int size = grid.getSize();
+        boolean[] seen = new boolean[size * size];
+        int[] stack = new int[size * size];
+        int count = 0, largest = 0, spanning = 0;
+
+        for (int start = 0; start < size * size; ++start) {
+
+            if (seen[start] || !scar(grid, start)) {
+                continue;
+            }
+
+            count++;
+            int cells = 0, top = 0;
+            boolean left = false, right = false, up = false, down = false;
+
+            seen[start] = true;
+            stack[top++] = start;
+            while (top > 0) {
+
+                int cell = stack[--top];
+                int x = cell % size, y = cell / size;
+                cells++;
+                left |= x == 0; right |= x == size - 1; up |= y == 0; down |= y == size - 1;
+
+                int[] neighbors = {x > 0 ? cell - 1 : -1, x < size - 1 ? cell + 1 : -1,
+                                   y > 0 ? cell - size : -1, y < size - 1 ? cell + size : -1};
+                if (wrap) {
+                    neighbors = new int[] {y * size + (x + size - 1) % size, y * size + (x + 1) % size,
+                                           ((y + size - 1) % size) * size + x, ((y + 1) % size) * size + x};
+                }
+                for (int neighbor : neighbors) {
+                    if (neighbor >= 0 && !seen[neighbor] && scar(grid, neighbor)) {
+                        seen[neighbor] = true;
+                        stack[top++] = neighbor;
+                    }
+                }
+            }
+
+            largest = Math.max(largest, cells);
+            if ((left && right) || (up && down)) {
+                spanning = 1;
+            }
+        }
+        return new int[] {count, largest, spanning};
+    }
+
+    private boolean scar(CellGrid grid, long index) {
+        return grid.get(index) == CellGrid.BURNING || grid.get(index) == CellGrid.BURNT;
+    }
+
+    private int countState(byte state) {
+        int count = 0;
+        CellGrid grid = environment.getGrid();
+        for (long index = 0; index < grid.getCellCount(); ++index) {
+            if (grid.get(index) == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private void createAbsolutes() {
         HashMap<String, Double> probabilites = this.environment.getProbabilities();
         for (String probablity : probabilites.keySet()) {
@@ -0,0 +1,243 @@
+package test;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.fail;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import Simulation.Environment;
+import Simulation.Cells.Cell;
+import Simulation.Graphics.Board;
+import Simulation.Graphics.Frame;
+import Simulation.Graphics.FrameBuffer;
+import Simulation.Graphics.MipmapPyramid;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChangeSet;
+import Simulation.Grid.PackedGrid;
+
+public class FrameBufferTest {
+
+    @Test
+    public void handoffTest() {
+
+        Environment environment = new Environment(100, 11);
+        try {
+            environment.setIgnitionProbability(.8);
+        } catch (Exception e) {
+            fail("TESTING ERROR: The creator of this test screwed up.");
+        }
+        environment.setFire();
+
+        FrameBuffer frames = new FrameBuffer(100);
+
+        // Nothing has been published yet.
+        assertTrue(frames.acquire().getSequence() == 0);
+
+        frames.redraw(environment.getGrid());
+        frames.publish(environment.getTick());
+
+        Frame first = frames.acquire();
+        assertTrue(first.getSequence() == 1);
+        assertTrue(frames.acquire() == first);                  // Nothing newer.
+        matches(first, environment.getGrid());
+
+        // Consume only every few frames, so the consumer has to skip some.
+        for (int tick = 0; tick < 40; ++tick) {
+
+            environment.implementTransitions();
+            frames.update(environment.getGrid(), environment.getChanges());
+            frames.publish(environment.getTick());
+
+            if (tick % 3 == 0) {
+
+                Frame frame = frames.acquire();
+
+                assertTrue(frame.getTick() == environment.getTick());
+                matches(frame, environment.getGrid());
+            }
+        }
+    }
+
+    @Test
+    public void republishTest() {
+
+        PackedGrid grid = new PackedGrid(100);
+
+        // A producer that publishes twice more as soon as the consumer swaps frames, 
+        // reusing the frame the consumer just gave back.
+        boolean[] race = new boolean[1];
+        FrameBuffer frames = new FrameBuffer(100) {
+            @Override
+            public Frame acquire() {
+                Frame front = super.acquire();
+                if (race[0]) {
+                    race[0] = false;
+                    this.publish(3);
+                    this.publish(4);
+                }
+                return front;
+            }
+        };
+
+        ArrayList<Rectangle> repainted = new ArrayList<Rectangle>();
+        Board board = new Board(grid, 1) {
+            @Override
+            public void repaint(Rectangle r) {
+                repainted.add(r);
+            }
+        };
+        board.setSize(100, 100);
+        board.setFrames(frames);
+
+        frames.redraw(grid);
+        frames.publish(1);
+        board.showLatestFrame();
+
+        // One cell changes, in the tile at the bottom right.
+        ChangeSet changes = new ChangeSet(grid.getCellCount());
+        grid.put(grid.index(90, 90), CellGrid.BURNING);
+        changes.add(grid.index(90, 90));
+        frames.update(grid, changes);
+        frames.publish(2);
+
+        race[0] = true;
+        repainted.clear();
+        board.showLatestFrame();
+
+        boolean covered = false;
+        for (Rectangle r : repainted) {
+            covered |= r.contains(90, 90);
+        }
+        assertTrue(covered);
+    }
+
+    @Test
+    public void pyramidTest() {
+
+        Environment environment = new Environment(100, 17);
+        try {
+            environment.setIgnitionProbability(.8);
+        } catch (Exception e) {
+            fail("TESTING ERROR: The creator of this test screwed up.");
+        }
+        environment.setFire();
+
+        MipmapPyramid pyramid = new MipmapPyramid(100, 3);
+        FrameBuffer   frames  = new FrameBuffer(100, 2);
+
+        assertTrue(pyramid.getSize(1) == 50 && pyramid.getSize(2) == 25 && pyramid.getSize(3) == 13);
+        assertTrue(MipmapPyramid.levelFor(100, 30) == 2);
+        assertTrue(MipmapPyramid.levelFor(100, 100) == 0);
+
+        pyramid.redraw(environment.getGrid());
+        frames.redraw(environment.getGrid());
+
+        // Kept up to date cell by cell, every level has to match a fresh picture of the grid.
+        for (int tick = 0; tick < 30; ++tick) {
+
+            environment.implementTransitions();
+            if (environment.getChanges().isEverything()) {
+                pyramid.redraw(environment.getGrid());
+            }
+            for (int i = 0; i < environment.getChanges().size(); ++i) {
+                pyramid.update(environment.getGrid(), environment.getChanges().get(i));
+            }
+            frames.update(environment.getGrid(), environment.getChanges());
+            frames.publish(environment.getTick());
+
+            if (tick % 10 == 0) {
+
+                MipmapPyramid fresh = new MipmapPyramid(100, 3);
+                fresh.redraw(environment.getGrid());
+
+                for (int level = 1; level <= 3; ++level) {
+                    assertTrue(same(pyramid.getImage(level), fresh.getImage(level)));
+                }
+                assertTrue(frames.acquire().getSize() == 25);
+                assertTrue(same(frames.acquire().getImage(), fresh.getImage(2)));
+            }
+        }
+
+        // A cell placed outside a tick and reported twice is only counted once.
+        CellGrid grid = environment.getGrid();
+        grid.put(grid.index(99, 99), CellGrid.STONE);
+        pyramid.update(grid, grid.index(99, 99));
+        pyramid.update(grid, grid.index(99, 99));
+        MipmapPyramid fresh = new MipmapPyramid(100, 3);
+        fresh.redraw(grid);
+        for (int level = 1; level <= 3; ++level) {
+            assertTrue(same(pyramid.getImage(level), fresh.getImage(level)));
+        }
+
+        // Boards whose first level doesn't fit in an array are turned away before anything is allocated.
+        assertThrows(IllegalArgumentException.class, () -> new MipmapPyramid(100000, 8));
+
+        // A block all of one state is the color of that state.
+        for (long i = 0; i < grid.getCellCount(); ++i) {
+            grid.put(i, CellGrid.BURNT);
+        }
+        pyramid.redraw(grid);
+
+        int[] pixels = pyramid.getImage(3).getRGB(0, 0, 13, 13, null, 0, 13);
+        for (int pixel : pixels) {
+            assertTrue(pixel == Cell.forState(CellGrid.BURNT).getColor().getRGB());
+        }
+    }
+
+    @Test
+    public void objectBoardTest() {
+
+        Environment environment = new Environment(60, 5);
+        for (int i = 0; i < 10; ++i) {
+            environment.setFire();
+        }
+        environment.implementTransitions();
+
+        // A board of cells of every state, each painted by its own class's getColor().
+        Board board = new Board(environment.getStateMatrix(), 2);
+        board.setSize(120, 120);
+
+        BufferedImage image = new BufferedImage(120, 120, BufferedImage.TYPE_INT_RGB);
+        board.paintComponent(image.createGraphics());
+
+        CellGrid grid = environment.getGrid();
+        boolean[] seen = new boolean[CellGrid.STATE_COUNT];
+        for (int y = 0; y < 60; ++y) {
+            for (int x = 0; x < 60; ++x) {
+                seen[grid.get(x, y)] = true;
+                assertTrue(image.getRGB(2 * x + 1, 2 * y + 1) == Cell.forState(grid.get(x, y)).getColor().getRGB());
+            }
+        }
+        assertTrue(seen[CellGrid.GRASS] && seen[CellGrid.STONE] && seen[CellGrid.BURNING] && seen[CellGrid.BURNT]);
+    }
+
+    /**
+     * Make sure two images of the same size are the same, pixel for pixel.
+     */
+    private boolean same(BufferedImage a, BufferedImage b) {
+
+        int size = a.getWidth();
+        if (b.getWidth() != size) {
+            return false;
+        }
+        return Arrays.equals(a.getRGB(0, 0, size, size, null, 0, size), b.getRGB(0, 0, size, size, null, 0, size));
+    }
+
+    /**
+     * Make sure every pixel of the frame is the color of its cell.
+     */
+    private void matches(Frame frame, CellGrid grid) {
+
+        int[] pixels = frame.getImage().getRGB(0, 0, grid.getSize(), grid.getSize(), null, 0, grid.getSize());
+
+        for (long i = 0; i < grid.getCellCount(); ++i) {
+            assertTrue(pixels[(int) i] == Cell.forState(grid.get(i)).getColor().getRGB());
+        }
+    }
+}
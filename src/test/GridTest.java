@@ -0,0 +1,339 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import Simulation.Grid.BitGrid;
+import Simulation.Grid.Boundary;
+import Simulation.Grid.ByteGrid;
+import Simulation.Grid.CellGrid;
+import Simulation.Grid.ChunkedGrid;
+import Simulation.Grid.ClusterTracker;
+import Simulation.Grid.IndexList;
+import Simulation.Grid.MappedGrid;
+import Simulation.Grid.Neighborhood;
+import Simulation.Grid.PackedGrid;
+import Simulation.Grid.PaddedGrid;
+
+public class GridTest {
+
+    @Test
+    public void packedGridTest() {
+        roundTrip(new PackedGrid(97));
+    }
+
+    @Test
+    public void byteGridTest() {
+        roundTrip(new ByteGrid(97));
+    }
+
+    @Test
+    public void bitGridTest() {
+        roundTrip(new BitGrid(97));
+        roundTrip(new BitGrid(128));                        // Rows of whole words.
+    }
+
+    @Test
+    public void paddedGridTest() {
+
+        roundTrip(new PaddedGrid(97));
+
+        PaddedGrid grid = new PaddedGrid(10, 2);
+        Random rand = new Random();
+        for (long i = 0; i < grid.getCellCount(); ++i) {
+            grid.put(i, (byte) rand.nextInt(CellGrid.STATE_COUNT));
+        }
+
+        // The halo holds what lies past the edge, and maps back onto the board only when it wraps.
+        for (Boundary boundary : Boundary.values()) {
+
+            grid.setBoundary(boundary);
+
+            for (int y = -2; y < 12; ++y) {
+                for (int x = -2; x < 12; ++x) {
+
+                    long padded = grid.paddedIndex(x, y);
+                    if (x >= 0 && x < 10 && y >= 0 && y < 10) {
+                        assertTrue(grid.getPadded(padded) == grid.get(x, y));
+                        assertTrue(grid.boardIndexOf(padded) == grid.index(x, y));
+                    } else if (boundary == Boundary.TOROIDAL) {
+                        assertTrue(grid.getPadded(padded) == grid.get(Math.floorMod(x, 10), Math.floorMod(y, 10)));
+                        assertTrue(grid.boardIndexOf(padded) == grid.index(Math.floorMod(x, 10), Math.floorMod(y, 10)));
+                    } else {
+                        assertTrue(grid.getPadded(padded) == (boundary == Boundary.CLAMPED ? CellGrid.STONE : CellGrid.GRASS));
+                        assertTrue(grid.boardIndexOf(padded) == -1);
+                    }
+                }
+            }
+        }
+
+        // Placing a cell on the edge updates its copies, and a tick's writes show up after the swap.
+        grid.setBoundary(Boundary.TOROIDAL);
+        grid.put(0, 0, CellGrid.BURNING);
+        assertTrue(grid.getPadded(grid.paddedIndex(10, 10)) == CellGrid.BURNING);
+        assertTrue(grid.getPadded(grid.paddedIndex(10, 0)) == CellGrid.BURNING);
+
+        grid.prepareNext();
+        grid.setNext(grid.index(9, 9), CellGrid.BURNT);
+        grid.swap();
+        assertTrue(grid.getPadded(grid.paddedIndex(-1, -1)) == CellGrid.BURNT);
+    }
+
+    @Test
+    public void chunkedGridTest() {
+
+        roundTrip(new ChunkedGrid(97));
+
+        ChunkedGrid grid = new ChunkedGrid(1000);
+        grid.generate(42, .3);
+        long grass = grid.getTerrainGrass();                      // Expected, with nothing read yet.
+
+        // Reading the terrain is repeatable and doesn't allocate anything.
+        long counted = 0;
+        for (long index = 0; index < grid.getCellCount(); ++index) {
+            byte state = grid.get(index);
+            assertTrue(state == CellGrid.GRASS || state == CellGrid.STONE);
+            assertTrue(grid.getNext(index) == state);
+            if (state == CellGrid.GRASS) {
+                counted++;
+            }
+        }
+        assertTrue(Math.abs(counted - grass) < .01 * grid.getCellCount());
+        assertTrue(Math.abs(grass - .3 * grid.getCellCount()) < .01 * grid.getCellCount());
+        assertTrue(grid.getMaterializedTiles() == 0);
+
+        // Once every tile is materialized, the terrain is counted exactly.
+        for (int y = 0; y < 1000; y += ChunkedGrid.TILE_SIZE) {
+            for (int x = 0; x < 1000; x += ChunkedGrid.TILE_SIZE) {
+                grid.put(grid.index(x, y), grid.get(x, y));
+            }
+        }
+        assertTrue(grid.getTerrainGrass() == counted);
+        grid.generate(42, .3);
+
+        // Writing one cell materializes its tile, without changing any of its neighbors.
+        long index = grid.index(130, 700);
+        byte before = grid.get(index + 1);
+        grid.prepareNext();
+        grid.setNext(index, CellGrid.BURNING);
+        grid.swap();
+        assertTrue(grid.getMaterializedTiles() == 1);
+        assertTrue(grid.get(index) == CellGrid.BURNING);
+        assertTrue(grid.get(index + 1) == before);
+
+        IndexList active = new IndexList();
+        grid.addActiveCells(active);
+        assertTrue(active.size() == 1 && active.get(0) == index);
+
+        // Fresh terrain drops every tile.
+        grid.generate(43, 1);
+        assertTrue(grid.getMaterializedTiles() == 0);
+        assertTrue(grid.get(index) == CellGrid.GRASS);
+
+        // And takes no time, however large the board.
+        ChunkedGrid huge = new ChunkedGrid(1000000);
+        huge.generate(44, .5);
+        assertTrue(huge.getTerrainGrass() == 500000000000L);
+    }
+
+    @Test
+    public void mappedGridTest() throws Exception {
+
+        Path path = Files.createTempFile("grid", ".map");
+
+        try {
+            try (MappedGrid grid = new MappedGrid(130, path)) {       // Tiles cut off at the edge.
+                roundTrip(grid);
+                assertTrue(Files.size(path) == 2 * grid.getBufferBytes());
+            }
+            try (MappedGrid grid = new MappedGrid(128, path)) {       // Whole tiles; the file starts over.
+                assertTrue(grid.get(0) == CellGrid.GRASS);
+                roundTrip(grid);
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void clusterTrackerTest() {
+
+        PackedGrid grid = new PackedGrid(10);
+        ClusterTracker clusters = new ClusterTracker(10);
+
+        // Two bars along the top, joined by a third cell.
+        for (int x = 0; x < 4; ++x) {
+            clusters.add(grid.index(x, 0));
+            clusters.add(grid.index(x + 5, 0));
+        }
+        clusters.add(grid.index(2, 0));                            // Already scar; nothing changes.
+        assertTrue(clusters.getClusterCount() == 2 && clusters.getLargestCluster() == 4 && clusters.getCellCount() == 8);
+        assertTrue(!clusters.connected(grid.index(0, 0), grid.index(8, 0)));
+
+        clusters.add(grid.index(4, 0));
+        assertTrue(clusters.getClusterCount() == 1 && clusters.getLargestCluster() == 9);
+        assertTrue(clusters.connected(grid.index(0, 0), grid.index(8, 0)));
+        assertTrue(!clusters.isSpanning());                       // Only touches the left edge.
+
+        // Diagonal neighbors are not joined.
+        clusters.add(grid.index(9, 1));
+        assertTrue(clusters.getClusterCount() == 2 && clusters.getClusterSize(grid.index(9, 1)) == 1);
+
+        clusters.add(grid.index(9, 0));
+        assertTrue(clusters.getClusterCount() == 1 && clusters.getClusterSize(grid.index(9, 1)) == 11);
+        assertTrue(clusters.isSpanning());                        // Left edge to right edge.
+
+        // A column from top to bottom spans too, and addAll() only picks up burning and burnt cells.
+        clusters.clear();
+        assertTrue(clusters.getClusterCount() == 0 && !clusters.contains(grid.index(0, 0)));
+        for (int y = 0; y < 10; ++y) {
+            grid.put(grid.index(3, y), y % 2 == 0 ? CellGrid.BURNING : CellGrid.BURNT);
+        }
+        grid.put(grid.index(7, 7), CellGrid.STONE);
+        clusters.addAll(grid);
+        assertTrue(clusters.getClusterCount() == 1 && clusters.getLargestCluster() == 10 && clusters.isSpanning());
+        assertTrue(clusters.getClusterSize(grid.index(7, 7)) == 0);
+
+        // On a torus, a scar across an edge is one cluster, and it only spans once it wraps all the way around.
+        ClusterTracker flat  = new ClusterTracker(10);
+        ClusterTracker torus = new ClusterTracker(10, Boundary.TOROIDAL);
+        for (int x : new int[] {7, 8, 9, 0, 1, 2}) {
+            flat.add(grid.index(x, 5));
+            torus.add(grid.index(x, 5));
+        }
+        torus.add(grid.index(0, 9));                            // Wraps onto (0, 0)'s column from the bottom.
+        torus.add(grid.index(0, 0));
+        assertTrue(flat.getClusterCount() == 2 && flat.getLargestCluster() == 3 && !flat.isSpanning());
+        assertTrue(torus.getClusterCount() == 2 && torus.getLargestCluster() == 6 && !torus.isSpanning());
+        assertTrue(torus.connected(grid.index(9, 5), grid.index(0, 5)) && torus.connected(grid.index(0, 9), grid.index(0, 0)));
+
+        // Two separate paths between the same cells, neither around the board, don't span either.
+        for (int y = 6; y < 9; ++y) {
+            torus.add(grid.index(0, y));
+        }
+        torus.add(grid.index(1, 9));
+        torus.add(grid.index(1, 8));
+        assertTrue(torus.getClusterCount() == 1 && !torus.isSpanning());
+
+        for (int x = 3; x < 7; ++x) {
+            torus.add(grid.index(x, 5));
+        }
+        assertTrue(torus.getClusterCount() == 1 && torus.getLargestCluster() == 17 && torus.isSpanning());
+    }
+
+    @Test
+    public void neighborhoodTest() {
+
+        int size = 50;
+
+        for (int r = 0; r < 6; ++r) {
+
+            Neighborhood vonNeumann = new Neighborhood(Neighborhood.Shape.VON_NEUMANN, r, size);
+            Neighborhood moore      = new Neighborhood(Neighborhood.Shape.MOORE, r, size);
+
+            assertTrue(vonNeumann.getCount() == 2 * r * r + 2 * r + 1);
+            assertTrue(moore.getCount() == (2 * r + 1) * (2 * r + 1));
+
+            for (int k = 0; k < vonNeumann.getCount(); ++k) {
+                assertTrue(Math.abs(vonNeumann.getDx(k)) + Math.abs(vonNeumann.getDy(k)) <= r);
+                assertTrue(vonNeumann.getOffset(k) == (long) vonNeumann.getDy(k) * size + vonNeumann.getDx(k));
+            }
+            for (int k = 0; k < moore.getCount(); ++k) {
+                assertTrue(Math.max(Math.abs(moore.getDx(k)), Math.abs(moore.getDy(k))) <= r);
+            }
+        }
+
+        // Only 6 of the radius 2 von Neumann neighbors of a corner are on the board.
+        Neighborhood vonNeumann = new Neighborhood(Neighborhood.Shape.VON_NEUMANN, 2, size);
+        int onBoard = 0;
+        for (int k = 0; k < vonNeumann.getCount(); ++k) {
+            if (vonNeumann.contains(0, 0, k)) {
+                onBoard++;
+            }
+        }
+        assertTrue(onBoard == 6);
+        assertTrue(!vonNeumann.isInterior(1, 25));
+        assertTrue(vonNeumann.isInterior(2, 47));
+    }
+
+    /**
+     * Write random states into both buffers of the grid and make sure
+     * every cell reads back what was written, and that swap() exchanges the buffers.
+     */
+    private void roundTrip(CellGrid grid) {
+
+        Random rand = new Random();
+        rand.setSeed(System.currentTimeMillis());
+
+        long cells = grid.getCellCount();
+        byte[] expected = new byte[(int) cells];
+
+        for (long i = 0; i < cells; ++i) {
+            expected[(int) i] = (byte) rand.nextInt(CellGrid.STATE_COUNT);
+            grid.put(i, expected[(int) i]);
+        }
+
+        for (long i = 0; i < cells; ++i) {
+            assertTrue(grid.get(i) == expected[(int) i]);
+            assertTrue(grid.getNext(i) == expected[(int) i]);
+        }
+
+        // Changing the next buffer must not touch the live one.
+        for (long i = 0; i < cells; ++i) {
+            grid.setNext(i, (byte) ((expected[(int) i] + 1) % CellGrid.STATE_COUNT));
+            assertTrue(grid.get(i) == expected[(int) i]);
+        }
+
+        grid.swap();
+
+        for (long i = 0; i < cells; ++i) {
+            assertTrue(grid.get(i) == (expected[(int) i] + 1) % CellGrid.STATE_COUNT);
+        }
+
+        // Reading a whole row matches reading cell by cell.
+        byte[] row = new byte[grid.getSize()];
+        for (int y = 0; y < grid.getSize(); ++y) {
+            grid.getRow(y, row);
+            for (int x = 0; x < grid.getSize(); ++x) {
+                assertTrue(row[x] == grid.get(x, y));
+            }
+        }
+
+        // So do a row's bit-planes.
+        long[] high = new long[grid.getRowWords()];
+        long[] low  = new long[grid.getRowWords()];
+        for (int y = 0; y < grid.getSize(); ++y) {
+            grid.getRowPlanes(y, high, low);
+            for (int x = 0; x < grid.getSize(); ++x) {
+                long state = (((high[x >>> 6] >>> x) & 1) << 1) | ((low[x >>> 6] >>> x) & 1);
+                assertTrue(state == grid.get(x, y));
+            }
+            for (int x = grid.getSize(); x < grid.getRowWords() * 64; ++x) {
+                assertTrue(((high[x >>> 6] | low[x >>> 6]) >>> x & 1) == 0);
+            }
+        }
+
+        // The packed form carries every cell over to any other backend.
+        LongBuffer words = LongBuffer.allocate((int) grid.getPackedLength());
+        grid.exportPacked(0, words);
+        words.flip();
+
+        CellGrid copy = (grid instanceof PackedGrid) ? new ByteGrid(grid.getSize()) : new PackedGrid(grid.getSize());
+        copy.importPacked(0, words);
+        for (long i = 0; i < cells; ++i) {
+            assertTrue(copy.get(i) == grid.get(i));
+            assertTrue(copy.getNext(i) == grid.get(i));
+        }
+
+        // Positions map to the expected flat index.
+        assertTrue(grid.index(5, 3) == 3 * grid.getSize() + 5);
+        assertTrue(grid.xOf(grid.index(5, 3)) == 5);
+        assertTrue(grid.yOf(grid.index(5, 3)) == 3);
+    }
+}
@@ -0,0 +1,151 @@
+package test;
+
+import static org.junit.Assert.fail;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import Simulation.Environment;
+import Simulation.SteppingMode;
+import Simulation.Grid.CellGrid;
+import Simulation.Monitoring.SimulationMonitor;
+
+public class MonitorTest {
+
+    @Test
+    public void statisticsTest() throws Exception {
+
+        Environment environment = new Environment(200, 3);
+        try {
+            environment.setIgnitionProbability(.7);
+        } catch (Exception e) {
+            fail("TESTING ERROR: The creator of this test screwed up.");
+        }
+        environment.setFire();
+
+        SimulationMonitor monitor = new SimulationMonitor();
+        monitor.attach(environment);
+
+        for (int tick = 0; tick < 50; ++tick) {
+            environment.implementTransitions();
+        }
+
+        assertTrue(monitor.getTicksSeen() == 50);
+        assertTrue(monitor.getTick() == environment.getTick());
+        assertTrue(monitor.getTickLatencyP50Millis() > 0);
+        assertTrue(monitor.getTickLatencyP50Millis() <= monitor.getTickLatencyP99Millis());
+        assertTrue(monitor.getTickLatencyP99Millis() <= monitor.getTickLatencyMaxMillis());
+        assertTrue(monitor.getCellsChangedPerTick() > 0);
+        assertTrue(monitor.getTicksPerSecond() > 0);
+        assertTrue(monitor.getBurntCells() == environment.getPopulation(CellGrid.BURNT));
+
+        // Once detached, ticks are no longer counted.
+        monitor.detach();
+        environment.implementTransitions();
+        assertTrue(monitor.getTicksSeen() == 50);
+
+        monitor.reset();
+        assertTrue(monitor.getTicksSeen() == 0);
+        assertTrue(monitor.getTickLatencyMaxMillis() == 0);
+
+        // The statistics are readable over JMX.
+        monitor.attach(environment);
+        environment.implementTransitions();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = monitor.register("Test");
+        try {
+            assertTrue(server.isRegistered(name));
+            assertTrue((Long) server.getAttribute(name, "TicksSeen") == 1);
+        } finally {
+            monitor.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void allocationTest() throws Exception {
+
+        Environment environment = new Environment(200, 5);
+        environment.setFire();
+
+        SimulationMonitor monitor = new SimulationMonitor();
+        monitor.attach(environment);
+
+        for (int tick = 0; tick < 5; ++tick) {
+            environment.implementTransitions();
+        }
+        assertTrue(monitor.getAllocatedBytesPerTick() >= 0);
+
+        // A PARALLEL tick allocates on threads the monitor doesn't see, so it isn't counted.
+        monitor.reset();
+        environment.setSteppingMode(SteppingMode.PARALLEL);
+        environment.setParallelism(2);
+        for (int tick = 0; tick < 5; ++tick) {
+            environment.implementTransitions();
+        }
+        assertTrue(monitor.getAllocatedBytesPerTick() == -1);
+
+        // Neither is a tick on a different thread than the one before.
+        monitor.reset();
+        environment.setSteppingMode(SteppingMode.SWEEP);
+        for (int tick = 0; tick < 3; ++tick) {
+            Thread thread = new Thread(environment::implementTransitions);
+            thread.start();
+            thread.join();
+        }
+        assertTrue(monitor.getAllocatedBytesPerTick() == -1);
+    }
+
+    @Test
+    public void flightRecorderTest() throws Exception {
+
+        Environment environment = new Environment(100, 9);
+        environment.setFire();
+
+        Path path = Files.createTempFile("ticks", ".jfr");
+
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("Simulation.Tick");
+                recording.enable("Simulation.TickPhase");
+                recording.start();
+
+                for (int tick = 0; tick < 10; ++tick) {
+                    environment.implementTransitions();
+                }
+
+                recording.stop();
+                recording.dump(path);
+            }
+
+            int ticks  = 0;
+            int phases = 0;
+            for (RecordedEvent event : RecordingFile.readAllEvents(path)) {
+                if (event.getEventType().getName().equals("Simulation.Tick")) {
+                    ticks++;
+                } else if (event.getEventType().getName().equals("Simulation.TickPhase")) {
+                    phases++;
+                }
+            }
+
+            assertTrue(ticks == 10);
+            assertTrue(phases >= 20);                               // At least combustion and publishing, every tick.
+
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
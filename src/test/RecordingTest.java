@@ -0,0 +1,147 @@
+package test;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.fail;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import Exceptions.InvalidRecordingException;
+import Simulation.Environment;
+import Simulation.Grid.CellGrid;
+import Simulation.Recording.Player;
+import Simulation.Recording.Recorder;
+
+public class RecordingTest {
+
+    @Test
+    public void replayTest() throws Exception {
+
+        Path path = Files.createTempFile("recording", ".frec");
+
+        try {
+            Environment environment = new Environment(120, 5);
+            try {
+                environment.setIgnitionProbability(.7);
+                environment.setResurrectionProbability(.1);
+            } catch (Exception e) {
+                fail("TESTING ERROR: The creator of this test screwed up.");
+            }
+            environment.setFire();
+
+            // Keep a copy of the board at every tick to compare the replay against.
+            ArrayList<byte[]> boards = new ArrayList<byte[]>();
+            boards.add(snapshot(environment.getGrid()));
+
+            try (Recorder recorder = new Recorder(path, environment, 16)) {
+                for (int tick = 0; tick < 60; ++tick) {
+                    if (tick == 30) {
+                        environment.setFire(10, 10);                // Placed cells are recorded too.
+                    }
+                    environment.implementTransitions();
+                    boards.add(snapshot(environment.getGrid()));
+                }
+            }
+
+            try (Player player = new Player(path)) {
+
+                assertTrue(player.getSize() == 120);
+                assertTrue(player.getSeed() == 5);
+                assertTrue(player.getFirstTick() == 0);
+                assertTrue(player.getLastTick() == 60);
+
+                // Play straight through.
+                matches(player.getGrid(), boards.get(0));
+                while (player.step()) {
+                    matches(player.getGrid(), boards.get((int) player.getTick()));
+                }
+                assertFalse(player.step());
+
+                // Jump around, backwards and forwards.
+                Random rand = new Random();
+                for (int i = 0; i < 20; ++i) {
+                    int tick = rand.nextInt(61);
+                    player.seek(tick);
+                    assertTrue(player.getTick() == tick);
+                    matches(player.getGrid(), boards.get(tick));
+                }
+
+                assertThrows(IllegalArgumentException.class, () -> player.seek(61));
+            }
+
+            // Anything else is refused.
+            Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24});
+            assertThrows(InvalidRecordingException.class, () -> new Player(path));
+
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void damagedTest() throws Exception {
+
+        Path path = Files.createTempFile("recording", ".frec");
+
+        // Each body is a one run delta after a keyframe of a 4 x 4 board of grass.
+        byte[][] bodies = {
+            {1, (byte) ((20 << 2) | CellGrid.BURNING), 0},          // Starts past the end of the board.
+            {1, (byte) ((10 << 2) | CellGrid.BURNING), 9},          // Ends past it.
+            {1, (byte) 0x82},                                       // Cut off in the middle of a varint.
+            {1, (byte) ((3 << 2) | CellGrid.BURNING), 0, 0},        // Extra bytes after the last run.
+        };
+
+        try {
+            for (byte[] body : bodies) {
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.write(new byte[] {'F', 'R', 'E', 'C'});
+                out.writeInt(1);
+                out.writeInt(4);
+                out.writeLong(0);
+                out.writeInt(16);
+                out.write(new byte[] {1, 0, 8, 0, 0, 0, 0, 0, 0, 0, 0});   // Keyframe at tick 0.
+                out.write(new byte[] {2, 1, (byte) body.length});         // Delta at tick 1.
+                out.write(body);
+                Files.write(path, bytes.toByteArray());
+
+                try (Player player = new Player(path)) {
+
+                    assertThrows(InvalidRecordingException.class, () -> player.step());
+                    assertThrows(InvalidRecordingException.class, () -> player.seek(1));
+
+                    // Nothing of the delta was applied.
+                    assertTrue(player.getTick() == 0);
+                    for (long i = 0; i < player.getGrid().getCellCount(); ++i) {
+                        assertTrue(player.getGrid().get(i) == CellGrid.GRASS);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private byte[] snapshot(CellGrid grid) {
+        byte[] states = new byte[(int) grid.getCellCount()];
+        for (int i = 0; i < states.length; ++i) {
+            states[i] = grid.get(i);
+        }
+        return states;
+    }
+
+    private void matches(CellGrid grid, byte[] expected) {
+        for (int i = 0; i < expected.length; ++i) {
+            assertTrue(grid.get(i) == expected[i]);
+        }
+    }
+}
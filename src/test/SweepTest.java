@@ -0,0 +1,130 @@
+package test;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.fail;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import Exceptions.InvalidProbabilityException;
+import Exceptions.InvalidSweepException;
+import Simulation.Ensemble.Ensemble;
+import Simulation.Grid.Boundary;
+import Simulation.Sweep.ParameterSweep;
+import Simulation.Sweep.SweepPoint;
+
+public class SweepTest {
+
+    private Ensemble ensemble;                      // Of the last sweep newSweep() made.
+
+    @Test
+    public void sweepTest() throws Exception {
+
+        Path path = Files.createTempFile("sweep", ".csv");
+        Files.delete(path);
+
+        try {
+            ParameterSweep sweep = this.newSweep();
+            sweep.run(path);
+
+            List<String> lines = Files.readAllLines(path);
+            assertTrue(lines.get(0).equals("# size=40,boundary=CLAMPED,fires=1,max_ticks=500,runs_per_point=8,seed=11,combustion=0.0,ignition=1.0,resurrection=0.0"));
+            assertTrue(lines.get(1).equals("burnout,generation,runs,extinguished,burnt_fraction_mean,burnt_fraction_stddev,ticks_mean,peak_burning_mean,seconds"));
+
+            // The grid, plus at least one refined point between the burnouts that do and don't let the fire spread.
+            assertTrue(sweep.getPoints().size() > 3 * 2);
+            assertTrue(lines.size() == sweep.getPoints().size() + 2);
+            for (SweepPoint point : sweep.getPoints()) {
+                assertTrue(point.getRuns() == 8);
+            }
+
+            // Cut the file off in the middle of a line, as if the sweep had been killed.
+            String whole = String.join("\n", lines) + "\n";
+            int cut = whole.indexOf('\n', whole.length() / 2) + 5;
+            Files.write(path, whole.substring(0, cut).getBytes(StandardCharsets.UTF_8));
+
+            ParameterSweep resumed = this.newSweep();
+            resumed.run(path);
+
+            // Same seeds, same points; the resumed sweep ends up with the uninterrupted one's points.
+            assertTrue(Files.readAllLines(path).size() == lines.size());
+
+            HashMap<String, SweepPoint> points = new HashMap<String, SweepPoint>();
+            for (SweepPoint point : resumed.getPoints()) {
+                points.put(Arrays.toString(point.getValues()), point);
+            }
+            for (SweepPoint expected : sweep.getPoints()) {
+                SweepPoint point = points.get(Arrays.toString(expected.getValues()));
+                assertTrue(point != null);
+                assertTrue(point.getExtinguished() == expected.getExtinguished());
+                assertTrue(Math.abs(point.getBurntFractionMean() - expected.getBurntFractionMean()) < 1e-9);     // Summed in whatever order the runs finished.
+            }
+
+            // A file from a different sweep is refused.
+            ParameterSweep other = new ParameterSweep(new Ensemble(20), 2, 0);
+            other.addValues("Ignition", .5);
+            assertThrows(InvalidSweepException.class, () -> other.run(path));
+
+            // So is one over the same axes, with runs that can't be compared.
+            List<String> resumedLines = Files.readAllLines(path);
+            ParameterSweep fewerRuns = this.newSweep(40, 4, 11);
+            assertThrows(InvalidSweepException.class, () -> fewerRuns.run(path));
+
+            ParameterSweep otherSeed = this.newSweep(40, 8, 12);
+            assertThrows(InvalidSweepException.class, () -> otherSeed.run(path));
+
+            ParameterSweep otherSize = this.newSweep(50, 8, 11);
+            assertThrows(InvalidSweepException.class, () -> otherSize.run(path));
+
+            ParameterSweep otherPhysics = this.newSweep();
+            this.ensemble.setProbability("Resurrection", .1);
+            assertThrows(InvalidSweepException.class, () -> otherPhysics.run(path));
+
+            ParameterSweep otherBoundary = this.newSweep();
+            this.ensemble.setBoundary(Boundary.TOROIDAL);
+            assertThrows(InvalidSweepException.class, () -> otherBoundary.run(path));
+
+            // None of which touched the file.
+            assertTrue(Files.readAllLines(path).equals(resumedLines));
+
+            assertThrows(IllegalArgumentException.class, () -> other.addValues("Ignition", .2));
+            assertThrows(InvalidProbabilityException.class, () -> other.addValues("Burnout", 1.5));
+
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private ParameterSweep newSweep() {
+        return this.newSweep(40, 8, 11);
+    }
+
+    private ParameterSweep newSweep(int size, int runsPerPoint, long seed) {
+
+        Ensemble ensemble = new Ensemble(size);
+        ensemble.setParallelism(2);
+        ensemble.setMaxTicks(500);
+        this.ensemble = ensemble;
+
+        ParameterSweep sweep = new ParameterSweep(ensemble, runsPerPoint, seed);
+        try {
+            ensemble.setProbability("Combustion", 0);
+            ensemble.setProbability("Ignition", 1);
+            ensemble.setProbability("Resurrection", 0);
+            sweep.addValues("Burnout", .02, .5, .9);
+            sweep.addValues("Generation", .8, 1);
+        } catch (InvalidProbabilityException ipe) {
+            fail("TESTING ERROR: The creator of this test screwed up.");
+        }
+        sweep.setRefinement("Burnout", .2, 2);
+
+        return sweep;
+    }
+}
@@ -0,0 +1,63 @@
+package test;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+
+import org.junit.Test;
+
+import Simulation.Graphics.Viewport;
+
+public class ViewportTest {
+
+    @Test
+    public void panZoomTest() {
+
+        Viewport view = new Viewport(2, .25, 64);
+
+        // The whole board is under a panel large enough for it, and nothing past it.
+        assertTrue(view.cellsIn(new Rectangle(0, 0, 1000, 1000), 100).equals(new Rectangle(0, 0, 100, 100)));
+        assertTrue(view.cellsIn(new Rectangle(20, 40, 10, 10), 100).equals(new Rectangle(10, 20, 5, 5)));
+        assertTrue(view.pixelsOf(new Rectangle(10, 20, 5, 5)).equals(new Rectangle(20, 40, 10, 10)));
+
+        // The cell under the cursor stays under it.
+        view.zoom(3, 100, 60);
+        assertTrue(view.getScale() == 6);
+        Point2D cell = view.getTransform().transform(new Point2D.Double(50, 30), null);
+        assertTrue(Math.abs(cell.getX() - 100) < 1e-9 && Math.abs(cell.getY() - 60) < 1e-9);
+
+        // Zoomed in, only the few cells around the cursor are visible.
+        Rectangle cells = view.cellsIn(new Rectangle(0, 0, 120, 120), 100);
+        assertTrue(cells.width <= 21 && cells.height <= 21 && cells.contains(50, 30));
+
+        // Panning moves the board along with the mouse.
+        view.pan(-60, 0);
+        assertTrue(view.cellsIn(new Rectangle(0, 0, 120, 120), 100).x == cells.x + 10);
+
+        // Panned off the board, nothing is visible.
+        view.setOrigin(-500, -500);
+        assertTrue(view.cellsIn(new Rectangle(0, 0, 120, 120), 100).isEmpty());
+
+        // Zoom stays within its limits.
+        view.zoom(1000, 0, 0);
+        assertTrue(view.getScale() == 64);
+        view.zoom(1e-6, 0, 0);
+        assertTrue(view.getScale() == .25);
+
+        assertThrows(IllegalArgumentException.class, () -> new Viewport(1, 0, 1));
+    }
+
+    @Test
+    public void levelTest() {
+
+        // The coarsest level whose blocks are still no larger than a pixel.
+        assertTrue(new Viewport(2, .01, 64).levelFor(5)   == 0);
+        assertTrue(new Viewport(.6, .01, 64).levelFor(5)  == 0);
+        assertTrue(new Viewport(.5, .01, 64).levelFor(5)  == 1);
+        assertTrue(new Viewport(.3, .01, 64).levelFor(5)  == 1);
+        assertTrue(new Viewport(.25, .01, 64).levelFor(5) == 2);
+        assertTrue(new Viewport(.01, .01, 64).levelFor(5) == 5);
+    }
+}